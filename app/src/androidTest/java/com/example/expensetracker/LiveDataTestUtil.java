@@ -0,0 +1,45 @@
+package com.example.expensetracker;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads LiveData values from instrumented tests
+ */
+public final class LiveDataTestUtil {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private LiveDataTestUtil() {
+        // Utility class
+    }
+
+    /**
+     * Observe a LiveData on the main thread until it emits, then stop observing
+     * @param liveData LiveData to read
+     * @return First value emitted, which may be null
+     */
+    public static <T> T await(LiveData<T> liveData) throws InterruptedException {
+        AtomicReference<T> value = new AtomicReference<>();
+        CountDownLatch emitted = new CountDownLatch(1);
+        Observer<T> observer = new Observer<T>() {
+            @Override
+            public void onChanged(T t) {
+                value.set(t);
+                emitted.countDown();
+                liveData.removeObserver(this);
+            }
+        };
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.observeForever(observer));
+        if (!emitted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.removeObserver(observer));
+            throw new AssertionError("LiveData did not emit within " + TIMEOUT_SECONDS + "s");
+        }
+        return value.get();
+    }
+}
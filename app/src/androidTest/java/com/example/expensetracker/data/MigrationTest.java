@@ -0,0 +1,97 @@
+package com.example.expensetracker.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.expensetracker.data.model.Category;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+/**
+ * Upgrades databases created from each exported schema (app/schemas) and checks that the result
+ * matches the latest schema and keeps the user's expenses.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+    private static final int LATEST_VERSION = 9;
+
+    /**
+     * 2023-11-14 22:13:20 UTC
+     */
+    private static final long DATE = 1_700_000_000_000L;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrateEveryVersionToLatest() throws IOException {
+        for (int version = 1; version < LATEST_VERSION; version++) {
+            String name = TEST_DB + "-" + version;
+            helper.createDatabase(name, version).close();
+            helper.runMigrationsAndValidate(name, LATEST_VERSION, true, DatabaseMigrations.ALL).close();
+        }
+    }
+
+    @Test
+    public void migrateVersion1KeepsExpenses() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.execSQL("INSERT INTO expenses (amount, category, date, notes) VALUES (?, ?, ?, ?)",
+                new Object[]{12.5, Category.FOOD.getDisplayName(), DATE, "Taxi home"});
+        db.execSQL("INSERT INTO expenses (amount, category, date, notes) VALUES (?, ?, ?, ?)",
+                new Object[]{3.1, "Pets", DATE + 1000, null});
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, DatabaseMigrations.ALL);
+
+        // Amounts become minor units, names become category ids, unknown names new categories
+        try (Cursor cursor = db.query("SELECT expenses.id, amount_minor, category_id, categories.name, notes "
+                + "FROM expenses JOIN categories ON categories.id = expenses.category_id ORDER BY expenses.id")) {
+            assertEquals(2, cursor.getCount());
+            cursor.moveToNext();
+            assertEquals(1250, cursor.getLong(1));
+            assertEquals(Category.FOOD.getId(), cursor.getInt(2));
+            assertEquals("Taxi home", cursor.getString(4));
+            cursor.moveToNext();
+            assertEquals(310, cursor.getLong(1));
+            assertEquals("Pets", cursor.getString(3));
+            assertTrue(cursor.getInt(2) > Category.values().length);
+        }
+
+        // The search index is filled from the migrated rows; the rollup built on the way is gone
+        try (Cursor cursor = db.query("SELECT name FROM sqlite_master WHERE name LIKE '%rollup%' "
+                + "OR name = 'monthly_category_totals'")) {
+            assertEquals(0, cursor.getCount());
+        }
+        try (Cursor cursor = db.query("SELECT docid FROM expenses_fts WHERE expenses_fts MATCH 'taxi*'")) {
+            assertEquals(1, cursor.getCount());
+        }
+        db.close();
+    }
+
+    @Test
+    public void roomOpensMigratedDatabase() throws IOException {
+        helper.createDatabase(TEST_DB, 1).close();
+
+        // Opening runs the migrations and validates the tables against the compiled entities
+        AppDatabase database = AppDatabase.configure(Room.databaseBuilder(
+                ApplicationProvider.getApplicationContext(), AppDatabase.class, TEST_DB)).build();
+        database.getOpenHelper().getWritableDatabase();
+        database.close();
+    }
+}
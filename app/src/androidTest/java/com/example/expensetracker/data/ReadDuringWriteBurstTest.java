@@ -0,0 +1,349 @@
+package com.example.expensetracker.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.paging.PagingSource;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.ledger.Ledger;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.YearMonth;
+import com.example.expensetracker.data.paging.ExpensePagingSource;
+import com.example.expensetracker.data.repository.ExpenseRepository;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import kotlin.Unit;
+
+/**
+ * Runs bursts of single-row writes on the writer thread while the app's read paths follow them:
+ * the expense list is loaded through ExpensePagingSource, re-created and refreshed on every
+ * invalidation as the Pager does, and the ledger snapshot is observed together with the month
+ * total and category totals the statistics screens derive from it.
+ * <p>
+ * Page loads run on the read pool and are timed by DatabaseExecutors. The ledger refreshes on its
+ * own thread, so it is timed by how long each write takes to show up in the snapshot; the same is
+ * measured for the first page of the list. With WAL, separate threads and coalesced refreshes,
+ * neither grows with the length of the burst; if reads queued behind writes, or refreshes piled
+ * up behind each other, they would.
+ * <p>
+ * The ledger is one per process, so this runs against the app's database. Its rows are dated in
+ * a month far in the future, which puts them at the top of the list, and are deleted afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadDuringWriteBurstTest {
+
+    private static final String TAG = "ReadDuringWriteBurst";
+    private static final YearMonth MONTH = new YearMonth(2099, 11);
+    private static final long WRITE_SPACING_MILLIS = 60_000;
+    private static final int PAGE_SIZE = 60;
+    private static final int SEED_ROWS = 5_000;
+    private static final int WARM_UP = 10;
+    private static final int SMALL_BURST = 100;
+    private static final int LARGE_BURST = 1_000;
+
+    /**
+     * Highest allowed ratio of latency during the large burst to that during the small one. The
+     * large burst is 10 times longer, so linear growth would be about 10.
+     */
+    private static final double MAX_LATENCY_GROWTH = 3.0;
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private final DatabaseExecutors executors = DatabaseExecutors.getInstance();
+    private final List<Runnable> removeObservers = new ArrayList<>();
+    private final Visibility listed = new Visibility(SEED_ROWS + WARM_UP + SMALL_BURST + LARGE_BURST);
+    private final Visibility ledgered = new Visibility(SEED_ROWS + WARM_UP + SMALL_BURST + LARGE_BURST);
+    private final AtomicLong monthSum = new AtomicLong();
+    private AppDatabase database;
+    private ExpenseRepository repository;
+    private PagedList list;
+    private int rows;
+    private long expectedSum;
+
+    @Before
+    public void setUp() {
+        Application application = ApplicationProvider.getApplicationContext();
+        database = AppDatabase.getInstance(application);
+        repository = new ExpenseRepository(application);
+        ExpenseDao expenseDao = database.expenseDao();
+        expenseDao.deleteBetweenDates(MONTH.getStartDate(), MONTH.getEndDate());
+        expenseDao.insertAll(newExpenses(SEED_ROWS));
+
+        long start = MONTH.getStartDate().getTime();
+        long end = MONTH.getEndDate().getTime();
+        observe(Ledger.getInstance(database).getSnapshot(),
+                snapshot -> ledgered.visibleThrough(snapshot.countBetween(start, end)));
+        observe(repository.getMonthlyExpenseSum(MONTH.getYear(), MONTH.getMonth()),
+                sum -> monthSum.set(sum == null ? 0 : sum));
+        observe(repository.getMonthlyCategorySums(MONTH.getYear(), MONTH.getMonth()), sums -> { });
+        list = new PagedList();
+        list.refresh();
+    }
+
+    @After
+    public void tearDown() {
+        list.close();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            for (Runnable remove : removeObservers) {
+                remove.run();
+            }
+        });
+        database.expenseDao().deleteBetweenDates(MONTH.getStartDate(), MONTH.getEndDate());
+    }
+
+    @Test
+    public void readLatencyDoesNotGrowWithBurstLength() throws Exception {
+        // Let the first loads finish, then warm up the write path
+        awaitVisible(rows);
+        write(WARM_UP);
+
+        Burst small = burst(SMALL_BURST);
+        Burst large = burst(LARGE_BURST);
+
+        Log.i(TAG, "Over " + SMALL_BURST + " writes: " + small + "; over " + LARGE_BURST + " writes: " + large);
+        assertGrowth("Page load latency", small.readMicros, large.readMicros);
+        assertGrowth("Time to list a write", small.listMicros, large.listMicros);
+        assertGrowth("Time to show a write in the ledger", small.ledgerMicros, large.ledgerMicros);
+        awaitMonthSum(expectedSum);
+    }
+
+    /**
+     * Time the reads during a burst of writes
+     */
+    private Burst burst(int writes) throws InterruptedException {
+        long readsBefore = executors.getQueriesDuringWrites();
+        double latencyBefore = executors.getAverageLatencyDuringWritesMicros() * readsBefore;
+        Visibility.Mark listedBefore = listed.mark();
+        Visibility.Mark ledgeredBefore = ledgered.mark();
+        write(writes);
+
+        long reads = executors.getQueriesDuringWrites() - readsBefore;
+        assertTrue("No page loads ran during " + writes + " writes", reads > 0);
+        double latency = executors.getAverageLatencyDuringWritesMicros() * executors.getQueriesDuringWrites();
+        return new Burst((latency - latencyBefore) / reads,
+                listed.averageMicrosSince(listedBefore), ledgered.averageMicrosSince(ledgeredBefore));
+    }
+
+    /**
+     * Insert rows one transaction each on the writer thread and wait until the list and the
+     * ledger show them
+     */
+    private void write(int writes) throws InterruptedException {
+        ExpenseDao expenseDao = database.expenseDao();
+        CountDownLatch written = new CountDownLatch(writes);
+        int first = rows;
+        List<Expense> expenses = newExpenses(writes);
+        for (int i = 0; i < writes; i++) {
+            Expense expense = expenses.get(i);
+            int sequence = first + i;
+            executors.getTransactionExecutor().execute(() -> {
+                expenseDao.insert(expense);
+                listed.committed(sequence);
+                ledgered.committed(sequence);
+                written.countDown();
+            });
+        }
+        assertTrue("Writes did not finish", written.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        awaitVisible(rows);
+    }
+
+    private void awaitVisible(int expected) throws InterruptedException {
+        long deadline = SystemClock.elapsedRealtime() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while ((listed.visible() != expected || ledgered.visible() != expected)
+                && SystemClock.elapsedRealtime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Rows on the first page", expected, listed.visible());
+        assertEquals("Rows in the ledger", expected, ledgered.visible());
+    }
+
+    private void awaitMonthSum(long expected) throws InterruptedException {
+        long deadline = SystemClock.elapsedRealtime() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (monthSum.get() != expected && SystemClock.elapsedRealtime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Month total", expected, monthSum.get());
+    }
+
+    private static void assertGrowth(String what, double small, double large) {
+        double growth = large / Math.max(small, 1);
+        assertTrue(what + " grew " + growth + "x over a " + LARGE_BURST / SMALL_BURST + "x longer burst",
+                growth <= MAX_LATENCY_GROWTH);
+    }
+
+    private <T> void observe(LiveData<T> liveData, Observer<T> observer) {
+        removeObservers.add(() -> liveData.removeObserver(observer));
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> liveData.observeForever(observer));
+    }
+
+    /**
+     * New expenses dated one WRITE_SPACING_MILLIS apart after every row written so far, so the
+     * newest row is always the last one written
+     */
+    private List<Expense> newExpenses(int count) {
+        List<Expense> expenses = new ArrayList<>(count);
+        Category[] categories = Category.values();
+        long start = MONTH.getStartDate().getTime();
+        for (int i = 0; i < count; i++) {
+            int sequence = rows + i;
+            long amount = 100 + sequence;
+            expenses.add(new Expense(amount, categories[sequence % categories.length].getId(),
+                    new Date(start + sequence * WRITE_SPACING_MILLIS), "Expense " + sequence));
+            expectedSum += amount;
+        }
+        rows += count;
+        return expenses;
+    }
+
+    /**
+     * Number of written rows a screen shows, and how long each took to appear
+     */
+    private static final class Visibility {
+        private final long[] committedNanos;
+        private int visible;
+        private long totalNanos;
+        private int timed;
+
+        Visibility(int capacity) {
+            committedNanos = new long[capacity];
+        }
+
+        synchronized void committed(int sequence) {
+            committedNanos[sequence] = SystemClock.elapsedRealtimeNanos();
+        }
+
+        /**
+         * Record that the rows written before the given one are now shown
+         */
+        synchronized void visibleThrough(int count) {
+            long now = SystemClock.elapsedRealtimeNanos();
+            for (int sequence = visible; sequence < count; sequence++) {
+                // Seeded rows, and a row shown before its writer recorded the commit, are not timed
+                if (committedNanos[sequence] != 0) {
+                    totalNanos += Math.max(0, now - committedNanos[sequence]);
+                    timed++;
+                }
+            }
+            visible = Math.max(visible, count);
+        }
+
+        synchronized int visible() {
+            return visible;
+        }
+
+        synchronized Mark mark() {
+            return new Mark(totalNanos, timed);
+        }
+
+        synchronized double averageMicrosSince(Mark mark) {
+            int count = timed - mark.timed;
+            assertTrue("No writes were timed", count > 0);
+            return (totalNanos - mark.totalNanos) / 1_000.0 / count;
+        }
+
+        static final class Mark {
+            final long totalNanos;
+            final int timed;
+
+            Mark(long totalNanos, int timed) {
+                this.totalNanos = totalNanos;
+                this.timed = timed;
+            }
+        }
+    }
+
+    /**
+     * Loads the first page of the expense list the way the Pager does: each source is refreshed
+     * once, and a new one replaces it when it is invalidated
+     */
+    private final class PagedList {
+        private final AtomicLong generation = new AtomicLong();
+        private volatile boolean closed;
+        private volatile ExpensePagingSource source;
+
+        void refresh() {
+            if (closed) return;
+            long current = generation.incrementAndGet();
+            ExpensePagingSource next = repository.newExpensePagingSource();
+            next.registerInvalidatedCallback(() -> {
+                refresh();
+                return Unit.INSTANCE;
+            });
+            source = next;
+            Futures.addCallback(
+                    next.loadFuture(new PagingSource.LoadParams.Refresh<>(null, PAGE_SIZE, false)),
+                    new FutureCallback<PagingSource.LoadResult<ExpensePagingSource.Key, Expense>>() {
+                        @Override
+                        public void onSuccess(PagingSource.LoadResult<ExpensePagingSource.Key, Expense> result) {
+                            // A load overtaken by a newer source is dropped, as the Pager would
+                            if (current != generation.get() || !(result instanceof PagingSource.LoadResult.Page)) {
+                                return;
+                            }
+                            List<Expense> page = ((PagingSource.LoadResult.Page<ExpensePagingSource.Key, Expense>) result).getData();
+                            if (!page.isEmpty()) {
+                                long newest = page.get(0).getDate().getTime() - MONTH.getStartDate().getTime();
+                                listed.visibleThrough((int) (newest / WRITE_SPACING_MILLIS) + 1);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(@NonNull Throwable t) {
+                            Log.e(TAG, "Page load failed", t);
+                        }
+                    },
+                    MoreExecutors.directExecutor());
+        }
+
+        void close() {
+            closed = true;
+            ExpensePagingSource last = source;
+            if (last != null) {
+                last.invalidate();
+            }
+        }
+    }
+
+    private static final class Burst {
+        final double readMicros;
+        final double listMicros;
+        final double ledgerMicros;
+
+        Burst(double readMicros, double listMicros, double ledgerMicros) {
+            this.readMicros = readMicros;
+            this.listMicros = listMicros;
+            this.ledgerMicros = ledgerMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "page loads " + Math.round(readMicros) + "us, listed after " + Math.round(listMicros)
+                    + "us, in the ledger after " + Math.round(ledgerMicros) + "us";
+        }
+    }
+}
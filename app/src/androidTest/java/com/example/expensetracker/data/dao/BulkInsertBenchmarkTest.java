@@ -0,0 +1,97 @@
+package com.example.expensetracker.data.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.Category;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compares 10k single-row inserts, each its own transaction, with one batched insertAll, on a
+ * database file so every commit pays for its disk write.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BulkInsertBenchmarkTest {
+
+    private static final String TAG = "BulkInsertBenchmark";
+    private static final String TEST_DB = "bulk-insert-benchmark";
+    private static final int ROWS = 10_000;
+
+    /**
+     * The batched insert must be at least this many times faster. One commit per row is
+     * usually well over an order of magnitude slower, so this leaves room for slow devices.
+     */
+    private static final double MIN_SPEEDUP = 5.0;
+
+    private Context context;
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        database = AppDatabase.configure(Room.databaseBuilder(context, AppDatabase.class, TEST_DB)).build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void batchedInsertBeatsSingleInserts() {
+        ExpenseDao expenseDao = database.expenseDao();
+        // Open the database before timing, so migrations and triggers are not counted
+        database.getOpenHelper().getWritableDatabase();
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (Expense expense : newExpenses()) {
+            expenseDao.insert(expense);
+        }
+        long singleNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+        start = SystemClock.elapsedRealtimeNanos();
+        expenseDao.insertAll(newExpenses());
+        long batchedNanos = SystemClock.elapsedRealtimeNanos() - start;
+
+        Log.i(TAG, ROWS + " single inserts: " + singleNanos / 1_000_000 + "ms, one batched insert: "
+                + batchedNanos / 1_000_000 + "ms");
+        try (Cursor cursor = database.query("SELECT COUNT(*) FROM expenses", null)) {
+            cursor.moveToNext();
+            assertEquals(2 * ROWS, cursor.getInt(0));
+        }
+        double speedup = (double) singleNanos / batchedNanos;
+        assertTrue("Batched insert only " + speedup + "x faster", speedup >= MIN_SPEEDUP);
+    }
+
+    private static List<Expense> newExpenses() {
+        List<Expense> expenses = new ArrayList<>(ROWS);
+        Category[] categories = Category.values();
+        long date = 1_700_000_000_000L;
+        for (int i = 0; i < ROWS; i++) {
+            expenses.add(new Expense(100 + i, categories[i % categories.length].getId(),
+                    new Date(date - i * 60_000L), "Expense " + i));
+        }
+        return expenses;
+    }
+}
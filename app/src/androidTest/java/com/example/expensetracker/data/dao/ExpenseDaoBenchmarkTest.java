@@ -0,0 +1,315 @@
+package com.example.expensetracker.data.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.expensetracker.LiveDataTestUtil;
+import com.example.expensetracker.benchmarks.LedgerGenerator;
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.ExpenseFilterCompiler;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.ExpenseFilter;
+import com.example.expensetracker.data.model.ExportFilter;
+import com.example.expensetracker.data.model.SearchQuery;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Times every ExpenseDao query and write path on databases of 10k, 100k and 1M expenses seeded
+ * by LedgerGenerator, the generator behind the ledger benchmarks, so both run on the same data.
+ * <p>
+ * Each path runs a few times to warm up, then RUNS times, or SCAN_RUNS times for paths that read
+ * a large share of the table. The log gets its p50 and p99 latency and the bytes allocated per
+ * call across all threads; the test fails if a p99 is over its limit in
+ * assets/dao-thresholds.properties, or if a path has no limit. LiveData queries are timed until
+ * their value reaches the main thread, as a screen would see it. Writes go to a database file,
+ * so each commit pays for its disk write, and are undone by the matching delete so the table
+ * keeps its size.
+ */
+@RunWith(Parameterized.class)
+public class ExpenseDaoBenchmarkTest {
+
+    private static final String TAG = "ExpenseDaoBenchmark";
+    private static final String TEST_DB = "expense-dao-benchmark";
+    private static final String THRESHOLDS = "dao-thresholds.properties";
+    private static final long SEED = 20240101L;
+    private static final int DAYS = 5 * 365;
+    private static final int SEED_BATCH = 10_000;
+    private static final int SAMPLES = 100;
+    private static final int WARM_UP = 5;
+    private static final int RUNS = 100;
+    private static final int SCAN_RUNS = 10;
+    private static final int PAGE_SIZE = 60;
+    private static final int FILTER_PAGE_SIZE = 30;
+    private static final int SEARCH_LIMIT = 50;
+    private static final int WRITE_BATCH = 100;
+
+    /**
+     * getAllExpenses loads every row into memory at once; above this it would only measure the
+     * garbage collector
+     */
+    private static final int MAX_ROWS_FOR_ALL_EXPENSES = 100_000;
+
+    @Parameterized.Parameters(name = "{0} rows")
+    public static Collection<Object[]> sizes() {
+        return Arrays.asList(new Object[][]{{10_000}, {100_000}, {1_000_000}});
+    }
+
+    @Parameterized.Parameter
+    public int rows;
+
+    private final List<Expense> samples = new ArrayList<>(SAMPLES);
+    private final List<String> failures = new ArrayList<>();
+    private final Properties thresholds = new Properties();
+    private Context context;
+    private AppDatabase database;
+    private ExpenseDao expenseDao;
+    private Date monthStart;
+    private Date monthEnd;
+    private long yearStart;
+    private long weeksStart;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream in = InstrumentationRegistry.getInstrumentation().getContext().getAssets().open(THRESHOLDS)) {
+            thresholds.load(in);
+        }
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        database = AppDatabase.configure(Room.databaseBuilder(context, AppDatabase.class, TEST_DB)).build();
+        expenseDao = database.expenseDao();
+        seed();
+
+        // The last full month, the last twelve weeks and the last full year of the generated range
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2025, Calendar.JANUARY, 1);
+        monthEnd = new Date(calendar.getTimeInMillis() - 1);
+        calendar.add(Calendar.WEEK_OF_YEAR, -12);
+        weeksStart = calendar.getTimeInMillis();
+        calendar.clear();
+        calendar.set(2024, Calendar.DECEMBER, 1);
+        monthStart = calendar.getTime();
+        calendar.set(2024, Calendar.JANUARY, 1);
+        yearStart = calendar.getTimeInMillis();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void expenseDaoPathsStayWithinLimits() throws Exception {
+        measureQueries();
+        measureWrites();
+        assertEquals("Rows after the writes were undone", rows, expenseDao.countAll());
+        assertTrue("Over their limit:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    private void measureQueries() throws Exception {
+        measure("getExpensePageFirst", RUNS, i -> expenseDao.getExpensePageFirst(PAGE_SIZE).get());
+        measure("getExpensePageFrom", RUNS, i -> {
+            Expense key = sample(i);
+            expenseDao.getExpensePageFrom(key.getDate().getTime(), key.getId(), PAGE_SIZE).get();
+        });
+        measure("getExpensePageAfter", RUNS, i -> {
+            Expense key = sample(i);
+            expenseDao.getExpensePageAfter(key.getDate().getTime(), key.getId(), PAGE_SIZE).get();
+        });
+        measure("getExpensePageBefore", RUNS, i -> {
+            Expense key = sample(i);
+            expenseDao.getExpensePageBefore(key.getDate().getTime(), key.getId(), PAGE_SIZE).get();
+        });
+        measure("getExpenseById", RUNS, i -> LiveDataTestUtil.await(expenseDao.getExpenseById(sample(i).getId())));
+        measure("getExpensesBetweenDates", RUNS,
+                i -> LiveDataTestUtil.await(expenseDao.getExpensesBetweenDates(monthStart, monthEnd)));
+        measure("getExpensesByCategory", SCAN_RUNS,
+                i -> LiveDataTestUtil.await(expenseDao.getExpensesByCategory(Category.EDUCATION.getId())));
+        if (rows <= MAX_ROWS_FOR_ALL_EXPENSES) {
+            measure("getAllExpenses", SCAN_RUNS, i -> LiveDataTestUtil.await(expenseDao.getAllExpenses()));
+        }
+
+        String match = SearchQuery.toMatchExpression("groceries");
+        measure("searchExpenses", RUNS, i -> LiveDataTestUtil.await(expenseDao.searchExpenses(match, SEARCH_LIMIT)));
+
+        ExpenseFilterCompiler compiler = new ExpenseFilterCompiler();
+        ExpenseFilter filter = ExpenseFilter.none().buildUpon()
+                .setDateRange(monthStart, monthEnd)
+                .setCategoryIds(Arrays.asList(Category.FOOD.getId(), Category.SHOPPING.getId()))
+                .setAmountRange(10_000L, null)
+                .setSort(ExpenseFilter.Sort.HIGHEST_AMOUNT)
+                .build();
+        measure("getFilteredExpensePage.first", RUNS,
+                i -> expenseDao.getFilteredExpensePage(compiler.compile(filter, FILTER_PAGE_SIZE, 0)));
+        measure("getFilteredExpensePage.deep", RUNS,
+                i -> expenseDao.getFilteredExpensePage(compiler.compile(filter, FILTER_PAGE_SIZE, 10 * FILTER_PAGE_SIZE)));
+
+        long monthStartMillis = monthStart.getTime();
+        long monthEndMillis = monthEnd.getTime();
+        measure("getDailyTotals", RUNS,
+                i -> LiveDataTestUtil.await(expenseDao.getDailyTotals(monthStartMillis, monthEndMillis)));
+        measure("getWeeklyTotals", RUNS,
+                i -> LiveDataTestUtil.await(expenseDao.getWeeklyTotals(weeksStart, monthEndMillis)));
+        measure("getMonthlyTotals", RUNS,
+                i -> LiveDataTestUtil.await(expenseDao.getMonthlyTotals(yearStart, monthEndMillis)));
+
+        ExportFilter month = new ExportFilter(monthStart, monthEnd, null);
+        ExportFilter monthCategories = new ExportFilter(monthStart, monthEnd,
+                Arrays.asList(Category.FOOD.getId(), Category.TRANSPORTATION.getId()));
+        measure("countAll", RUNS, i -> expenseDao.countAll());
+        measure("countBetweenDates.month", RUNS, i -> expenseDao.countExpenses(month));
+        measure("countBetweenDates.monthCategories", RUNS, i -> expenseDao.countExpenses(monthCategories));
+        measure("getAllExpensesCursor", SCAN_RUNS, i -> readAll(expenseDao.getAllExpensesCursor()));
+        measure("getExpensesCursor.month", RUNS, i -> readAll(expenseDao.getExpensesCursor(month)));
+        measure("getExpensesCursor.monthCategories", RUNS,
+                i -> readAll(expenseDao.getExpensesCursor(monthCategories)));
+    }
+
+    private void measureWrites() throws Exception {
+        int singles = WARM_UP + RUNS;
+        List<Expense> inserted = new ArrayList<>(singles);
+        measure("insert", RUNS, i -> {
+            Expense expense = newExpense(i);
+            expense.setId(expenseDao.insert(expense));
+            inserted.add(expense);
+        });
+        measure("update", RUNS, i -> {
+            Expense expense = inserted.get(i);
+            expense.setAmountMinor(expense.getAmountMinor() + 100);
+            expenseDao.update(expense);
+        });
+        measure("delete", RUNS, i -> expenseDao.delete(inserted.get(i)));
+
+        List<long[]> batches = new ArrayList<>(singles);
+        measure("insertAll", RUNS, i -> {
+            List<Expense> batch = new ArrayList<>(WRITE_BATCH);
+            for (int j = 0; j < WRITE_BATCH; j++) {
+                batch.add(newExpense(i * WRITE_BATCH + j));
+            }
+            batches.add(expenseDao.insertAll(batch));
+        });
+        measure("deleteByIds", RUNS, i -> expenseDao.deleteByIds(batches.get(i)));
+    }
+
+    /**
+     * Run an operation WARM_UP times, then time it the given number of times and check its p99
+     * against its threshold. A path without a threshold still runs, and fails. The iteration index runs on from the warm-up, so writes can pair up
+     * with the operation that undoes them.
+     */
+    @SuppressWarnings("deprecation")
+    private void measure(String path, int runs, Operation operation) throws Exception {
+        for (int i = 0; i < WARM_UP; i++) {
+            operation.run(i);
+        }
+
+        long[] nanos = new long[runs];
+        Debug.startAllocCounting();
+        Debug.resetGlobalAllocSize();
+        for (int i = 0; i < runs; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            operation.run(WARM_UP + i);
+            nanos[i] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+        long allocated = Debug.getGlobalAllocSize();
+        Debug.stopAllocCounting();
+
+        Arrays.sort(nanos);
+        String key = path + "@" + rows;
+        String limit = thresholds.getProperty(key);
+        double p50 = percentile(nanos, 50) / 1e6;
+        double p99 = percentile(nanos, 99) / 1e6;
+        String line = String.format("%s: p50 %.3fms, p99 %.3fms, %d bytes/op (limit %sms)",
+                key, p50, p99, allocated / runs, limit);
+        Log.i(TAG, line);
+        if (limit == null) {
+            failures.add(key + ": no threshold in " + THRESHOLDS);
+        } else if (p99 > Double.parseDouble(limit)) {
+            failures.add(line);
+        }
+    }
+
+    /**
+     * Fill the database from the generator in one transaction, keeping every (rows / SAMPLES)th
+     * row as a page key and update target, and clear the change log the triggers wrote
+     */
+    private void seed() {
+        int sampleEvery = rows / SAMPLES;
+        List<Expense> batch = new ArrayList<>(SEED_BATCH);
+        database.runInTransaction(() -> {
+            new LedgerGenerator(SEED, DAYS).generate(rows, (id, date, amountMinor, categoryId, notes) -> {
+                Expense expense = new Expense(amountMinor, categoryId, new Date(date), notes);
+                expense.setId(id);
+                batch.add(expense);
+                if (id % sampleEvery == 0) {
+                    samples.add(expense);
+                }
+                if (batch.size() == SEED_BATCH) {
+                    expenseDao.insertAll(batch);
+                    batch.clear();
+                }
+            });
+            expenseDao.insertAll(batch);
+        });
+        database.ledgerDao().deleteChanges(Long.MAX_VALUE);
+        assertEquals(rows, expenseDao.countAll());
+    }
+
+    private Expense sample(int iteration) {
+        return samples.get(iteration % samples.size());
+    }
+
+    /**
+     * A new expense in the last generated month, so it lands where the app adds them
+     */
+    private Expense newExpense(int index) {
+        Category[] categories = Category.values();
+        return new Expense(1_000 + index, categories[index % categories.length].getId(),
+                new Date(monthEnd.getTime() - index * 1_000L), "Benchmark " + index);
+    }
+
+    private static int readAll(Cursor cursor) {
+        try (Cursor open = cursor) {
+            int count = 0;
+            while (open.moveToNext()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private interface Operation {
+        void run(int iteration) throws Exception;
+    }
+}
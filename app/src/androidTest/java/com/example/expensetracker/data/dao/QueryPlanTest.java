@@ -0,0 +1,237 @@
+package com.example.expensetracker.data.dao;
+
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.expensetracker.LiveDataTestUtil;
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.ExpenseFilterCompiler;
+import com.example.expensetracker.data.entity.Budget;
+import com.example.expensetracker.data.entity.CategoryEntity;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.ExpenseFilter;
+import com.example.expensetracker.data.model.ExportFilter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs every DAO query against an in-memory database, records the SQL Room actually executes
+ * and checks its EXPLAIN QUERY PLAN: no statement may scan a table row by row without an index,
+ * apart from the small tables and the known scans listed below.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    /**
+     * Plan lines for a table scan without an index. Older SQLite versions say "SCAN TABLE".
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)$");
+
+    /**
+     * Tables with about one row per category, or per month and category, which are cheaper to
+     * scan than to index
+     */
+    private static final Set<String> SMALL_TABLES = new HashSet<>(Arrays.asList("categories", "budgets"));
+
+    /**
+     * Statements allowed to scan, by a fragment of their SQL, with the reason
+     */
+    private static final Map<String, String> KNOWN_SCANS = new LinkedHashMap<>();
+
+    static {
+        KNOWN_SCANS.put("ORDER BY amount_minor",
+                "a filter sorted by amount without a date range reads every row; it is capped at its limit");
+    }
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long START = 1_700_000_000_000L;
+
+    private final List<Statement> statements = Collections.synchronizedList(new ArrayList<>());
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        database = AppDatabase.configure(Room.inMemoryDatabaseBuilder(
+                        ApplicationProvider.getApplicationContext(), AppDatabase.class))
+                .setQueryCallback((sql, args) -> statements.add(new Statement(sql, args)), Runnable::run)
+                .build();
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Category category = Category.values()[i % Category.values().length];
+            expenses.add(new Expense(100 + i, category.getId(), new Date(START + i * DAY / 4), "Taxi " + i));
+        }
+        database.expenseDao().insertAll(expenses);
+        database.budgetDao().upsert(new Budget(2023, 11, Category.FOOD.getId(), 50_000));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void everyDaoQueryUsesAnIndex() throws Exception {
+        statements.clear();
+        Date from = new Date(START);
+        Date to = new Date(START + 30 * DAY);
+        ExpenseDao expenseDao = database.expenseDao();
+        Expense first = expenseDao.getExpensePageFirst(30).get().get(0);
+        long date = first.getDate().getTime();
+
+        // ExpenseDao reads
+        LiveDataTestUtil.await(expenseDao.getAllExpenses());
+        close(expenseDao.getExpensesCursor(ExportFilter.all()));
+        close(expenseDao.getAllExpensesCursor());
+        close(expenseDao.getExpensesCursor(from, to));
+        close(expenseDao.getExpensesCursor(from, to, Arrays.asList(1, 2)));
+        expenseDao.countAll();
+        expenseDao.countBetweenDates(from, to);
+        expenseDao.countBetweenDates(from, to, Arrays.asList(1, 2));
+        expenseDao.getExpensePageFrom(date, first.getId(), 30).get();
+        expenseDao.getExpensePageAfter(date, first.getId(), 30).get();
+        expenseDao.getExpensePageBefore(date, first.getId(), 30).get();
+        LiveDataTestUtil.await(expenseDao.getExpenseById(first.getId()));
+        LiveDataTestUtil.await(expenseDao.getExpensesByCategory(Category.FOOD.getId()));
+        LiveDataTestUtil.await(expenseDao.getExpensesBetweenDates(from, to));
+        LiveDataTestUtil.await(expenseDao.searchExpenses("taxi*", 50));
+        LiveDataTestUtil.await(expenseDao.getDailyTotals(from.getTime(), to.getTime()));
+        LiveDataTestUtil.await(expenseDao.getWeeklyTotals(from.getTime(), to.getTime()));
+        LiveDataTestUtil.await(expenseDao.getMonthlyTotals(from.getTime(), to.getTime()));
+
+        // Compiled filters, one per sort order and with every criterion
+        ExpenseFilterCompiler compiler = new ExpenseFilterCompiler();
+        for (ExpenseFilter.Sort sort : ExpenseFilter.Sort.values()) {
+            ExpenseFilter all = ExpenseFilter.none().buildUpon()
+                    .setDateRange(from, to)
+                    .setCategoryIds(Arrays.asList(1, 2))
+                    .setAmountRange(100L, 10_000L)
+                    .setNotesText("taxi")
+                    .setSort(sort)
+                    .build();
+            expenseDao.getFilteredExpensePage(compiler.compile(all, 30, 0));
+            expenseDao.getFilteredExpensePage(compiler.compile(all, 30, 60));
+            ExpenseFilter amountOnly = ExpenseFilter.none().buildUpon()
+                    .setAmountRange(100L, null)
+                    .setSort(sort)
+                    .build();
+            expenseDao.getFilteredExpensePage(compiler.compile(amountOnly, 30, 0));
+        }
+
+        // Other DAOs' reads
+        LiveDataTestUtil.await(database.budgetDao().getBudgetsForMonth(2023, 11));
+        database.categoryDao().findIdByName(Category.FOOD.getDisplayName());
+        database.categoryDao().getAll();
+        LiveDataTestUtil.await(database.categoryDao().observeAll());
+        LedgerDao ledgerDao = database.ledgerDao();
+        close(ledgerDao.getLedgerPageFirst(30));
+        close(ledgerDao.getLedgerPageAfter(date, first.getId(), 30));
+        long lastSeq = ledgerDao.getLastChange();
+        ledgerDao.countChanged(0, lastSeq);
+        close(ledgerDao.getChangedCursor(0, lastSeq));
+
+        // Writes that find their rows with a WHERE clause
+        expenseDao.reassignCategory(Category.EDUCATION.getId(), Category.OTHER.getId());
+        expenseDao.deleteByIds(new long[]{first.getId()});
+        expenseDao.deleteBetweenDates(from, new Date(START + DAY));
+        int unused = (int) database.categoryDao().insert(new CategoryEntity("Unused"));
+        database.budgetDao().deleteForCategory(unused);
+        database.budgetDao().delete(2023, 11, Category.FOOD.getId());
+        database.categoryDao().delete(unused);
+        ledgerDao.deleteChanges(lastSeq);
+
+        List<Statement> executed;
+        synchronized (statements) {
+            executed = new ArrayList<>(statements);
+        }
+        List<String> failures = new ArrayList<>();
+        int checked = 0;
+        for (Statement statement : executed) {
+            if (!statement.isPlanned()) continue;
+            checked++;
+            for (String line : explain(statement)) {
+                Matcher scan = FULL_SCAN.matcher(line);
+                if (scan.matches() && !SMALL_TABLES.contains(scan.group(1)) && !isKnownScan(statement.sql)) {
+                    failures.add(line + " in: " + statement.sql);
+                }
+            }
+        }
+        assertTrue("Only " + checked + " statements were checked", checked >= 40);
+        assertTrue("Queries without an index:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    private List<String> explain(Statement statement) {
+        List<String> lines = new ArrayList<>();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(
+                "EXPLAIN QUERY PLAN " + statement.sql, statement.args.toArray()))) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                lines.add(cursor.getString(detail));
+            }
+        }
+        return lines;
+    }
+
+    private static boolean isKnownScan(String sql) {
+        for (String fragment : KNOWN_SCANS.keySet()) {
+            if (sql.contains(fragment)) return true;
+        }
+        return false;
+    }
+
+    private static void close(Cursor cursor) {
+        // Step through every row, as the callers do
+        while (cursor.moveToNext()) {
+            cursor.getLong(0);
+        }
+        cursor.close();
+    }
+
+    /**
+     * One statement executed by Room, with its arguments
+     */
+    private static final class Statement {
+        final String sql;
+        final List<Object> args;
+
+        Statement(String sql, List<?> args) {
+            this.sql = sql.trim();
+            this.args = new ArrayList<>(args);
+        }
+
+        /**
+         * Reads and writes on the app's tables; Room's own bookkeeping and plain inserts have no
+         * plan worth checking
+         */
+        boolean isPlanned() {
+            String upper = sql.toUpperCase();
+            if (upper.contains("ROOM_TABLE_MODIFICATION_LOG") || upper.contains("ROOM_MASTER_TABLE")
+                    || upper.contains("SQLITE_MASTER") || upper.startsWith("EXPLAIN")) {
+                return false;
+            }
+            return upper.startsWith("SELECT") || upper.startsWith("UPDATE") || upper.startsWith("DELETE")
+                    || (upper.startsWith("INSERT") && upper.contains(" SELECT "));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.expensetracker.data.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.expensetracker.LiveDataTestUtil;
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.SearchQuery;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares notes search through the expenses_fts index with a LIKE '%x%' scan over 100k
+ * expenses. The search runs as the app's LiveData query and the scan as a raw query on the test
+ * thread, so only the search's timing includes delivery to the main thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SearchBenchmarkTest {
+
+    private static final String TAG = "SearchBenchmark";
+    private static final int ROWS = 100_000;
+    private static final int RUNS = 15;
+    private static final int LIMIT = 50;
+
+    /**
+     * The FTS search should answer in milliseconds; this bound leaves room for slow devices
+     */
+    private static final long MAX_FTS_MEDIAN_MILLIS = 50;
+
+    private static final String[] WORDS = {
+            "lunch", "coffee", "groceries", "bus", "cinema", "rent", "books", "pharmacy", "dinner", "fuel"
+    };
+
+    /**
+     * Appears in about one note in 200
+     */
+    private static final String RARE_WORD = "taxi";
+
+    private static final String LIKE_QUERY = "SELECT * FROM expenses WHERE notes LIKE ? ORDER BY date DESC";
+
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        database = AppDatabase.configure(Room.inMemoryDatabaseBuilder(
+                ApplicationProvider.getApplicationContext(), AppDatabase.class)).build();
+        Random random = new Random(17);
+        List<Expense> expenses = new ArrayList<>(ROWS);
+        Category[] categories = Category.values();
+        long date = 1_700_000_000_000L;
+        for (int i = 0; i < ROWS; i++) {
+            String notes = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            if (random.nextInt(200) == 0) {
+                notes = RARE_WORD + " " + notes;
+            }
+            expenses.add(new Expense(100 + random.nextInt(10_000), categories[i % categories.length].getId(),
+                    new Date(date - i * 600_000L), notes));
+        }
+        database.expenseDao().insertAll(expenses);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void ftsSearchBeatsLikeScan() throws InterruptedException {
+        ExpenseDao expenseDao = database.expenseDao();
+        String match = SearchQuery.toMatchExpression(RARE_WORD);
+        Object[] args = {"%" + RARE_WORD + "%"};
+        SimpleSQLiteQuery like = new SimpleSQLiteQuery(LIKE_QUERY + " LIMIT " + LIMIT, args);
+
+        // Without a limit, both paths must find exactly the same rows
+        Set<Long> likeIds = ids(expenseDao.getFilteredExpensePage(new SimpleSQLiteQuery(LIKE_QUERY, args)));
+        Set<Long> ftsIds = ids(LiveDataTestUtil.await(expenseDao.searchExpenses(match, ROWS)));
+        assertTrue("Only " + likeIds.size() + " rows match", likeIds.size() > LIMIT);
+        assertEquals(likeIds, ftsIds);
+
+        long[] ftsNanos = new long[RUNS];
+        long[] likeNanos = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            LiveDataTestUtil.await(expenseDao.searchExpenses(match, LIMIT));
+            ftsNanos[run] = SystemClock.elapsedRealtimeNanos() - start;
+
+            start = SystemClock.elapsedRealtimeNanos();
+            expenseDao.getFilteredExpensePage(like);
+            likeNanos[run] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+
+        long ftsMillis = median(ftsNanos) / 1_000_000;
+        long likeMillis = median(likeNanos) / 1_000_000;
+        Log.i(TAG, "Median over " + ROWS + " rows: FTS " + ftsMillis + "ms, LIKE " + likeMillis + "ms");
+        assertTrue("FTS median " + ftsMillis + "ms", ftsMillis <= MAX_FTS_MEDIAN_MILLIS);
+        assertTrue("FTS median " + ftsMillis + "ms is not below LIKE median " + likeMillis + "ms",
+                median(ftsNanos) < median(likeNanos));
+    }
+
+    private static Set<Long> ids(List<Expense> expenses) {
+        Set<Long> ids = new HashSet<>();
+        for (Expense expense : expenses) {
+            ids.add(expense.getId());
+        }
+        return ids;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
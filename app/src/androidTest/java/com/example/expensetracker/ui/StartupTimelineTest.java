@@ -0,0 +1,45 @@
+package com.example.expensetracker.ui;
+
+import static org.junit.Assert.assertTrue;
+
+import android.os.SystemClock;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.expensetracker.util.StartupTimeline;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches MainActivity and checks that every startup marker is recorded, in the order the
+ * app reaches them: Application created, first frame, first frame with data.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupTimelineTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void markersAreRecordedInOrder() throws InterruptedException {
+        try (ActivityScenario<MainActivity> ignored = ActivityScenario.launch(MainActivity.class)) {
+            long deadline = SystemClock.elapsedRealtime() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+            while (StartupTimeline.getFirstDataFrameMillis() < 0 && SystemClock.elapsedRealtime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            long applicationCreated = StartupTimeline.getApplicationCreatedMillis();
+            long firstFrame = StartupTimeline.getFirstFrameMillis();
+            long firstDataFrame = StartupTimeline.getFirstDataFrameMillis();
+            String timeline = "applicationCreated=" + applicationCreated + "ms, firstFrame=" + firstFrame
+                    + "ms, firstDataFrame=" + firstDataFrame + "ms";
+            assertTrue("Marker missing: " + timeline,
+                    applicationCreated >= 0 && firstFrame >= 0 && firstDataFrame >= 0);
+            assertTrue("Markers out of order: " + timeline,
+                    applicationCreated <= firstFrame && firstFrame <= firstDataFrame);
+        }
+    }
+}
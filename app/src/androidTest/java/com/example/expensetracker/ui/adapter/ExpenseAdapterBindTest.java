@@ -0,0 +1,148 @@
+package com.example.expensetracker.ui.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.paging.PagingData;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.expensetracker.R;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.ui.model.ExpenseRow;
+import com.example.expensetracker.ui.model.ExpenseRowMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import kotlin.Unit;
+
+/**
+ * Edits one row of a 5k-row list and counts the binds that follow: the diff must rebind only
+ * the edited row, and only with a payload.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExpenseAdapterBindTest {
+
+    private static final int ROWS = 5_000;
+    private static final int EDITED_POSITION = 3;
+
+    private final ExpenseRowMapper mapper = new ExpenseRowMapper(() -> CategoryTable.BUILT_IN);
+    private RecyclerView recyclerView;
+    private CountingAdapter adapter;
+    private LifecycleRegistry lifecycle;
+    private volatile CountDownLatch pagesUpdated;
+
+    @Before
+    public void setUp() {
+        Context context = new ContextThemeWrapper(
+                ApplicationProvider.getApplicationContext(), R.style.Theme_ExpenseTracker);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            LifecycleOwner owner = () -> lifecycle;
+            lifecycle = new LifecycleRegistry(owner);
+            lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+
+            adapter = new CountingAdapter(context);
+            adapter.addOnPagesUpdatedListener(() -> {
+                pagesUpdated.countDown();
+                return Unit.INSTANCE;
+            });
+            recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            // Without animations a changed row is rebound in place, as the payload allows
+            recyclerView.setItemAnimator(null);
+            recyclerView.setAdapter(adapter);
+        });
+    }
+
+    @Test
+    public void singleRowEditRebindsOneRowWithPayload() throws InterruptedException {
+        List<Expense> expenses = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Expense expense = new Expense(100 + i, Category.values()[i % Category.values().length].getId(),
+                    new Date(1_700_000_000_000L - i * 60_000L), "Expense " + i);
+            expense.setId(ROWS - i);
+            expenses.add(expense);
+        }
+        submitAndLayout(expenses);
+        int firstBinds = adapter.fullBinds;
+        assertTrue("Initial layout bound " + firstBinds + " rows", firstBinds > 0 && firstBinds < ROWS);
+
+        // Edit the amount of one visible row
+        List<Expense> edited = new ArrayList<>(expenses);
+        Expense original = expenses.get(EDITED_POSITION);
+        Expense copy = new Expense(original.getAmountMinor() + 1, original.getCategoryId(),
+                original.getDate(), original.getNotes());
+        copy.setId(original.getId());
+        edited.set(EDITED_POSITION, copy);
+        adapter.fullBinds = 0;
+        adapter.payloadBinds = 0;
+        submitAndLayout(edited);
+
+        assertEquals("Full rebinds after a one-row edit", 0, adapter.fullBinds);
+        assertEquals("Payload rebinds after a one-row edit", 1, adapter.payloadBinds);
+        assertEquals(EDITED_POSITION, adapter.lastPayloadPosition);
+    }
+
+    private void submitAndLayout(List<Expense> expenses) throws InterruptedException {
+        List<ExpenseRow> rows = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            rows.add(mapper.toRow(expense));
+        }
+        pagesUpdated = new CountDownLatch(1);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+                adapter.submitData(lifecycle, PagingData.from(rows)));
+        assertTrue("Pages not presented", pagesUpdated.await(10, TimeUnit.SECONDS));
+        // The RecyclerView is not attached to a window, so lay it out by hand
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            recyclerView.measure(
+                    View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+            recyclerView.layout(0, 0, 1080, 1920);
+        });
+    }
+
+    /**
+     * Counts full binds and payload binds
+     */
+    private static class CountingAdapter extends ExpenseAdapter {
+        int fullBinds;
+        int payloadBinds;
+        int lastPayloadPosition = RecyclerView.NO_POSITION;
+
+        CountingAdapter(Context context) {
+            super(context, null);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.isEmpty()) {
+                fullBinds++;
+            } else {
+                payloadBinds++;
+                lastPayloadPosition = position;
+            }
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.expensetracker.viewmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.InvalidationTracker;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.ledger.Ledger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Switches the statistics month 100 times while every month-driven LiveData is observed, and
+ * checks that the number of live Room queries and ledger observers does not grow.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MonthSwitchObserverTest {
+
+    private static final int SWITCHES = 100;
+
+    private final Observer<Object> ignore = value -> { };
+    private final List<LiveData<?>> observed = new ArrayList<>();
+    private AppDatabase database;
+    private ExpenseViewModel viewModel;
+
+    @Before
+    public void setUp() {
+        Application application = ApplicationProvider.getApplicationContext();
+        database = AppDatabase.getInstance(application);
+        runOnMainSync(() -> {
+            viewModel = new ExpenseViewModel(application);
+            observed.add(viewModel.getCurrentMonthExpenses());
+            observed.add(viewModel.getCurrentMonthExpenseSum());
+            observed.add(viewModel.getCurrentMonthCategorySums());
+            observed.add(viewModel.getBudgetStatus());
+            for (LiveData<?> liveData : observed) {
+                observe(liveData);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        runOnMainSync(() -> {
+            for (LiveData<?> liveData : observed) {
+                liveData.removeObserver(ignore);
+            }
+        });
+    }
+
+    @Test
+    public void observerCountIsConstantAcrossMonthSwitches() throws Exception {
+        runOnMainSync(() -> viewModel.setCurrentMonthAndYear(2020, 1));
+        int roomQueries = activeRoomQueries();
+        int ledgerObservers = activeObservers(Ledger.getInstance(database).getSnapshot());
+        assertTrue("No Room queries are active", roomQueries > 0);
+        assertTrue("No ledger observers are active", ledgerObservers > 0);
+
+        for (int i = 1; i <= SWITCHES; i++) {
+            int year = 2020 + i / 12;
+            int month = i % 12 + 1;
+            runOnMainSync(() -> viewModel.setCurrentMonthAndYear(year, month));
+        }
+
+        assertEquals("Active Room queries after " + SWITCHES + " switches", roomQueries, activeRoomQueries());
+        assertEquals("Ledger observers after " + SWITCHES + " switches", ledgerObservers,
+                activeObservers(Ledger.getInstance(database).getSnapshot()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void observe(LiveData<?> liveData) {
+        ((LiveData<Object>) liveData).observeForever(ignore);
+    }
+
+    /**
+     * Room keeps every active query LiveData in a set until it loses its last observer
+     */
+    private int activeRoomQueries() throws Exception {
+        InvalidationTracker tracker = database.getInvalidationTracker();
+        Object container = readField(InvalidationTracker.class, tracker, "invalidationLiveDataContainer");
+        Set<?> liveDataSet = (Set<?>) readField(container.getClass(), container, "liveDataSet");
+        int[] size = new int[1];
+        runOnMainSync(() -> {
+            synchronized (liveDataSet) {
+                size[0] = liveDataSet.size();
+            }
+        });
+        return size[0];
+    }
+
+    private int activeObservers(LiveData<?> liveData) throws Exception {
+        int[] count = new int[1];
+        Field field = LiveData.class.getDeclaredField("mActiveCount");
+        field.setAccessible(true);
+        runOnMainSync(() -> {
+            try {
+                count[0] = field.getInt(liveData);
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        });
+        return count[0];
+    }
+
+    private static Object readField(Class<?> type, Object target, String name) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    private static void runOnMainSync(Runnable action) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(action);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.expensetracker;
+
+import android.app.Application;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.CategoryCache;
+import com.example.expensetracker.data.DatabaseExecutors;
+import com.example.expensetracker.data.ledger.Ledger;
+import com.example.expensetracker.util.StartupTimeline;
+import com.example.expensetracker.util.Tracer;
+
+/**
+ * Application class that starts opening the database while the first activity is created.
+ * <p>
+ * Opening the database runs any pending migrations and installs Room's invalidation triggers,
+ * which can take a while on a large ledger. Doing it here on the writer thread means the main
+ * thread never waits for it, and the expense list's first query usually finds it already open.
+ * The category cache and ledger are created on the same thread, so their invalidation observers
+ * are registered off the main thread as well, and the ledger starts loading for the statistics
+ * and budget screens.
+ */
+public class ExpenseTrackerApplication extends Application {
+
+    private static final String TAG = "ExpenseTrackerApplication";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        DatabaseExecutors.getInstance().getTransactionExecutor().execute(this::warmUpDatabase);
+        StartupTimeline.markApplicationCreated();
+    }
+
+    private void warmUpDatabase() {
+        Tracer.beginSection("ExpenseTrackerApplication.warmUpDatabase");
+        try {
+            AppDatabase database = AppDatabase.getInstance(this);
+            CategoryCache.getInstance(database);
+            Ledger.getInstance(database);
+            database.getOpenHelper().getWritableDatabase();
+            Tracer.debug(TAG, () -> "Database open");
+        } finally {
+            Tracer.endSection();
+        }
+    }
+}
@@ -2,20 +2,32 @@ package com.example.expensetracker.data;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import com.example.expensetracker.data.dao.BudgetDao;
+import com.example.expensetracker.data.dao.CategoryDao;
 import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.dao.LedgerDao;
+import com.example.expensetracker.data.entity.Budget;
+import com.example.expensetracker.data.entity.CategoryEntity;
 import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.entity.ExpenseChange;
+import com.example.expensetracker.data.entity.ExpenseFts;
 import com.example.expensetracker.util.DateConverter;
 
 /**
  * Main database class for the application.
  * Defines the database configuration and serves as the main access point for the database.
  */
-@Database(entities = {Expense.class}, version = 1, exportSchema = false)
+@Database(entities = {Expense.class, ExpenseFts.class, Budget.class,
+        CategoryEntity.class, ExpenseChange.class},
+        version = 9, exportSchema = true)
 @TypeConverters({DateConverter.class})
 public abstract class AppDatabase extends RoomDatabase {
     
@@ -28,6 +40,43 @@ public abstract class AppDatabase extends RoomDatabase {
      */
     public abstract ExpenseDao expenseDao();
     
+    /**
+     * Get the BudgetDao for monthly and per-category budgets
+     * @return BudgetDao instance
+     */
+    public abstract BudgetDao budgetDao();
+    
+    /**
+     * Get the CategoryDao for built-in and user-defined categories
+     * @return CategoryDao instance
+     */
+    public abstract CategoryDao categoryDao();
+    
+    /**
+     * Get the LedgerDao for loading the in-memory ledger and reading the expense change log
+     * @return LedgerDao instance
+     */
+    public abstract LedgerDao ledgerDao();
+    
+    /**
+     * Seeds the built-in categories and creates the search index and change log triggers
+     * on a fresh database, and enables recursive triggers so that rows removed by INSERT OR REPLACE also
+     * fire the delete triggers
+     */
+    private static final Callback DATABASE_CALLBACK = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            CategorySchema.insertBuiltIns(db);
+            SearchIndexSchema.createTriggers(db);
+            LedgerSchema.createTriggers(db);
+        }
+        
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("PRAGMA recursive_triggers = ON");
+        }
+    };
+    
     /**
      * Get the database instance (singleton pattern)
      * @param context Application context
@@ -37,15 +86,33 @@ public abstract class AppDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    INSTANCE = configure(Room.databaseBuilder(
                             context.getApplicationContext(),
                             AppDatabase.class,
-                            DATABASE_NAME)
-                            .fallbackToDestructiveMigration() // For simplicity in development
+                            DATABASE_NAME))
                             .build();
                 }
             }
         }
         return INSTANCE;
     }
+    
+    /**
+     * Configure a builder the way getInstance does, so tests can build databases of their own
+     * (in memory, or in another file) that behave like the app's
+     * @param builder Builder for an AppDatabase
+     * @return The builder, with migrations, the seeding and trigger callback, WAL and the shared
+     *         executors set
+     */
+    @VisibleForTesting
+    public static Builder<AppDatabase> configure(@NonNull Builder<AppDatabase> builder) {
+        DatabaseExecutors executors = DatabaseExecutors.getInstance();
+        return builder
+                .addMigrations(DatabaseMigrations.ALL)
+                .addCallback(DATABASE_CALLBACK)
+                // Readers run alongside the writer instead of behind it
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(executors.getQueryExecutor())
+                .setTransactionExecutor(executors.getTransactionExecutor());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,250 @@
+package com.example.expensetracker.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.util.Tracer;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer executor for database writes.
+ * Writes are queued in a bounded queue and drained by the database's writer thread, which runs
+ * everything that has queued up since the last drain inside a single Room transaction.
+ * Callers get a ListenableFuture for each write instead of blocking on disk I/O.
+ */
+public class BatchingWriteExecutor {
+
+    private static final String TAG = "BatchingWriteExecutor";
+
+    /**
+     * Maximum number of queued writes; further writes are rejected until the queue drains
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * Maximum number of writes committed in one transaction
+     */
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private static volatile BatchingWriteExecutor INSTANCE;
+
+    private final AppDatabase database;
+    private final BlockingQueue<PendingWrite<?>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Executor writerThread;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    // Metrics
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+
+    private BatchingWriteExecutor(AppDatabase database) {
+        this.database = database;
+        // The database's transaction executor is a single writer thread (see DatabaseExecutors)
+        this.writerThread = database.getTransactionExecutor();
+    }
+
+    /**
+     * Get the write executor for a database (singleton pattern, one writer per database)
+     * @param database Database the writes go to
+     * @return BatchingWriteExecutor instance
+     */
+    public static BatchingWriteExecutor getInstance(AppDatabase database) {
+        if (INSTANCE == null) {
+            synchronized (BatchingWriteExecutor.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new BatchingWriteExecutor(database);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Queue a write. It runs on the writer thread, in a transaction shared with any other
+     * writes queued at the same time.
+     * @param write The write to run
+     * @return Future that completes with the write's result, or fails if it threw or the
+     *         queue was full
+     */
+    public <T> ListenableFuture<T> submit(@NonNull Callable<T> write) {
+        PendingWrite<T> pending = new PendingWrite<>(write);
+        if (!queue.offer(pending)) {
+            return Futures.immediateFailedFuture(
+                    new RejectedExecutionException("Write queue is full (" + QUEUE_CAPACITY + ")"));
+        }
+        scheduleDrain();
+        return pending.future;
+    }
+
+    /**
+     * @return Number of writes waiting for the writer thread
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return Number of transactions committed by the writer thread
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return Number of writes committed by the writer thread
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @return Number of writes in the most recent transaction
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize.get();
+    }
+
+    /**
+     * @return Largest number of writes committed in one transaction so far
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    /**
+     * @return Average number of writes per transaction
+     */
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0.0 : (double) writeCount.get() / batches;
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            writerThread.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs on the writer thread: commit queued writes in batches until the queue is empty.
+     * If a write throws an Error, every write in its batch that has not completed fails with
+     * it, and any writes still queued are left to a new drain.
+     */
+    private void drain() {
+        List<PendingWrite<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        boolean drained = false;
+        try {
+            while (true) {
+                queue.drainTo(batch, MAX_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    drainScheduled.set(false);
+                    // A write may have been queued after drainTo but before the flag was cleared
+                    if (queue.isEmpty() || !drainScheduled.compareAndSet(false, true)) {
+                        drained = true;
+                        return;
+                    }
+                    continue;
+                }
+                runBatch(batch);
+                batch.clear();
+            }
+        } catch (Throwable t) {
+            for (PendingWrite<?> pending : batch) {
+                pending.fail(t);
+            }
+            throw t;
+        } finally {
+            if (!drained) {
+                drainScheduled.set(false);
+                if (!queue.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+    }
+
+    private void runBatch(List<PendingWrite<?>> batch) {
+        Tracer.counter("db.writeQueueDepth", queue.size());
+        Tracer.beginSection("BatchingWriteExecutor.runBatch");
+        try {
+            database.runInTransaction(() -> {
+                for (PendingWrite<?> pending : batch) {
+                    pending.run();
+                }
+            });
+            for (PendingWrite<?> pending : batch) {
+                pending.complete();
+            }
+            recordBatch(batch.size());
+        } catch (RuntimeException batchFailure) {
+            // One bad write must not fail the others, so retry each on its own
+            Log.w(TAG, "Batch of " + batch.size() + " writes failed, retrying individually", batchFailure);
+            for (PendingWrite<?> pending : batch) {
+                try {
+                    database.runInTransaction(pending::run);
+                    pending.complete();
+                    recordBatch(1);
+                } catch (RuntimeException e) {
+                    pending.fail(e);
+                }
+            }
+        } finally {
+            Tracer.endSection();
+        }
+    }
+
+    private void recordBatch(int size) {
+        batchCount.incrementAndGet();
+        writeCount.addAndGet(size);
+        lastBatchSize.set(size);
+        maxBatchSize.accumulateAndGet(size, Math::max);
+    }
+
+    /**
+     * A queued write and the future for its result
+     */
+    private static class PendingWrite<T> {
+        private final Callable<T> write;
+        private final SettableFuture<T> future = SettableFuture.create();
+        private T result;
+
+        PendingWrite(Callable<T> write) {
+            this.write = write;
+        }
+
+        void run() {
+            try {
+                result = write.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        void complete() {
+            future.set(result);
+        }
+
+        void fail(Throwable t) {
+            future.setException(t);
+        }
+    }
+}
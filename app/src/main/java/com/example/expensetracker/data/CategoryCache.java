@@ -0,0 +1,79 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.room.InvalidationTracker;
+
+import com.example.expensetracker.data.model.CategoryTable;
+
+import java.util.Set;
+
+/**
+ * Process-wide CategoryTable for code that turns category ids into names off the main thread,
+ * such as row formatting and exports. The table is read once and reused until Room reports a
+ * change to the categories table, so a lookup is normally one volatile read.
+ */
+public final class CategoryCache {
+
+    private static volatile CategoryCache INSTANCE;
+
+    private final AppDatabase database;
+    private volatile CategoryTable table;
+    private int generation;
+
+    private CategoryCache(AppDatabase database) {
+        this.database = database;
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("categories") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * Get the cache for a database (singleton pattern)
+     * @param database Database to read categories from
+     * @return CategoryCache instance
+     */
+    public static CategoryCache getInstance(AppDatabase database) {
+        if (INSTANCE == null) {
+            synchronized (CategoryCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new CategoryCache(database);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Get the current categories, reading them from the database if they changed
+     * @return Snapshot of the categories table
+     */
+    @WorkerThread
+    @NonNull
+    public CategoryTable get() {
+        CategoryTable current = table;
+        if (current != null) {
+            return current;
+        }
+        int readGeneration;
+        synchronized (this) {
+            readGeneration = generation;
+        }
+        CategoryTable loaded = CategoryTable.of(database.categoryDao().getAll());
+        synchronized (this) {
+            // Keep the result only if no change arrived while it was being read
+            if (generation == readGeneration) {
+                table = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private synchronized void invalidate() {
+        generation++;
+        table = null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.expensetracker.data.model.Category;
+
+/**
+ * SQL for the categories table.
+ * The built-in categories are stored with the fixed ids of the Category enum, so code can
+ * refer to them without a lookup; user-defined categories are numbered after them.
+ */
+public final class CategorySchema {
+
+    private CategorySchema() {
+        // Utility class
+    }
+
+    /**
+     * Create the categories table with the same definition Room generates for CategoryEntity
+     * @param db Database to create the table in
+     */
+    static void createTable(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `categories` ("
+                + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`name` TEXT NOT NULL)");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_categories_name` ON `categories` (`name`)");
+    }
+
+    /**
+     * Insert the built-in categories with their fixed ids, skipping any that already exist
+     * @param db Database to seed
+     */
+    public static void insertBuiltIns(@NonNull SupportSQLiteDatabase db) {
+        StringBuilder sql = new StringBuilder("INSERT OR IGNORE INTO `categories` (`id`, `name`) VALUES ");
+        Category[] categories = Category.values();
+        for (int i = 0; i < categories.length; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(?, ?)");
+        }
+        Object[] args = new Object[categories.length * 2];
+        for (int i = 0; i < categories.length; i++) {
+            args[i * 2] = categories[i].getId();
+            args[i * 2 + 1] = categories[i].getDisplayName();
+        }
+        db.execSQL(sql.toString(), args);
+    }
+}
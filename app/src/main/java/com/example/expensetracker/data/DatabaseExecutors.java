@@ -0,0 +1,188 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.util.Tracer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Query and transaction executors for AppDatabase.
+ * <p>
+ * With write-ahead logging, readers do not block on the writer, so reads get a small pool of
+ * their own. The expense list, month totals and category sums can then refresh side by side
+ * instead of queueing behind each other and behind writes. Transactions run on one writer
+ * thread, which BatchingWriteExecutor drains its queue on.
+ * <p>
+ * Every read records how long it waited for a thread and how long it ran. Reads that start while
+ * a write is running are also totalled separately, so the cost of writes to readers can be told
+ * apart from reads queueing behind other reads. Waits also go to the Tracer as a counter.
+ */
+public final class DatabaseExecutors {
+
+    private static final String TAG = "DatabaseExecutors";
+
+    /**
+     * Number of read threads: one per core, at least two and at most four. SQLite's connection
+     * pool offers a handful of reader connections, so more threads would only wait for one.
+     */
+    private static final int QUERY_THREADS =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Reads that wait longer than this, about one frame, are logged
+     */
+    private static final long SLOW_WAIT_MICROS = 16_000;
+
+    private static volatile DatabaseExecutors INSTANCE;
+
+    private final ExecutorService queryThreads = Executors.newFixedThreadPool(
+            QUERY_THREADS, namedThreads("expense-db-query-"));
+    private final ExecutorService writerThread = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "expense-db-writer"));
+    private final Executor queryExecutor = this::executeQuery;
+    private final Executor transactionExecutor = this::executeTransaction;
+    private final AtomicInteger activeWrites = new AtomicInteger();
+
+    // Metrics
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong totalQueryWaitMicros = new AtomicLong();
+    private final AtomicLong maxQueryWaitMicros = new AtomicLong();
+    private final AtomicLong totalQueryRunMicros = new AtomicLong();
+    private final AtomicLong queriesDuringWrites = new AtomicLong();
+    private final AtomicLong latencyDuringWritesMicros = new AtomicLong();
+
+    private DatabaseExecutors() {
+    }
+
+    /**
+     * Get the executors (singleton pattern, shared by every database instance)
+     * @return DatabaseExecutors instance
+     */
+    public static DatabaseExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DatabaseExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DatabaseExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @return Executor for Room queries: LiveData refreshes, future-returning DAO methods and
+     *         invalidation checks
+     */
+    @NonNull
+    public Executor getQueryExecutor() {
+        return queryExecutor;
+    }
+
+    /**
+     * @return Executor for Room transactions, backed by the single writer thread
+     */
+    @NonNull
+    public Executor getTransactionExecutor() {
+        return transactionExecutor;
+    }
+
+    /**
+     * @return Number of reads run so far
+     */
+    public long getQueryCount() {
+        return queryCount.get();
+    }
+
+    /**
+     * @return Average time a read waited for a thread, in microseconds
+     */
+    public double getAverageQueryWaitMicros() {
+        long count = queryCount.get();
+        return count == 0 ? 0.0 : (double) totalQueryWaitMicros.get() / count;
+    }
+
+    /**
+     * @return Longest time a read waited for a thread so far, in microseconds
+     */
+    public long getMaxQueryWaitMicros() {
+        return maxQueryWaitMicros.get();
+    }
+
+    /**
+     * @return Average time a read ran for, in microseconds
+     */
+    public double getAverageQueryRunMicros() {
+        long count = queryCount.get();
+        return count == 0 ? 0.0 : (double) totalQueryRunMicros.get() / count;
+    }
+
+    /**
+     * @return Number of reads that started while a write transaction was running
+     */
+    public long getQueriesDuringWrites() {
+        return queriesDuringWrites.get();
+    }
+
+    /**
+     * Compare with getAverageQueryWaitMicros() + getAverageQueryRunMicros() to see what writes
+     * cost readers
+     * @return Average wait plus run time of the reads that started while a write was running,
+     *         in microseconds
+     */
+    public double getAverageLatencyDuringWritesMicros() {
+        long count = queriesDuringWrites.get();
+        return count == 0 ? 0.0 : (double) latencyDuringWritesMicros.get() / count;
+    }
+
+    private void executeQuery(@NonNull Runnable query) {
+        long queuedAt = System.nanoTime();
+        queryThreads.execute(() -> {
+            long startedAt = System.nanoTime();
+            long waitMicros = (startedAt - queuedAt) / 1000;
+            boolean duringWrite = activeWrites.get() > 0;
+            try {
+                query.run();
+            } finally {
+                recordQuery(waitMicros, (System.nanoTime() - startedAt) / 1000, duringWrite);
+            }
+        });
+    }
+
+    private void executeTransaction(@NonNull Runnable transaction) {
+        writerThread.execute(() -> {
+            activeWrites.incrementAndGet();
+            try {
+                transaction.run();
+            } finally {
+                activeWrites.decrementAndGet();
+            }
+        });
+    }
+
+    private void recordQuery(long waitMicros, long runMicros, boolean duringWrite) {
+        queryCount.incrementAndGet();
+        totalQueryWaitMicros.addAndGet(waitMicros);
+        maxQueryWaitMicros.accumulateAndGet(waitMicros, Math::max);
+        totalQueryRunMicros.addAndGet(runMicros);
+        if (duringWrite) {
+            queriesDuringWrites.incrementAndGet();
+            latencyDuringWritesMicros.addAndGet(waitMicros + runMicros);
+        }
+        Tracer.counter("db.queryWaitMicros", waitMicros);
+        if (waitMicros > SLOW_WAIT_MICROS) {
+            Tracer.debug(TAG, () -> "Read waited " + waitMicros + "us for a thread, ran "
+                    + runMicros + "us" + (duringWrite ? ", during a write" : ""));
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + count.incrementAndGet());
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.expensetracker.data.model.Category;
+
+/**
+ * Schema migrations for AppDatabase.
+ * Each migration upgrades an existing database in place so user data survives app updates.
+ */
+public final class DatabaseMigrations {
+
+    private DatabaseMigrations() {
+        // Utility class
+    }
+
+    /**
+     * Version 1 to 2: add indices on the expenses table. The (date, category, amount) index
+     * also serves date ordering, so there is no separate index on date alone.
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_category_date` ON `expenses` (`category`, `date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_date_category_amount` ON `expenses` (`date`, `category`, `amount`)");
+        }
+    };
+
+    /**
+     * Version 2 to 3: add the monthly_category_totals rollup, fill it from existing expenses
+     * and create the triggers that maintain it
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            RollupSchema.createVersion3(db);
+        }
+    };
+
+    /**
+     * Version 3 to 4: add the budgets table (one budget per month and category)
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `budgets` ("
+                    + "`year` INTEGER NOT NULL, "
+                    + "`month` INTEGER NOT NULL, "
+                    + "`category` TEXT NOT NULL, "
+                    + "`amount` REAL NOT NULL, "
+                    + "PRIMARY KEY(`year`, `month`, `category`))");
+        }
+    };
+
+    /**
+     * Version 4 to 5: add the expenses_fts full-text index over notes and category, the
+     * triggers Room uses to keep it in sync, and index the existing expenses
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `expenses_fts` USING FTS4("
+                    + "`notes` TEXT, `category` TEXT, tokenize=unicode61, content=`expenses`)");
+            createFtsTriggers(db);
+            db.execSQL("INSERT INTO `expenses_fts`(`expenses_fts`) VALUES ('rebuild')");
+        }
+    };
+
+    /**
+     * Version 5 to 6: store amounts as integer minor units.
+     * SQLite cannot change a column's type, so expenses and budgets are rebuilt with
+     * amount_minor columns, keeping every id so the FTS index still points at the right rows.
+     * The rollup is recreated with integer totals and refilled from the converted expenses.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Dropping the old table also drops its indices and triggers
+            db.execSQL("CREATE TABLE `expenses_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`amount_minor` INTEGER NOT NULL, "
+                    + "`category` TEXT NOT NULL, "
+                    + "`date` INTEGER NOT NULL, "
+                    + "`notes` TEXT)");
+            db.execSQL("INSERT INTO `expenses_new` (`id`, `amount_minor`, `category`, `date`, `notes`) "
+                    + "SELECT `id`, CAST(ROUND(`amount` * 100) AS INTEGER), `category`, `date`, `notes` FROM `expenses`");
+            db.execSQL("DROP TABLE `expenses`");
+            db.execSQL("ALTER TABLE `expenses_new` RENAME TO `expenses`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_category_date` ON `expenses` (`category`, `date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_date_category_amount_minor` "
+                    + "ON `expenses` (`date`, `category`, `amount_minor`)");
+            createFtsTriggers(db);
+
+            db.execSQL("CREATE TABLE `budgets_new` ("
+                    + "`year` INTEGER NOT NULL, "
+                    + "`month` INTEGER NOT NULL, "
+                    + "`category` TEXT NOT NULL, "
+                    + "`amount_minor` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`year`, `month`, `category`))");
+            db.execSQL("INSERT INTO `budgets_new` (`year`, `month`, `category`, `amount_minor`) "
+                    + "SELECT `year`, `month`, `category`, CAST(ROUND(`amount` * 100) AS INTEGER) FROM `budgets`");
+            db.execSQL("DROP TABLE `budgets`");
+            db.execSQL("ALTER TABLE `budgets_new` RENAME TO `budgets`");
+
+            db.execSQL("DROP TABLE IF EXISTS `monthly_category_totals`");
+            RollupSchema.createVersion6(db);
+        }
+    };
+
+    /**
+     * Version 6 to 7: move category names into a categories table with integer ids.
+     * Expenses, budgets and the rollup are rebuilt to refer to categories by id, with a foreign
+     * key from expenses. Names found in existing rows that are not built-in become user-defined
+     * categories. The full-text index keeps its own copy of the category name, so it is
+     * recreated as a regular FTS4 table maintained by triggers.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            CategorySchema.createTable(db);
+            CategorySchema.insertBuiltIns(db);
+            db.execSQL("INSERT OR IGNORE INTO `categories` (`name`) "
+                    + "SELECT DISTINCT `category` FROM `expenses` ORDER BY `category`");
+            db.execSQL("INSERT OR IGNORE INTO `categories` (`name`) "
+                    + "SELECT DISTINCT `category` FROM `budgets` WHERE `category` != '' ORDER BY `category`");
+
+            // The index's external content is the old expenses table, so it goes first
+            db.execSQL("DROP TABLE IF EXISTS `expenses_fts`");
+
+            // Dropping the old table also drops its indices and triggers
+            db.execSQL("CREATE TABLE `expenses_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`amount_minor` INTEGER NOT NULL, "
+                    + "`category_id` INTEGER NOT NULL, "
+                    + "`date` INTEGER NOT NULL, "
+                    + "`notes` TEXT, "
+                    + "FOREIGN KEY(`category_id`) REFERENCES `categories`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE RESTRICT )");
+            db.execSQL("INSERT INTO `expenses_new` (`id`, `amount_minor`, `category_id`, `date`, `notes`) "
+                    + "SELECT `expenses`.`id`, `expenses`.`amount_minor`, "
+                    + "COALESCE(`categories`.`id`, " + Category.OTHER.getId() + "), "
+                    + "`expenses`.`date`, `expenses`.`notes` "
+                    + "FROM `expenses` LEFT JOIN `categories` ON `categories`.`name` = `expenses`.`category`");
+            db.execSQL("DROP TABLE `expenses`");
+            db.execSQL("ALTER TABLE `expenses_new` RENAME TO `expenses`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_category_id_date` "
+                    + "ON `expenses` (`category_id`, `date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_date_category_id_amount_minor` "
+                    + "ON `expenses` (`date`, `category_id`, `amount_minor`)");
+
+            db.execSQL("CREATE TABLE `budgets_new` ("
+                    + "`year` INTEGER NOT NULL, "
+                    + "`month` INTEGER NOT NULL, "
+                    + "`category_id` INTEGER NOT NULL, "
+                    + "`amount_minor` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`year`, `month`, `category_id`))");
+            db.execSQL("INSERT INTO `budgets_new` (`year`, `month`, `category_id`, `amount_minor`) "
+                    + "SELECT `budgets`.`year`, `budgets`.`month`, COALESCE(`categories`.`id`, 0), "
+                    + "`budgets`.`amount_minor` "
+                    + "FROM `budgets` LEFT JOIN `categories` ON `categories`.`name` = `budgets`.`category`");
+            db.execSQL("DROP TABLE `budgets`");
+            db.execSQL("ALTER TABLE `budgets_new` RENAME TO `budgets`");
+
+            db.execSQL("DROP TABLE IF EXISTS `monthly_category_totals`");
+            RollupSchema.createTable(db);
+            db.execSQL(RollupSchema.POPULATE_FROM_EXPENSES);
+            RollupSchema.createTriggers(db);
+
+            SearchIndexSchema.createTable(db);
+            SearchIndexSchema.populate(db);
+            SearchIndexSchema.createTriggers(db);
+        }
+    };
+
+    /**
+     * Version 7 to 8: add the expense_changes log, from which the in-memory ledger re-reads
+     * changed expenses. The log starts empty; the ledger loads in full on first use.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            LedgerSchema.createTable(db);
+            LedgerSchema.createTriggers(db);
+        }
+    };
+
+    /**
+     * Version 8 to 9: drop the monthly_category_totals rollup and its triggers. Month totals
+     * come from the in-memory ledger, so nothing read the rollup, and every write still paid
+     * for its triggers.
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            RollupSchema.drop(db);
+        }
+    };
+
+    /**
+     * Create the triggers Room uses to keep the expenses_fts external-content index in sync
+     */
+    private static void createFtsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_BEFORE_UPDATE "
+                + "BEFORE UPDATE ON `expenses` BEGIN DELETE FROM `expenses_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_BEFORE_DELETE "
+                + "BEFORE DELETE ON `expenses` BEGIN DELETE FROM `expenses_fts` WHERE `docid`=OLD.`rowid`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_AFTER_UPDATE "
+                + "AFTER UPDATE ON `expenses` BEGIN INSERT INTO `expenses_fts`(`docid`, `notes`, `category`) "
+                + "VALUES (NEW.`rowid`, NEW.`notes`, NEW.`category`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_expenses_fts_AFTER_INSERT "
+                + "AFTER INSERT ON `expenses` BEGIN INSERT INTO `expenses_fts`(`docid`, `notes`, `category`) "
+                + "VALUES (NEW.`rowid`, NEW.`notes`, NEW.`category`); END");
+    }
+
+    /**
+     * All migrations, in order, for registration with the database builder
+     */
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9
+    };
+}
@@ -0,0 +1,144 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.example.expensetracker.data.model.ExpenseFilter;
+import com.example.expensetracker.data.model.SearchQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles an ExpenseFilter into one parameterised query over the expenses table.
+ * <p>
+ * Every value is bound as an argument, so the SQL text depends only on the filter's shape: which
+ * criteria are set, how many categories are selected and the sort order. The text for each shape
+ * is built once and cached here. Identical SQL also lets SQLite's per-connection statement cache
+ * reuse the compiled statement when the user changes a filter value but not its shape.
+ * <p>
+ * Predicates are written so the planner can use the existing indices: category id equality or IN
+ * with a date range uses (category_id, date), a date range alone uses (date, category_id,
+ * amount_minor), and notes text goes through the expenses_fts index instead of a LIKE scan.
+ */
+public final class ExpenseFilterCompiler {
+
+    /**
+     * Most shapes kept; a user rarely cycles through more than a handful
+     */
+    private static final int MAX_CACHED_SHAPES = 32;
+
+    private static final int HAS_START = 1;
+    private static final int HAS_END = 1 << 1;
+    private static final int HAS_MIN = 1 << 2;
+    private static final int HAS_MAX = 1 << 3;
+    private static final int HAS_TEXT = 1 << 4;
+    private static final int NO_MATCH = 1 << 5;
+    private static final int SORT_SHIFT = 6;
+    private static final int CATEGORY_SHIFT = 9;
+
+    private final Map<Integer, String> sqlByShape =
+            new LinkedHashMap<Integer, String>(MAX_CACHED_SHAPES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                    return size() > MAX_CACHED_SHAPES;
+                }
+            };
+
+    /**
+     * Compile a filter into a query
+     * @param filter Criteria and sort order
+     * @param limit Maximum number of rows to return
+     * @param offset Number of matching rows to skip, in the filter's order
+     * @return Query selecting whole expense rows
+     */
+    @NonNull
+    public SupportSQLiteQuery compile(@NonNull ExpenseFilter filter, int limit, int offset) {
+        String match = SearchQuery.toMatchExpression(filter.getNotesText());
+        int categoryCount = filter.getCategoryIds().size();
+
+        int shape = filter.getSort().ordinal() << SORT_SHIFT | categoryCount << CATEGORY_SHIFT;
+        List<Object> args = new ArrayList<>(categoryCount + 7);
+        // Arguments are added in the same order buildSql writes the placeholders
+        args.addAll(filter.getCategoryIds());
+        if (filter.getStartDate() != null) {
+            shape |= HAS_START;
+            args.add(filter.getStartDate().getTime());
+        }
+        if (filter.getEndDate() != null) {
+            shape |= HAS_END;
+            args.add(filter.getEndDate().getTime());
+        }
+        if (filter.getMinAmountMinor() != null) {
+            shape |= HAS_MIN;
+            args.add(filter.getMinAmountMinor());
+        }
+        if (filter.getMaxAmountMinor() != null) {
+            shape |= HAS_MAX;
+            args.add(filter.getMaxAmountMinor());
+        }
+        if (match != null) {
+            shape |= HAS_TEXT;
+            args.add(match);
+        } else if (filter.getNotesText() != null) {
+            // Text with no searchable words matches nothing, as in the text-only search
+            shape |= NO_MATCH;
+        }
+        args.add(limit);
+        args.add(offset);
+
+        return new SimpleSQLiteQuery(sqlFor(shape, categoryCount, filter.getSort()), args.toArray());
+    }
+
+    private synchronized String sqlFor(int shape, int categoryCount, ExpenseFilter.Sort sort) {
+        String sql = sqlByShape.get(shape);
+        if (sql == null) {
+            sql = buildSql(shape, categoryCount, sort);
+            sqlByShape.put(shape, sql);
+        }
+        return sql;
+    }
+
+    private static String buildSql(int shape, int categoryCount, ExpenseFilter.Sort sort) {
+        List<String> predicates = new ArrayList<>(6);
+        if (categoryCount == 1) {
+            predicates.add("category_id = ?");
+        } else if (categoryCount > 1) {
+            StringBuilder in = new StringBuilder("category_id IN (?");
+            for (int i = 1; i < categoryCount; i++) {
+                in.append(", ?");
+            }
+            predicates.add(in.append(')').toString());
+        }
+        if ((shape & HAS_START) != 0) predicates.add("date >= ?");
+        if ((shape & HAS_END) != 0) predicates.add("date <= ?");
+        if ((shape & HAS_MIN) != 0) predicates.add("amount_minor >= ?");
+        if ((shape & HAS_MAX) != 0) predicates.add("amount_minor <= ?");
+        if ((shape & HAS_TEXT) != 0) {
+            predicates.add("id IN (SELECT docid FROM expenses_fts WHERE expenses_fts MATCH ?)");
+        }
+        if ((shape & NO_MATCH) != 0) predicates.add("0");
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM expenses");
+        for (int i = 0; i < predicates.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(predicates.get(i));
+        }
+        return sql.append(" ORDER BY ").append(orderBy(sort)).append(" LIMIT ? OFFSET ?").toString();
+    }
+
+    private static String orderBy(ExpenseFilter.Sort sort) {
+        switch (sort) {
+            case OLDEST_FIRST:
+                return "date ASC, id ASC";
+            case HIGHEST_AMOUNT:
+                return "amount_minor DESC, date DESC, id DESC";
+            case LOWEST_AMOUNT:
+                return "amount_minor ASC, date DESC, id DESC";
+            default:
+                return "date DESC, id DESC";
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL for the expense_changes log read by the in-memory ledger.
+ * Every insert, update and delete on expenses appends the affected id, in the same transaction
+ * as the change. An update that changes the id logs both the old and the new one.
+ */
+public final class LedgerSchema {
+
+    private LedgerSchema() {
+        // Utility class
+    }
+
+    /**
+     * Create the log table with the same definition Room generates for ExpenseChange
+     * @param db Database to create the table in
+     */
+    static void createTable(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `expense_changes` ("
+                + "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`expense_id` INTEGER NOT NULL)");
+    }
+
+    /**
+     * Create the triggers that log changes to the expenses table
+     * @param db Database to create the triggers in
+     */
+    public static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_log_insert` AFTER INSERT ON `expenses` BEGIN "
+                + "INSERT INTO `expense_changes` (`expense_id`) VALUES (NEW.`id`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_log_delete` AFTER DELETE ON `expenses` BEGIN "
+                + "INSERT INTO `expense_changes` (`expense_id`) VALUES (OLD.`id`); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_log_update` AFTER UPDATE ON `expenses` BEGIN "
+                + "INSERT INTO `expense_changes` (`expense_id`) SELECT OLD.`id` UNION SELECT NEW.`id`; END");
+    }
+}
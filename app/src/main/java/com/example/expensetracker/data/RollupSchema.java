@@ -0,0 +1,215 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL for the monthly_category_totals rollup, which schema versions 3 to 8 kept.
+ * The rollup was keyed by the local-time year and month of each expense date (stored as epoch
+ * millis by DateConverter), and was kept current by triggers on the expenses table. Month totals
+ * now come from the in-memory ledger, so MIGRATION_8_9 drops the table and its triggers. The
+ * column sets of versions 3, 6 and 7 are kept only so older migrations still build the table
+ * that later migrations expect.
+ */
+final class RollupSchema {
+
+    private RollupSchema() {
+        // Utility class
+    }
+
+    /**
+     * Amount and category columns of the expenses table and the rollup, per schema version.
+     * The category column has the same name in both tables.
+     */
+    private static final class Columns {
+        final String amount;
+        final String total;
+        final String min;
+        final String max;
+        final String type;
+        final String category;
+        final String categoryType;
+
+        Columns(String amount, String total, String min, String max, String type,
+                String category, String categoryType) {
+            this.amount = amount;
+            this.total = total;
+            this.min = min;
+            this.max = max;
+            this.type = type;
+            this.category = category;
+            this.categoryType = categoryType;
+        }
+    }
+
+    private static final Columns CURRENT = new Columns(
+            "amount_minor", "total_minor", "min_amount_minor", "max_amount_minor", "INTEGER", "category_id", "INTEGER");
+    private static final Columns VERSION_6 = new Columns(
+            "amount_minor", "total_minor", "min_amount_minor", "max_amount_minor", "INTEGER", "category", "TEXT");
+    private static final Columns VERSION_3 = new Columns(
+            "amount", "total", "min_amount", "max_amount", "REAL", "category", "TEXT");
+
+    /**
+     * Local-time year and month of an epoch-millis date column; {date} is replaced by the column
+     */
+    private static final String YEAR_OF = "CAST(strftime('%Y', {date} / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+    private static final String MONTH_OF = "CAST(strftime('%m', {date} / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+
+    /**
+     * Epoch-millis bounds [start, end) of the local month containing a {date} column
+     */
+    private static final String MONTH_START_OF =
+            "(CAST(strftime('%s', {date} / 1000, 'unixepoch', 'localtime', 'start of month', 'utc') AS INTEGER) * 1000)";
+    private static final String MONTH_END_OF =
+            "(CAST(strftime('%s', {date} / 1000, 'unixepoch', 'localtime', 'start of month', '+1 month', 'utc') AS INTEGER) * 1000)";
+
+    /**
+     * Select rollup rows computed from the raw expenses table
+     */
+    private static final String SELECT_FROM_EXPENSES =
+            "SELECT CAST(strftime('%Y', date / 1000, 'unixepoch', 'localtime') AS INTEGER) AS year, " +
+            "CAST(strftime('%m', date / 1000, 'unixepoch', 'localtime') AS INTEGER) AS month, " +
+            "category_id, SUM(amount_minor) AS total_minor, COUNT(*) AS entry_count, " +
+            "MIN(amount_minor) AS min_amount_minor, MAX(amount_minor) AS max_amount_minor " +
+            "FROM expenses GROUP BY year, month, category_id";
+
+    /**
+     * Fill the (empty) rollup table from the raw expenses table
+     */
+    static final String POPULATE_FROM_EXPENSES =
+            "INSERT INTO monthly_category_totals " +
+            "(year, month, category_id, total_minor, entry_count, min_amount_minor, max_amount_minor) " +
+            SELECT_FROM_EXPENSES;
+
+    /**
+     * Create the triggers that keep the rollup in step with the expenses table, as in version 7
+     * @param db Database to create the triggers in
+     */
+    static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+        createTriggers(db, CURRENT);
+    }
+
+    /**
+     * Create the rollup table as in version 7, keyed by category id
+     * @param db Database to create the table in
+     */
+    static void createTable(@NonNull SupportSQLiteDatabase db) {
+        createTable(db, CURRENT);
+    }
+
+    /**
+     * Drop the rollup triggers and table
+     * @param db Database at schema version 8
+     */
+    static void drop(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS `trg_expenses_rollup_insert`");
+        db.execSQL("DROP TRIGGER IF EXISTS `trg_expenses_rollup_delete`");
+        db.execSQL("DROP TRIGGER IF EXISTS `trg_expenses_rollup_update`");
+        db.execSQL("DROP TABLE IF EXISTS `monthly_category_totals`");
+    }
+
+    /**
+     * Create, fill and attach the rollup as it was in schema version 3, with REAL amounts.
+     * Only for MIGRATION_2_3; later migrations convert it to minor units.
+     * @param db Database at schema version 2
+     */
+    static void createVersion3(@NonNull SupportSQLiteDatabase db) {
+        create(db, VERSION_3);
+    }
+
+    /**
+     * Create, fill and attach the rollup as it was in schema version 6, keyed by category name.
+     * Only for MIGRATION_5_6; MIGRATION_6_7 rekeys it by category id.
+     * @param db Database at schema version 5, after its amounts were converted
+     */
+    static void createVersion6(@NonNull SupportSQLiteDatabase db) {
+        create(db, VERSION_6);
+    }
+
+    private static void create(SupportSQLiteDatabase db, Columns c) {
+        createTable(db, c);
+        db.execSQL("INSERT INTO monthly_category_totals "
+                + "(year, month, " + c.category + ", " + c.total + ", entry_count, " + c.min + ", " + c.max + ") "
+                + "SELECT " + dateExpr(YEAR_OF, "expenses") + " AS year, "
+                + dateExpr(MONTH_OF, "expenses") + " AS month, "
+                + c.category + ", SUM(" + c.amount + "), COUNT(*), MIN(" + c.amount + "), MAX(" + c.amount + ") "
+                + "FROM expenses GROUP BY year, month, " + c.category);
+        createTriggers(db, c);
+    }
+
+    private static void createTriggers(SupportSQLiteDatabase db, Columns c) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_rollup_insert` AFTER INSERT ON `expenses` BEGIN "
+                + addRow("NEW", c) + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_rollup_delete` AFTER DELETE ON `expenses` BEGIN "
+                + removeRow("OLD", c) + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_rollup_update` "
+                + "AFTER UPDATE OF `" + c.amount + "`, `" + c.category + "`, `date` ON `expenses` BEGIN "
+                + removeRow("OLD", c) + " " + addRow("NEW", c) + " END");
+    }
+
+    private static void createTable(SupportSQLiteDatabase db, Columns c) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `monthly_category_totals` ("
+                + "`year` INTEGER NOT NULL, `month` INTEGER NOT NULL, "
+                + "`" + c.category + "` " + c.categoryType + " NOT NULL, "
+                + "`" + c.total + "` " + c.type + " NOT NULL, `entry_count` INTEGER NOT NULL, "
+                + "`" + c.min + "` " + c.type + " NOT NULL, `" + c.max + "` " + c.type + " NOT NULL, "
+                + "PRIMARY KEY(`year`, `month`, `" + c.category + "`))");
+    }
+
+    /**
+     * Statements that fold one expense row into the rollup
+     */
+    private static String addRow(String row, Columns c) {
+        String key = keyOf(row, c);
+        String amount = row + "." + c.amount;
+        return "INSERT OR IGNORE INTO monthly_category_totals "
+                + "(year, month, " + c.category + ", " + c.total + ", entry_count, " + c.min + ", " + c.max + ") VALUES ("
+                + dateExpr(YEAR_OF, row) + ", "
+                + dateExpr(MONTH_OF, row) + ", "
+                + row + "." + c.category + ", 0, 0, " + amount + ", " + amount + "); "
+                + "UPDATE monthly_category_totals SET "
+                + c.total + " = " + c.total + " + " + amount + ", "
+                + "entry_count = entry_count + 1, "
+                + c.min + " = MIN(" + c.min + ", " + amount + "), "
+                + c.max + " = MAX(" + c.max + ", " + amount + ") "
+                + "WHERE " + key + ";";
+    }
+
+    /**
+     * Statements that take one expense row back out of the rollup.
+     * MIN/MAX are only recomputed (over the month's rows for that category) when the removed
+     * amount was the current extreme; empty groups are deleted.
+     */
+    private static String removeRow(String row, Columns c) {
+        String key = keyOf(row, c);
+        String amount = row + "." + c.amount;
+        String sameGroup = "FROM expenses WHERE " + c.category + " = " + row + "." + c.category
+                + " AND date >= " + dateExpr(MONTH_START_OF, row)
+                + " AND date < " + dateExpr(MONTH_END_OF, row);
+        return "UPDATE monthly_category_totals SET "
+                + c.total + " = " + c.total + " - " + amount + ", "
+                + "entry_count = entry_count - 1, "
+                + c.min + " = CASE WHEN " + amount + " > " + c.min + " THEN " + c.min + " "
+                + "ELSE COALESCE((SELECT MIN(" + c.amount + ") " + sameGroup + "), 0) END, "
+                + c.max + " = CASE WHEN " + amount + " < " + c.max + " THEN " + c.max + " "
+                + "ELSE COALESCE((SELECT MAX(" + c.amount + ") " + sameGroup + "), 0) END "
+                + "WHERE " + key + "; "
+                + "DELETE FROM monthly_category_totals WHERE " + key + " AND entry_count <= 0;";
+    }
+
+    /**
+     * Substitute the date column of a trigger row into an expression template
+     */
+    private static String dateExpr(String template, String row) {
+        return template.replace("{date}", row + ".date");
+    }
+
+    /**
+     * WHERE clause matching the rollup row for an expense row
+     */
+    private static String keyOf(String row, Columns c) {
+        return "year = " + dateExpr(YEAR_OF, row)
+                + " AND month = " + dateExpr(MONTH_OF, row)
+                + " AND " + c.category + " = " + row + "." + c.category;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.expensetracker.data;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQL for the expenses_fts full-text index.
+ * Expenses refer to their category by id, so the index cannot read its text from the expenses
+ * table the way an external-content table would. Instead it stores the notes and the category
+ * name itself, and triggers on expenses and categories keep it in step: one row per expense,
+ * with the expense id as docid.
+ */
+public final class SearchIndexSchema {
+
+    private SearchIndexSchema() {
+        // Utility class
+    }
+
+    /**
+     * Category name of an expense trigger row; {row} is replaced by NEW or OLD
+     */
+    private static final String CATEGORY_NAME_OF = "(SELECT `name` FROM `categories` WHERE `id` = {row}.`category_id`)";
+
+    /**
+     * Create the index table with the same definition Room generates for ExpenseFts
+     * @param db Database to create the table in
+     */
+    static void createTable(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `expenses_fts` USING FTS4("
+                + "`notes` TEXT, `category` TEXT, tokenize=unicode61)");
+    }
+
+    /**
+     * Index every existing expense
+     * @param db Database with an empty index
+     */
+    static void populate(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO `expenses_fts` (`docid`, `notes`, `category`) "
+                + "SELECT `expenses`.`id`, `expenses`.`notes`, `categories`.`name` "
+                + "FROM `expenses` JOIN `categories` ON `categories`.`id` = `expenses`.`category_id`");
+    }
+
+    /**
+     * Create the triggers that keep the index in step with the expenses and categories tables
+     * @param db Database to create the triggers in
+     */
+    public static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_fts_insert` AFTER INSERT ON `expenses` BEGIN "
+                + "INSERT INTO `expenses_fts` (`docid`, `notes`, `category`) "
+                + "VALUES (NEW.`id`, NEW.`notes`, " + categoryNameOf("NEW") + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_fts_delete` AFTER DELETE ON `expenses` BEGIN "
+                + "DELETE FROM `expenses_fts` WHERE `docid` = OLD.`id`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_expenses_fts_update` "
+                + "AFTER UPDATE OF `notes`, `category_id` ON `expenses` BEGIN "
+                + "UPDATE `expenses_fts` SET `notes` = NEW.`notes`, `category` = " + categoryNameOf("NEW") + " "
+                + "WHERE `docid` = NEW.`id`; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `trg_categories_fts_rename` "
+                + "AFTER UPDATE OF `name` ON `categories` BEGIN "
+                + "UPDATE `expenses_fts` SET `category` = NEW.`name` "
+                + "WHERE `docid` IN (SELECT `id` FROM `expenses` WHERE `category_id` = NEW.`id`); END");
+    }
+
+    private static String categoryNameOf(String row) {
+        return CATEGORY_NAME_OF.replace("{row}", row);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.expensetracker.data;
+
+/**
+ * SQL expressions that map the epoch-millis expenses.date column to the start of its
+ * local-time day, ISO week or month, also in epoch millis.
+ * Each matches TrendGranularity.floor, so SQL buckets line up with the gap-filled series.
+ */
+public final class TimeBuckets {
+
+    private TimeBuckets() {
+        // Utility class
+    }
+
+    /**
+     * Start of the local day containing date
+     */
+    public static final String DAY_START =
+            "(CAST(strftime('%s', date / 1000, 'unixepoch', 'localtime', 'start of day', 'utc') AS INTEGER) * 1000)";
+
+    /**
+     * Start of the local ISO week (Monday) containing date.
+     * 'weekday 1' moves forward to the next Monday, so step back six days first.
+     */
+    public static final String WEEK_START =
+            "(CAST(strftime('%s', date / 1000, 'unixepoch', 'localtime', 'start of day', '-6 days', "
+            + "'weekday 1', 'utc') AS INTEGER) * 1000)";
+
+    /**
+     * Start of the local month containing date
+     */
+    public static final String MONTH_START =
+            "(CAST(strftime('%s', date / 1000, 'unixepoch', 'localtime', 'start of month', 'utc') AS INTEGER) * 1000)";
+
+    /**
+     * Bucketed totals in minor units over the range [:startMillis, :endMillis], one row per
+     * non-empty bucket
+     */
+    private static final String TOTALS_SUFFIX = " AS bucket_start, SUM(amount_minor) AS total_minor FROM expenses "
+            + "WHERE date BETWEEN :startMillis AND :endMillis GROUP BY bucket_start ORDER BY bucket_start";
+
+    public static final String DAILY_TOTALS = "SELECT " + DAY_START + TOTALS_SUFFIX;
+    public static final String WEEKLY_TOTALS = "SELECT " + WEEK_START + TOTALS_SUFFIX;
+    public static final String MONTHLY_TOTALS = "SELECT " + MONTH_START + TOTALS_SUFFIX;
+}
@@ -0,0 +1,124 @@
+package com.example.expensetracker.data.budget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.example.expensetracker.data.dao.ExpenseDao.CategorySum;
+import com.example.expensetracker.data.entity.Budget;
+import com.example.expensetracker.data.model.BudgetStatus;
+import com.example.expensetracker.data.model.BudgetStatus.CategoryStatus;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.YearMonth;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Combines a month's budgets with its category totals into one LiveData of BudgetStatus.
+ * <p>
+ * Spending comes as one total per category (see MonthCategorySums), so an expense change
+ * reaches the evaluator as a delta on a single category. Per-category state is held in arrays
+ * indexed by category id, which grow when a user-defined category with a higher id appears.
+ * Only categories whose total moved are applied to the running month total. A new status is
+ * published only when something changed, and only once both budgets and totals have loaded.
+ */
+public class BudgetEvaluator extends MediatorLiveData<BudgetStatus> {
+
+    private final YearMonth month;
+    private long[] spent = new long[Category.OTHER.getId() + 1];
+    private long[] budgets = new long[spent.length];
+    private long[] incoming = new long[spent.length];
+    private long totalSpent;
+    private long overallBudget;
+    private long categoryBudgetTotal;
+    private boolean totalsLoaded;
+    private boolean budgetsLoaded;
+
+    /**
+     * @param month Month being evaluated
+     * @param categoryTotals Totals per category for the month
+     * @param monthBudgets Budgets set for the month
+     */
+    public BudgetEvaluator(@NonNull YearMonth month,
+                           @NonNull LiveData<List<CategorySum>> categoryTotals,
+                           @NonNull LiveData<List<Budget>> monthBudgets) {
+        this.month = month;
+        addSource(categoryTotals, this::onTotalsChanged);
+        addSource(monthBudgets, this::onBudgetsChanged);
+    }
+
+    private void onTotalsChanged(@Nullable List<CategorySum> sums) {
+        Arrays.fill(incoming, 0);
+        if (sums != null) {
+            for (CategorySum sum : sums) {
+                ensureCapacity(sum.categoryId);
+                incoming[sum.categoryId] += sum.totalMinor;
+            }
+        }
+
+        // Apply only the categories that moved
+        boolean changed = !totalsLoaded;
+        for (int i = 0; i < incoming.length; i++) {
+            long delta = incoming[i] - spent[i];
+            if (delta != 0) {
+                spent[i] = incoming[i];
+                totalSpent += delta;
+                changed = true;
+            }
+        }
+        totalsLoaded = true;
+        if (changed) publish();
+    }
+
+    private void onBudgetsChanged(@Nullable List<Budget> rows) {
+        Arrays.fill(budgets, 0);
+        overallBudget = 0;
+        categoryBudgetTotal = 0;
+        if (rows != null) {
+            for (Budget budget : rows) {
+                if (budget.isOverall()) {
+                    overallBudget = budget.getAmountMinor();
+                } else {
+                    ensureCapacity(budget.getCategoryId());
+                    budgets[budget.getCategoryId()] = budget.getAmountMinor();
+                    categoryBudgetTotal += budget.getAmountMinor();
+                }
+            }
+        }
+        budgetsLoaded = true;
+        publish();
+    }
+
+    private void publish() {
+        if (!totalsLoaded || !budgetsLoaded) return;
+
+        int count = 0;
+        for (int id = 0; id < spent.length; id++) {
+            if (budgets[id] > 0 || spent[id] != 0) count++;
+        }
+        CategoryStatus[] categories = new CategoryStatus[count];
+        count = 0;
+        for (int id = 0; id < spent.length; id++) {
+            if (budgets[id] > 0 || spent[id] != 0) {
+                categories[count++] = new CategoryStatus(id, budgets[id], spent[id]);
+            }
+        }
+
+        // An overall budget wins; otherwise the month's budget is the sum of its category budgets
+        long budget = overallBudget > 0 ? overallBudget : categoryBudgetTotal;
+        BudgetStatus status = new BudgetStatus(month, budget, totalSpent, categories);
+        if (!status.equals(getValue())) {
+            setValue(status);
+        }
+    }
+
+    private void ensureCapacity(int categoryId) {
+        if (categoryId < spent.length) return;
+        int length = Math.max(categoryId + 1, spent.length * 2);
+        spent = Arrays.copyOf(spent, length);
+        budgets = Arrays.copyOf(budgets, length);
+        incoming = Arrays.copyOf(incoming, length);
+    }
+}
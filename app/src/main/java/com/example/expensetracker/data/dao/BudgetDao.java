@@ -0,0 +1,52 @@
+package com.example.expensetracker.data.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.expensetracker.data.entity.Budget;
+
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) for the budgets table.
+ */
+@Dao
+public interface BudgetDao {
+
+    /**
+     * Insert a budget, replacing any budget for the same month and category
+     * @param budget Budget to store
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(Budget budget);
+
+    /**
+     * Delete the budget for a month and category
+     * @param year Year
+     * @param month Month (1-12)
+     * @param categoryId Category id, or Budget.OVERALL
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM budgets WHERE year = :year AND month = :month AND category_id = :categoryId")
+    int delete(int year, int month, int categoryId);
+
+    /**
+     * Delete every budget set for a category, in any month
+     * @param categoryId Category id
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM budgets WHERE category_id = :categoryId")
+    int deleteForCategory(int categoryId);
+
+    /**
+     * Get every budget set for a month, the overall budget first
+     * @param year Year
+     * @param month Month (1-12)
+     * @return LiveData list of budgets
+     */
+    @Query("SELECT * FROM budgets WHERE year = :year AND month = :month ORDER BY category_id")
+    LiveData<List<Budget>> getBudgetsForMonth(int year, int month);
+}
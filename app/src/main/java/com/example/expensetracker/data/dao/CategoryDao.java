@@ -0,0 +1,67 @@
+package com.example.expensetracker.data.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.expensetracker.data.entity.CategoryEntity;
+
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) for the categories table.
+ */
+@Dao
+public interface CategoryDao {
+
+    /**
+     * Insert a category unless one with the same name exists
+     * @param category Category to insert
+     * @return Row id of the new category, or -1 if the name is taken
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(CategoryEntity category);
+
+    /**
+     * Get the id of the category with a name, adding it as a user-defined category if there is none
+     * @param name Display name
+     * @return Category id
+     */
+    @Transaction
+    default int getOrInsert(String name) {
+        long id = insert(new CategoryEntity(name));
+        return id >= 0 ? (int) id : findIdByName(name);
+    }
+
+    /**
+     * @param name Display name
+     * @return Id of the category with that name
+     */
+    @Query("SELECT id FROM categories WHERE name = :name")
+    int findIdByName(String name);
+
+    /**
+     * Delete a category. Fails while expenses still refer to it.
+     * @param id Category id
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM categories WHERE id = :id")
+    int delete(int id);
+
+    /**
+     * Get every category, built-in categories first
+     * @return List of categories in id order
+     */
+    @Query("SELECT * FROM categories ORDER BY id")
+    List<CategoryEntity> getAll();
+
+    /**
+     * Observe every category, built-in categories first
+     * @return LiveData list of categories in id order
+     */
+    @Query("SELECT * FROM categories ORDER BY id")
+    LiveData<List<CategoryEntity>> observeAll();
+}
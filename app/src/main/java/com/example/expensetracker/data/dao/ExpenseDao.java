@@ -1,15 +1,26 @@
 package com.example.expensetracker.data.dao;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
+import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.example.expensetracker.data.TimeBuckets;
 import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.ExportFilter;
+import com.example.expensetracker.data.model.TrendGranularity;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -20,6 +31,11 @@ import java.util.List;
 @Dao
 public interface ExpenseDao {
     
+    /**
+     * Largest number of ids bound into one IN (...) list, kept below SQLite's 999 variable limit
+     */
+    int MAX_IDS_PER_STATEMENT = 900;
+    
     /**
      * Insert a new expense into the database
      * @param expense The expense to be inserted
@@ -42,6 +58,56 @@ public interface ExpenseDao {
     @Delete
     void delete(Expense expense);
     
+    /**
+     * Insert a list of expenses in a single transaction
+     * @param expenses The expenses to be inserted
+     * @return The row IDs of the inserted expenses, in the same order
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    long[] insertAll(List<Expense> expenses);
+    
+    /**
+     * Delete the expenses with the given IDs in a single transaction
+     * @param ids IDs of the expenses to delete
+     * @return Number of rows deleted
+     */
+    @Transaction
+    default int deleteByIds(long[] ids) {
+        int deleted = 0;
+        for (int start = 0; start < ids.length; start += MAX_IDS_PER_STATEMENT) {
+            int end = Math.min(start + MAX_IDS_PER_STATEMENT, ids.length);
+            deleted += deleteByIdChunk(Arrays.copyOfRange(ids, start, end));
+        }
+        return deleted;
+    }
+    
+    /**
+     * Delete the expenses with the given IDs in one statement.
+     * Use deleteByIds, which splits large arrays to stay within SQLite's variable limit.
+     * @param ids IDs of the expenses to delete (at most MAX_IDS_PER_STATEMENT)
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM expenses WHERE id IN (:ids)")
+    int deleteByIdChunk(long[] ids);
+    
+    /**
+     * Delete all expenses between two dates (inclusive)
+     * @param startDate The start date
+     * @param endDate The end date
+     * @return Number of rows deleted
+     */
+    @Query("DELETE FROM expenses WHERE date BETWEEN :startDate AND :endDate")
+    int deleteBetweenDates(Date startDate, Date endDate);
+    
+    /**
+     * Move every expense in one category to another category
+     * @param fromCategoryId Id of the category to move expenses out of
+     * @param toCategoryId Id of the category to move expenses into
+     * @return Number of rows updated
+     */
+    @Query("UPDATE expenses SET category_id = :toCategoryId WHERE category_id = :fromCategoryId")
+    int reassignCategory(int fromCategoryId, int toCategoryId);
+    
     /**
      * Get all expenses from the database
      * @return LiveData list of all expenses
@@ -49,6 +115,143 @@ public interface ExpenseDao {
     @Query("SELECT * FROM expenses ORDER BY date DESC")
     LiveData<List<Expense>> getAllExpenses();
     
+    /**
+     * Get all expenses as a Cursor, for streaming exports that must not load every row at once.
+     * The caller must close the cursor and must not call this on the main thread.
+     * @return Cursor over id, amount_minor, category_id, category (the name), date and notes, newest first
+     */
+    @Query("SELECT expenses.id, amount_minor, category_id, categories.name AS category, date, notes " +
+            "FROM expenses JOIN categories ON categories.id = expenses.category_id " +
+            "ORDER BY date DESC, expenses.id DESC")
+    Cursor getAllExpensesCursor();
+    
+    /**
+     * Get the expenses in a date range and set of categories as a Cursor, for streaming exports.
+     * The caller must close the cursor and must not call this on the main thread.
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @param categoryIds Ids of the categories to include
+     * @return Cursor over id, amount_minor, category_id, category (the name), date and notes, newest first
+     */
+    @Query("SELECT expenses.id, amount_minor, category_id, categories.name AS category, date, notes " +
+            "FROM expenses JOIN categories ON categories.id = expenses.category_id " +
+            "WHERE date BETWEEN :startDate AND :endDate AND category_id IN (:categoryIds) " +
+            "ORDER BY date DESC, expenses.id DESC")
+    Cursor getExpensesCursor(Date startDate, Date endDate, List<Integer> categoryIds);
+    
+    /**
+     * Get the expenses in a date range as a Cursor, for streaming exports.
+     * The caller must close the cursor and must not call this on the main thread.
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return Cursor over id, amount_minor, category_id, category (the name), date and notes, newest first
+     */
+    @Query("SELECT expenses.id, amount_minor, category_id, categories.name AS category, date, notes " +
+            "FROM expenses JOIN categories ON categories.id = expenses.category_id " +
+            "WHERE date BETWEEN :startDate AND :endDate " +
+            "ORDER BY date DESC, expenses.id DESC")
+    Cursor getExpensesCursor(Date startDate, Date endDate);
+    
+    /**
+     * Open an export cursor for a filter, skipping the WHERE clause when it matches everything
+     * @param filter Date range and categories to include
+     * @return Cursor over id, amount_minor, category_id, category (the name), date and notes, newest first
+     */
+    default Cursor getExpensesCursor(ExportFilter filter) {
+        if (filter.isUnfiltered()) {
+            return getAllExpensesCursor();
+        }
+        if (filter.isAllCategories()) {
+            return getExpensesCursor(filter.getStartDate(), filter.getEndDate());
+        }
+        return getExpensesCursor(filter.getStartDate(), filter.getEndDate(), filter.getCategoryIds());
+    }
+    
+    /**
+     * Count all expenses
+     * @return Number of expenses
+     */
+    @Query("SELECT COUNT(*) FROM expenses")
+    long countAll();
+    
+    /**
+     * Count the expenses in a date range and set of categories
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @param categoryIds Ids of the categories to include
+     * @return Number of matching expenses
+     */
+    @Query("SELECT COUNT(*) FROM expenses " +
+            "WHERE date BETWEEN :startDate AND :endDate AND category_id IN (:categoryIds)")
+    long countBetweenDates(Date startDate, Date endDate, List<Integer> categoryIds);
+    
+    /**
+     * Count the expenses in a date range
+     * @param startDate The start date (inclusive)
+     * @param endDate The end date (inclusive)
+     * @return Number of matching expenses
+     */
+    @Query("SELECT COUNT(*) FROM expenses WHERE date BETWEEN :startDate AND :endDate")
+    long countBetweenDates(Date startDate, Date endDate);
+    
+    /**
+     * Count the expenses an export cursor for the same filter would return. Counting reads only
+     * the (date, category_id, amount_minor) index, so it is much cheaper than making the cursor
+     * count its rows.
+     * @param filter Date range and categories to include
+     * @return Number of matching expenses
+     */
+    default long countExpenses(ExportFilter filter) {
+        if (filter.isUnfiltered()) {
+            return countAll();
+        }
+        if (filter.isAllCategories()) {
+            return countBetweenDates(filter.getStartDate(), filter.getEndDate());
+        }
+        return countBetweenDates(filter.getStartDate(), filter.getEndDate(), filter.getCategoryIds());
+    }
+    
+    /**
+     * Get the first page of expenses in (date DESC, id DESC) order
+     * @param limit Maximum number of rows to return
+     * @return Future list of the newest expenses
+     */
+    @Query("SELECT * FROM expenses ORDER BY date DESC, id DESC LIMIT :limit")
+    ListenableFuture<List<Expense>> getExpensePageFirst(int limit);
+    
+    /**
+     * Get a page of expenses starting at (and including) the given key
+     * @param date Date of the anchor row in milliseconds
+     * @param id ID of the anchor row
+     * @param limit Maximum number of rows to return
+     * @return Future list of expenses at or after the anchor, newest first
+     */
+    @Query("SELECT * FROM expenses WHERE date < :date OR (date = :date AND id <= :id) " +
+            "ORDER BY date DESC, id DESC LIMIT :limit")
+    ListenableFuture<List<Expense>> getExpensePageFrom(long date, long id, int limit);
+    
+    /**
+     * Get the page of expenses that follows the given key
+     * @param date Date of the last loaded row in milliseconds
+     * @param id ID of the last loaded row
+     * @param limit Maximum number of rows to return
+     * @return Future list of older expenses, newest first
+     */
+    @Query("SELECT * FROM expenses WHERE date < :date OR (date = :date AND id < :id) " +
+            "ORDER BY date DESC, id DESC LIMIT :limit")
+    ListenableFuture<List<Expense>> getExpensePageAfter(long date, long id, int limit);
+    
+    /**
+     * Get the page of expenses that precedes the given key
+     * @param date Date of the first loaded row in milliseconds
+     * @param id ID of the first loaded row
+     * @param limit Maximum number of rows to return
+     * @return Future list of newer expenses, oldest first
+     */
+    @Query("SELECT * FROM expenses WHERE date > :date OR (date = :date AND id > :id) " +
+            "ORDER BY date ASC, id ASC LIMIT :limit")
+    ListenableFuture<List<Expense>> getExpensePageBefore(long date, long id, int limit);
+    
     /**
      * Get an expense by its ID
      * @param id The ID of the expense
@@ -59,11 +262,11 @@ public interface ExpenseDao {
     
     /**
      * Get expenses for a specific category
-     * @param category The category to filter by
+     * @param categoryId Id of the category to filter by
      * @return LiveData list of expenses in the specified category
      */
-    @Query("SELECT * FROM expenses WHERE category = :category ORDER BY date DESC")
-    LiveData<List<Expense>> getExpensesByCategory(String category);
+    @Query("SELECT * FROM expenses WHERE category_id = :categoryId ORDER BY date DESC")
+    LiveData<List<Expense>> getExpensesByCategory(int categoryId);
     
     /**
      * Get expenses between two dates
@@ -75,33 +278,101 @@ public interface ExpenseDao {
     LiveData<List<Expense>> getExpensesBetweenDates(Date startDate, Date endDate);
     
     /**
-     * Get the sum of expenses for a specific month and year
-     * @param startDate The start date of the month
-     * @param endDate The end date of the month
-     * @return The sum of expenses for the specified month
+     * Full-text search over notes and category.
+     * Matches come from the expenses_fts index; they are ranked by the number of term hits
+     * (offsets() reports four integers per hit) and then by date, newest first.
+     * @param match FTS4 MATCH expression, see SearchQuery.toMatchExpression
+     * @param limit Maximum number of results
+     * @return LiveData list of matching expenses, best match first
+     */
+    @Query("SELECT expenses.* FROM expenses JOIN ("
+            + "SELECT docid, (length(offsets(expenses_fts)) - length(replace(offsets(expenses_fts), ' ', '')) + 1) / 4 AS hits "
+            + "FROM expenses_fts WHERE expenses_fts MATCH :match) AS matches ON expenses.id = matches.docid "
+            + "ORDER BY matches.hits DESC, expenses.date DESC, expenses.id DESC LIMIT :limit")
+    LiveData<List<Expense>> searchExpenses(String match, int limit);
+    
+    /**
+     * Run one page of a query compiled from an ExpenseFilter by ExpenseFilterCompiler
+     * @param query Query selecting whole expense rows, with its limit and offset
+     * @return Matching expenses, in the filter's order
      */
-    @Query("SELECT SUM(amount) FROM expenses WHERE date BETWEEN :startDate AND :endDate")
-    LiveData<Double> getMonthlyExpenseSum(Date startDate, Date endDate);
+    @RawQuery
+    List<Expense> getFilteredExpensePage(SupportSQLiteQuery query);
     
     /**
-     * Get the sum of expenses for each category in a specific month
-     * @param startDate The start date of the month
-     * @param endDate The end date of the month
-     * @return List of category and sum pairs
+     * Get expense totals per local day
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return LiveData list of non-empty buckets, oldest first
      */
-    @Query("SELECT category, SUM(amount) as total FROM expenses WHERE date BETWEEN :startDate AND :endDate GROUP BY category")
-    LiveData<List<CategorySum>> getMonthlyCategorySums(Date startDate, Date endDate);
+    @Query(TimeBuckets.DAILY_TOTALS)
+    LiveData<List<TrendBucket>> getDailyTotals(long startMillis, long endMillis);
+    
+    /**
+     * Get expense totals per local ISO week (starting Monday)
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return LiveData list of non-empty buckets, oldest first
+     */
+    @Query(TimeBuckets.WEEKLY_TOTALS)
+    LiveData<List<TrendBucket>> getWeeklyTotals(long startMillis, long endMillis);
+    
+    /**
+     * Get expense totals per local month
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return LiveData list of non-empty buckets, oldest first
+     */
+    @Query(TimeBuckets.MONTHLY_TOTALS)
+    LiveData<List<TrendBucket>> getMonthlyTotals(long startMillis, long endMillis);
+    
+    /**
+     * Get expense totals per bucket of the given size
+     * @param granularity Bucket size
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return LiveData list of non-empty buckets, oldest first
+     */
+    default LiveData<List<TrendBucket>> getTotals(TrendGranularity granularity, long startMillis, long endMillis) {
+        switch (granularity) {
+            case WEEK:
+                return getWeeklyTotals(startMillis, endMillis);
+            case MONTH:
+                return getMonthlyTotals(startMillis, endMillis);
+            default:
+                return getDailyTotals(startMillis, endMillis);
+        }
+    }
     
     /**
      * Static class to hold category sum results
      */
     class CategorySum {
+        @ColumnInfo(name = "category_id")
+        public int categoryId;
         public String category;
-        public double total;
+        @ColumnInfo(name = "total_minor")
+        public long totalMinor;
         
-        public CategorySum(String category, double total) {
+        public CategorySum(int categoryId, String category, long totalMinor) {
+            this.categoryId = categoryId;
             this.category = category;
-            this.total = total;
+            this.totalMinor = totalMinor;
+        }
+    }
+    
+    /**
+     * Static class to hold one time-series bucket
+     */
+    class TrendBucket {
+        @ColumnInfo(name = "bucket_start")
+        public long bucketStart;
+        @ColumnInfo(name = "total_minor")
+        public long totalMinor;
+        
+        public TrendBucket(long bucketStart, long totalMinor) {
+            this.bucketStart = bucketStart;
+            this.totalMinor = totalMinor;
         }
     }
-}
\ No newline at end of file
+}
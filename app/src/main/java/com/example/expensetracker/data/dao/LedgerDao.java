@@ -0,0 +1,70 @@
+package com.example.expensetracker.data.dao;
+
+import android.database.Cursor;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+/**
+ * Data Access Object (DAO) for loading the in-memory ledger and reading the expense_changes log.
+ * Rows are returned as Cursors so they can be copied into primitive arrays without creating an
+ * Expense per row. Callers must close the cursors and must not call these on the main thread.
+ */
+@Dao
+public interface LedgerDao {
+
+    /**
+     * Get the ledger columns of the oldest expenses
+     * @param limit Maximum number of rows
+     * @return Cursor over id, date, amount_minor and category_id, oldest first
+     */
+    @Query("SELECT id, date, amount_minor, category_id FROM expenses ORDER BY date, id LIMIT :limit")
+    Cursor getLedgerPageFirst(int limit);
+
+    /**
+     * Get the ledger columns of the expenses after (not including) the given key
+     * @param date Date of the last row already read
+     * @param id Id of the last row already read
+     * @param limit Maximum number of rows
+     * @return Cursor over id, date, amount_minor and category_id, oldest first
+     */
+    @Query("SELECT id, date, amount_minor, category_id FROM expenses " +
+            "WHERE date > :date OR (date = :date AND id > :id) ORDER BY date, id LIMIT :limit")
+    Cursor getLedgerPageAfter(long date, long id, int limit);
+
+    /**
+     * @return Sequence number of the latest logged change, 0 if none is logged
+     */
+    @Query("SELECT COALESCE(MAX(seq), 0) FROM expense_changes")
+    long getLastChange();
+
+    /**
+     * Count the expenses changed in a range of the log
+     * @param afterSeq Last sequence number already applied
+     * @param lastSeq Last sequence number to include
+     * @return Number of distinct expense ids logged
+     */
+    @Query("SELECT COUNT(DISTINCT expense_id) FROM expense_changes WHERE seq > :afterSeq AND seq <= :lastSeq")
+    int countChanged(long afterSeq, long lastSeq);
+
+    /**
+     * Get the current state of the expenses changed in a range of the log, one row per id.
+     * Deleted expenses have a null date.
+     * @param afterSeq Last sequence number already applied
+     * @param lastSeq Last sequence number to include
+     * @return Cursor over id, date, amount_minor and category_id
+     */
+    @Query("SELECT expense_changes.expense_id AS id, expenses.date, expenses.amount_minor, expenses.category_id " +
+            "FROM expense_changes LEFT JOIN expenses ON expenses.id = expense_changes.expense_id " +
+            "WHERE expense_changes.seq > :afterSeq AND expense_changes.seq <= :lastSeq " +
+            "GROUP BY expense_changes.expense_id")
+    Cursor getChangedCursor(long afterSeq, long lastSeq);
+
+    /**
+     * Remove log entries that have been applied
+     * @param lastSeq Last sequence number to remove
+     * @return Number of entries removed
+     */
+    @Query("DELETE FROM expense_changes WHERE seq <= :lastSeq")
+    int deleteChanges(long lastSeq);
+}
@@ -0,0 +1,70 @@
+package com.example.expensetracker.data.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * Entity class representing a spending budget for one month.
+ * A row either caps a single category or, when the category id is OVERALL, the whole month.
+ */
+@Entity(tableName = "budgets",
+        primaryKeys = {"year", "month", "category_id"})
+public class Budget {
+
+    /**
+     * Category id of the budget that covers all categories of a month; no category has id 0
+     */
+    public static final int OVERALL = 0;
+
+    @ColumnInfo(name = "year")
+    private final int year;
+
+    @ColumnInfo(name = "month")
+    private final int month;
+
+    @ColumnInfo(name = "category_id")
+    private final int categoryId;
+
+    @ColumnInfo(name = "amount_minor")
+    private final long amountMinor;
+
+    /**
+     * @param year Year
+     * @param month Month (1-12)
+     * @param categoryId Category id, or OVERALL for the whole month
+     * @param amountMinor Budget amount in minor units
+     */
+    public Budget(int year, int month, int categoryId, long amountMinor) {
+        this.year = year;
+        this.month = month;
+        this.categoryId = categoryId;
+        this.amountMinor = amountMinor;
+    }
+
+    // Getters
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    /**
+     * @return Budget amount in minor units
+     */
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    /**
+     * @return true if this budget covers all categories of the month
+     */
+    public boolean isOverall() {
+        return categoryId == OVERALL;
+    }
+}
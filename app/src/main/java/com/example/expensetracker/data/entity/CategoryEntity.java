@@ -0,0 +1,51 @@
+package com.example.expensetracker.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class representing one row of the categories table.
+ * Expenses and budgets refer to a category by its integer id. Ids 1-9 are the
+ * built-in categories (see Category) and are seeded with the database; user-defined categories
+ * are numbered after them. Names are unique.
+ */
+@Entity(tableName = "categories",
+        indices = {@Index(value = {"name"}, unique = true)})
+public class CategoryEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+
+    @ColumnInfo(name = "name")
+    @NonNull
+    private String name;
+
+    /**
+     * Constructor for creating a new category; the id is assigned on insert
+     * @param name Display name
+     */
+    public CategoryEntity(@NonNull String name) {
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.expensetracker.data.entity;
 
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 import androidx.annotation.NonNull;
@@ -10,19 +12,36 @@ import java.util.Date;
 /**
  * Entity class representing an expense entry in the database.
  * Uses Room annotations to define table structure.
+ * <p>
+ * Indices: {@code (date, category_id, amount_minor)} serves the date-ordered list, keyset paging
+ * and date ranges, and covers the monthly SUM queries so they never touch the table rows; rows
+ * sharing a date are put in id order by a sort of just those rows. {@code (category_id, date)}
+ * serves per-category lookups and the foreign key.
+ * <p>
+ * The category is stored as the integer id of a categories row rather than its name; a
+ * category that still has expenses cannot be deleted.
+ * <p>
+ * Amounts are stored as whole minor units (see Money), so sums are exact integer arithmetic.
  */
-@Entity(tableName = "expenses")
+@Entity(tableName = "expenses",
+        foreignKeys = @ForeignKey(entity = CategoryEntity.class,
+                parentColumns = "id",
+                childColumns = "category_id",
+                onDelete = ForeignKey.RESTRICT),
+        indices = {
+                @Index(value = {"category_id", "date"}),
+                @Index(value = {"date", "category_id", "amount_minor"})
+        })
 public class Expense {
     
     @PrimaryKey(autoGenerate = true)
     private long id;
     
-    @ColumnInfo(name = "amount")
-    private double amount;
+    @ColumnInfo(name = "amount_minor")
+    private long amountMinor;
     
-    @ColumnInfo(name = "category")
-    @NonNull
-    private String category;
+    @ColumnInfo(name = "category_id")
+    private int categoryId;
     
     @ColumnInfo(name = "date")
     @NonNull
@@ -33,10 +52,12 @@ public class Expense {
     
     /**
      * Constructor for creating a new expense
+     * @param amountMinor Amount in minor units
+     * @param categoryId Id of the expense's category
      */
-    public Expense(double amount, @NonNull String category, @NonNull Date date, String notes) {
-        this.amount = amount;
-        this.category = category;
+    public Expense(long amountMinor, int categoryId, @NonNull Date date, String notes) {
+        this.amountMinor = amountMinor;
+        this.categoryId = categoryId;
         this.date = date;
         this.notes = notes;
     }
@@ -50,21 +71,23 @@ public class Expense {
         this.id = id;
     }
     
-    public double getAmount() {
-        return amount;
+    /**
+     * @return Amount in minor units
+     */
+    public long getAmountMinor() {
+        return amountMinor;
     }
     
-    public void setAmount(double amount) {
-        this.amount = amount;
+    public void setAmountMinor(long amountMinor) {
+        this.amountMinor = amountMinor;
     }
     
-    @NonNull
-    public String getCategory() {
-        return category;
+    public int getCategoryId() {
+        return categoryId;
     }
     
-    public void setCategory(@NonNull String category) {
-        this.category = category;
+    public void setCategoryId(int categoryId) {
+        this.categoryId = categoryId;
     }
     
     @NonNull
@@ -0,0 +1,35 @@
+package com.example.expensetracker.data.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Entity class representing one row of the expense_changes log.
+ * Triggers on the expenses table (see LedgerSchema) append the id of every inserted, updated or
+ * deleted expense, so the in-memory ledger can re-read only the expenses that changed since the
+ * sequence number it last applied. Rows are written by SQL only and pruned once applied.
+ */
+@Entity(tableName = "expense_changes")
+public class ExpenseChange {
+
+    @PrimaryKey(autoGenerate = true)
+    private long seq;
+
+    @ColumnInfo(name = "expense_id")
+    private long expenseId;
+
+    public ExpenseChange(long seq, long expenseId) {
+        this.seq = seq;
+        this.expenseId = expenseId;
+    }
+
+    // Getters
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getExpenseId() {
+        return expenseId;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.expensetracker.data.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index over the notes and category name of each expense.
+ * The expenses table stores only a category id, so the index keeps its own copy of both
+ * texts; triggers on expenses and categories keep it in sync (see SearchIndexSchema).
+ * The docid of each row is the expense id.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "expenses_fts")
+public class ExpenseFts {
+
+    @ColumnInfo(name = "notes")
+    private String notes;
+
+    @ColumnInfo(name = "category")
+    private String category;
+
+    public ExpenseFts(String notes, String category) {
+        this.notes = notes;
+        this.category = category;
+    }
+
+    // Getters
+    public String getNotes() {
+        return notes;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
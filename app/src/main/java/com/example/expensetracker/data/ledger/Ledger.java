@@ -0,0 +1,209 @@
+package com.example.expensetracker.data.ledger;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.BatchingWriteExecutor;
+import com.example.expensetracker.data.dao.LedgerDao;
+import com.example.expensetracker.util.Tracer;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Process-wide LedgerSnapshot of every expense, kept current as expenses change.
+ * <p>
+ * The ledger is loaded once. After that, each time Room reports a change to the expenses table
+ * it reads the expense_changes log from the last sequence number it applied and re-reads only
+ * the expenses listed there. If more than a quarter of the ledger changed, as after a restore or
+ * a bulk delete, it reloads instead. Refreshes run on one background thread and are coalesced,
+ * so a burst of writes costs one refresh. Applied log entries are pruned through the write
+ * executor.
+ */
+public final class Ledger {
+
+    private static final String TAG = "Ledger";
+
+    /**
+     * Number of applied log entries to let accumulate before pruning them
+     */
+    private static final long PRUNE_INTERVAL = 256;
+
+    /**
+     * Smallest change count that may trigger a full reload, so small ledgers are not reloaded on
+     * every change
+     */
+    private static final int MIN_RELOAD_CHANGES = 64;
+
+    /**
+     * Rows read per statement when loading
+     */
+    private static final int LOAD_PAGE_SIZE = 8192;
+
+    private static volatile Ledger INSTANCE;
+
+    private final AppDatabase database;
+    private final LedgerDao ledgerDao;
+    private final BatchingWriteExecutor writeExecutor;
+    private final ExecutorService refreshThread = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "expense-ledger"));
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+    private final MutableLiveData<LedgerSnapshot> snapshot = new MutableLiveData<>();
+
+    // Only touched on the refresh thread
+    private LedgerSnapshot current;
+    private long appliedSeq;
+    private long prunedSeq;
+
+    private Ledger(AppDatabase database) {
+        this.database = database;
+        this.ledgerDao = database.ledgerDao();
+        this.writeExecutor = BatchingWriteExecutor.getInstance(database);
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("expenses") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                scheduleRefresh();
+            }
+        });
+        scheduleRefresh();
+    }
+
+    /**
+     * Get the ledger for a database (singleton pattern); the first call starts loading it
+     * @param database Database to read expenses from
+     * @return Ledger instance
+     */
+    public static Ledger getInstance(AppDatabase database) {
+        if (INSTANCE == null) {
+            synchronized (Ledger.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new Ledger(database);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Get the current snapshot
+     * @return LiveData of the snapshot, set once the ledger has loaded and on every change after
+     */
+    public LiveData<LedgerSnapshot> getSnapshot() {
+        return snapshot;
+    }
+
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refreshThread.execute(this::refresh);
+        }
+    }
+
+    /**
+     * Runs on the refresh thread: bring the snapshot up to the latest logged change
+     */
+    @WorkerThread
+    private void refresh() {
+        // Cleared first, so a change committed while reading schedules another refresh
+        refreshScheduled.set(false);
+        Tracer.beginSection("Ledger.refresh");
+        try {
+            long lastSeq = ledgerDao.getLastChange();
+            LedgerSnapshot next;
+            if (current == null) {
+                next = load();
+            } else if (lastSeq == appliedSeq) {
+                return;
+            } else {
+                int changed = ledgerDao.countChanged(appliedSeq, lastSeq);
+                next = changed > Math.max(MIN_RELOAD_CHANGES, current.size() / 4)
+                        ? load()
+                        : applyChanges(current, lastSeq, changed);
+            }
+            current = next;
+            snapshot.postValue(next);
+            Tracer.counter("ledger.size", next.size());
+            pruneLog();
+        } finally {
+            Tracer.endSection();
+        }
+    }
+
+    /**
+     * Read every expense, starting from the current log position.
+     * <p>
+     * No transaction is held, so the writer is never blocked: a transaction would take the
+     * database's one write connection for the whole load. Instead the log position is read
+     * first and the rows follow in keyset pages, each read from a consistent WAL snapshot. A
+     * row changed while loading is logged after that position, so the next refresh re-applies
+     * it, and keyset pages never skip or repeat a row that did not change.
+     */
+    private LedgerSnapshot load() {
+        appliedSeq = ledgerDao.getLastChange();
+        LedgerSnapshot.Builder rows = new LedgerSnapshot.Builder((int) database.expenseDao().countAll());
+        long lastDate = 0;
+        long lastId = 0;
+        int loaded = 0;
+        int read;
+        do {
+            read = 0;
+            try (Cursor cursor = loaded == 0
+                    ? ledgerDao.getLedgerPageFirst(LOAD_PAGE_SIZE)
+                    : ledgerDao.getLedgerPageAfter(lastDate, lastId, LOAD_PAGE_SIZE)) {
+                while (cursor.moveToNext()) {
+                    lastId = cursor.getLong(0);
+                    lastDate = cursor.getLong(1);
+                    rows.add(lastId, lastDate, cursor.getLong(2), cursor.getInt(3));
+                    read++;
+                }
+            }
+            loaded += read;
+        } while (read == LOAD_PAGE_SIZE);
+        int total = loaded;
+        Tracer.debug(TAG, () -> "Loaded " + total + " expenses");
+        return rows.build();
+    }
+
+    /**
+     * Re-read the expenses logged after appliedSeq, up to lastSeq. Rows reflect their state at
+     * the time of the read, which may include later changes; those are logged again and
+     * re-applied by the next refresh, which leaves the same result.
+     */
+    private LedgerSnapshot applyChanges(LedgerSnapshot previous, long lastSeq, int changed) {
+        long[] changedIds = new long[changed];
+        int count = 0;
+        LedgerSnapshot.Builder updated = new LedgerSnapshot.Builder(changed);
+        try (Cursor cursor = ledgerDao.getChangedCursor(appliedSeq, lastSeq)) {
+            while (cursor.moveToNext()) {
+                long id = cursor.getLong(0);
+                if (count == changedIds.length) {
+                    changedIds = Arrays.copyOf(changedIds, count * 2 + 1);
+                }
+                changedIds[count++] = id;
+                // A deleted expense has no row to join, so its columns are null
+                if (!cursor.isNull(1)) {
+                    updated.add(id, cursor.getLong(1), cursor.getLong(2), cursor.getInt(3));
+                }
+            }
+        }
+        appliedSeq = lastSeq;
+        int applied = count;
+        Tracer.debug(TAG, () -> "Applied " + applied + " changed expenses");
+        return previous.withChanges(changedIds, count, updated);
+    }
+
+    private void pruneLog() {
+        if (appliedSeq - prunedSeq < PRUNE_INTERVAL) return;
+        long seq = appliedSeq;
+        prunedSeq = seq;
+        writeExecutor.submit(() -> ledgerDao.deleteChanges(seq));
+    }
+}
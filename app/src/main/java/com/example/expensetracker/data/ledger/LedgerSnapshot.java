@@ -0,0 +1,545 @@
+package com.example.expensetracker.data.ledger;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable, column-oriented copy of the expenses needed for totals: id, date, amount and
+ * category of every expense, each held in its own primitive array.
+ * <p>
+ * Rows are sorted by date and then id, so the rows of any date range are found with binary
+ * searches and summed in passes over contiguous memory. A row costs 28 bytes, against an
+ * Expense object with its Date and notes String for each row of a {@code List<Expense>}.
+ * <p>
+ * The rows are split into chunks of about CHUNK_SIZE rows, and a chunk is never modified once
+ * built. Applying a change copies only the chunks it touches and shares the rest with the
+ * previous snapshot, so a one-row edit costs a few chunks rather than a copy of every column.
+ * <p>
+ * A snapshot made by withChanges also keeps the rows it removed and added, so totals computed
+ * on the previous snapshot can be adjusted instead of recomputed (see MonthCategorySums).
+ */
+public final class LedgerSnapshot {
+
+    /**
+     * Rows per chunk when a ledger is built; a chunk that grows past twice this is split
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    // Declared before EMPTY, which takes the first version
+    private static final AtomicLong NEXT_VERSION = new AtomicLong();
+
+    /**
+     * Snapshot with no expenses
+     */
+    public static final LedgerSnapshot EMPTY = new Builder(0).build();
+
+    private final Chunk[] chunks;
+    private final int[] chunkStarts;
+    private final int size;
+    private final long version = NEXT_VERSION.incrementAndGet();
+
+    // Set when made by withChanges: the previous snapshot's version and the rows that changed
+    private final long baseVersion;
+    private final Builder removedRows;
+    private final Builder addedRows;
+
+    private LedgerSnapshot(Chunk[] chunks) {
+        this(chunks, -1, null, null);
+    }
+
+    private LedgerSnapshot(Chunk[] chunks, long baseVersion, Builder removedRows, Builder addedRows) {
+        this.chunks = chunks;
+        this.baseVersion = baseVersion;
+        this.removedRows = removedRows;
+        this.addedRows = addedRows;
+        this.chunkStarts = new int[chunks.length];
+        int rows = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            chunkStarts[c] = rows;
+            rows += chunks[c].size;
+        }
+        this.size = rows;
+    }
+
+    /**
+     * @return Number of expenses
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index Row index, in date order
+     * @return Expense id of the row
+     */
+    public long getId(int index) {
+        int c = chunkOf(index);
+        return chunks[c].ids[index - chunkStarts[c]];
+    }
+
+    /**
+     * @param index Row index, in date order
+     * @return Date of the row in epoch millis
+     */
+    public long getDate(int index) {
+        int c = chunkOf(index);
+        return chunks[c].dates[index - chunkStarts[c]];
+    }
+
+    /**
+     * @param index Row index, in date order
+     * @return Amount of the row in minor units
+     */
+    public long getAmountMinor(int index) {
+        int c = chunkOf(index);
+        return chunks[c].amounts[index - chunkStarts[c]];
+    }
+
+    /**
+     * @param index Row index, in date order
+     * @return Category id of the row
+     */
+    public int getCategoryId(int index) {
+        int c = chunkOf(index);
+        return chunks[c].categoryIds[index - chunkStarts[c]];
+    }
+
+    /**
+     * Count the expenses in a date range
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return Number of expenses dated in the range
+     */
+    public int countBetween(long startMillis, long endMillis) {
+        int count = 0;
+        for (int c = firstChunkEndingAtOrAfter(startMillis); c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk.dates[0] > endMillis) break;
+            count += Math.max(0, chunk.firstAfter(endMillis) - chunk.firstAtOrAfter(startMillis));
+        }
+        return count;
+    }
+
+    /**
+     * Sum the expenses in a date range
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return Total in minor units, 0 if there are no expenses in the range
+     */
+    public long sumBetween(long startMillis, long endMillis) {
+        long total = 0;
+        for (int c = firstChunkEndingAtOrAfter(startMillis); c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk.dates[0] > endMillis) break;
+            long[] amounts = chunk.amounts;
+            for (int i = chunk.firstAtOrAfter(startMillis), end = chunk.firstAfter(endMillis); i < end; i++) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sum the expenses in a date range per category
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return Totals in minor units indexed by category id; ids past the end have no expenses
+     */
+    @NonNull
+    public long[] sumByCategoryBetween(long startMillis, long endMillis) {
+        long[] totals = new long[0];
+        for (int c = firstChunkEndingAtOrAfter(startMillis); c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk.dates[0] > endMillis) break;
+            for (int i = chunk.firstAtOrAfter(startMillis), end = chunk.firstAfter(endMillis); i < end; i++) {
+                int categoryId = chunk.categoryIds[i];
+                if (categoryId >= totals.length) {
+                    totals = Arrays.copyOf(totals, Math.max(categoryId + 1, totals.length * 2));
+                }
+                totals[categoryId] += chunk.amounts[i];
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * @return Number identifying this snapshot, unique within the process
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Adjust per-category totals of a date range by the rows this snapshot changed. Only
+     * valid for totals computed on the snapshot this one was made from (see isChangeOf).
+     * @param totals Totals in minor units indexed by category id, left unmodified
+     * @param startMillis Start of the range in epoch millis (inclusive)
+     * @param endMillis End of the range in epoch millis (inclusive)
+     * @return Adjusted totals, or the same array if no changed row is dated in the range
+     */
+    @NonNull
+    long[] adjustByCategoryBetween(@NonNull long[] totals, long startMillis, long endMillis) {
+        if (!removedRows.anyBetween(startMillis, endMillis) && !addedRows.anyBetween(startMillis, endMillis)) {
+            return totals;
+        }
+        long[] adjusted = totals.clone();
+        adjusted = removedRows.addByCategoryBetween(adjusted, startMillis, endMillis, -1);
+        return addedRows.addByCategoryBetween(adjusted, startMillis, endMillis, 1);
+    }
+
+    /**
+     * @param previousVersion Version of an earlier snapshot
+     * @return true if this snapshot was made from that one by withChanges
+     */
+    boolean isChangeOf(long previousVersion) {
+        return baseVersion == previousVersion;
+    }
+
+    /**
+     * Apply changed expenses read from the change log, leaving this snapshot untouched.
+     * Every row whose id is in changedIds is dropped and the rows in updated are merged in, so
+     * an id listed without an updated row is a deletion. Chunks with no changed row are shared
+     * with this snapshot.
+     * @param changedIds Ids of every inserted, updated or deleted expense
+     * @param changedCount Number of ids used from changedIds
+     * @param updated Current rows of the changed expenses that still exist
+     * @return New snapshot
+     */
+    @NonNull
+    LedgerSnapshot withChanges(@NonNull long[] changedIds, int changedCount, @NonNull Builder updated) {
+        long[] removed = Arrays.copyOf(changedIds, changedCount);
+        Arrays.sort(removed);
+        updated.sort();
+
+        // Drop the changed ids, copying only the chunks that held one
+        Builder removedRows = new Builder(changedCount);
+        List<Chunk> kept = new ArrayList<>(chunks.length + 1);
+        for (Chunk chunk : chunks) {
+            Chunk remaining = chunk.mayContainAny(removed) ? chunk.without(removed, removedRows) : chunk;
+            if (remaining.size > 0) kept.add(remaining);
+        }
+
+        // Merge the updated rows into the chunks whose key range they fall in
+        List<Chunk> merged = new ArrayList<>(kept.size() + 1);
+        int a = 0;
+        for (int c = 0; c < kept.size(); c++) {
+            Chunk chunk = kept.get(c);
+            boolean last = c == kept.size() - 1;
+            int from = a;
+            while (a < updated.size && (last || !chunk.endsBefore(updated.dates[a], updated.ids[a]))) {
+                a++;
+            }
+            if (a == from) {
+                merged.add(chunk);
+            } else {
+                addSplit(merged, chunk.merge(updated, from, a));
+            }
+        }
+        if (kept.isEmpty() && updated.size > 0) {
+            addSplit(merged, Chunk.copyOf(updated, 0, updated.size));
+        }
+        return new LedgerSnapshot(merged.toArray(new Chunk[0]), version, removedRows, updated);
+    }
+
+    /**
+     * Add a chunk, split into CHUNK_SIZE pieces if it has grown past twice that
+     */
+    private static void addSplit(List<Chunk> target, Chunk chunk) {
+        if (chunk.size <= 2 * CHUNK_SIZE) {
+            target.add(chunk);
+            return;
+        }
+        for (int from = 0; from < chunk.size; from += CHUNK_SIZE) {
+            target.add(chunk.slice(from, Math.min(from + CHUNK_SIZE, chunk.size)));
+        }
+    }
+
+    /**
+     * @return Index of the chunk holding the row
+     */
+    private int chunkOf(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunkStarts[mid] <= index) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * @return Index of the first chunk whose last row is dated at or after millis, or the
+     *         number of chunks if there is none
+     */
+    private int firstChunkEndingAtOrAfter(long millis) {
+        int low = 0;
+        int high = chunks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Chunk chunk = chunks[mid];
+            if (chunk.dates[chunk.size - 1] < millis) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * A run of consecutive rows in date order, never modified once built
+     */
+    private static final class Chunk {
+        final long[] ids;
+        final long[] dates;
+        final long[] amounts;
+        final int[] categoryIds;
+        final int size;
+        final long minId;
+        final long maxId;
+
+        Chunk(long[] ids, long[] dates, long[] amounts, int[] categoryIds, int size) {
+            this.ids = ids;
+            this.dates = dates;
+            this.amounts = amounts;
+            this.categoryIds = categoryIds;
+            this.size = size;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, ids[i]);
+                max = Math.max(max, ids[i]);
+            }
+            this.minId = min;
+            this.maxId = max;
+        }
+
+        static Chunk copyOf(Builder rows, int from, int to) {
+            return new Chunk(Arrays.copyOfRange(rows.ids, from, to),
+                    Arrays.copyOfRange(rows.dates, from, to),
+                    Arrays.copyOfRange(rows.amounts, from, to),
+                    Arrays.copyOfRange(rows.categoryIds, from, to),
+                    to - from);
+        }
+
+        Chunk slice(int from, int to) {
+            return new Chunk(Arrays.copyOfRange(ids, from, to),
+                    Arrays.copyOfRange(dates, from, to),
+                    Arrays.copyOfRange(amounts, from, to),
+                    Arrays.copyOfRange(categoryIds, from, to),
+                    to - from);
+        }
+
+        /**
+         * @param sortedIds Ids in ascending order
+         * @return false if no id in sortedIds can be in this chunk
+         */
+        boolean mayContainAny(long[] sortedIds) {
+            int i = Arrays.binarySearch(sortedIds, minId);
+            if (i >= 0) return true;
+            int next = -i - 1;
+            return next < sortedIds.length && sortedIds[next] <= maxId;
+        }
+
+        /**
+         * @param sortedIds Ids in ascending order
+         * @param removedRows Receives the rows that are dropped
+         * @return This chunk without the rows whose id is in sortedIds, or this chunk if none is
+         */
+        Chunk without(long[] sortedIds, Builder removedRows) {
+            int[] keep = new int[size];
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (Arrays.binarySearch(sortedIds, ids[i]) < 0) {
+                    keep[kept++] = i;
+                } else {
+                    removedRows.add(ids[i], dates[i], amounts[i], categoryIds[i]);
+                }
+            }
+            if (kept == size) return this;
+            long[] newIds = new long[kept];
+            long[] newDates = new long[kept];
+            long[] newAmounts = new long[kept];
+            int[] newCategoryIds = new int[kept];
+            for (int k = 0; k < kept; k++) {
+                int i = keep[k];
+                newIds[k] = ids[i];
+                newDates[k] = dates[i];
+                newAmounts[k] = amounts[i];
+                newCategoryIds[k] = categoryIds[i];
+            }
+            return new Chunk(newIds, newDates, newAmounts, newCategoryIds, kept);
+        }
+
+        /**
+         * @return true if every row of this chunk comes before the given key
+         */
+        boolean endsBefore(long date, long id) {
+            long lastDate = dates[size - 1];
+            return lastDate < date || (lastDate == date && ids[size - 1] < id);
+        }
+
+        /**
+         * @return New chunk with the sorted rows from..to of the builder merged in
+         */
+        Chunk merge(Builder rows, int from, int to) {
+            int length = size + to - from;
+            long[] newIds = new long[length];
+            long[] newDates = new long[length];
+            long[] newAmounts = new long[length];
+            int[] newCategoryIds = new int[length];
+            int i = 0;
+            int a = from;
+            for (int k = 0; k < length; k++) {
+                boolean takeAdded = i == size || (a < to && (rows.dates[a] < dates[i]
+                        || (rows.dates[a] == dates[i] && rows.ids[a] < ids[i])));
+                if (takeAdded) {
+                    newIds[k] = rows.ids[a];
+                    newDates[k] = rows.dates[a];
+                    newAmounts[k] = rows.amounts[a];
+                    newCategoryIds[k] = rows.categoryIds[a];
+                    a++;
+                } else {
+                    newIds[k] = ids[i];
+                    newDates[k] = dates[i];
+                    newAmounts[k] = amounts[i];
+                    newCategoryIds[k] = categoryIds[i];
+                    i++;
+                }
+            }
+            return new Chunk(newIds, newDates, newAmounts, newCategoryIds, length);
+        }
+
+        int firstAtOrAfter(long millis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (dates[mid] < millis) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+
+        int firstAfter(long millis) {
+            return millis == Long.MAX_VALUE ? size : firstAtOrAfter(millis + 1);
+        }
+    }
+
+    /**
+     * Collects rows into growable columns. Rows may be added in any order; build() sorts them
+     * by date and id unless they already arrived in that order.
+     */
+    static final class Builder {
+
+        private long[] ids;
+        private long[] dates;
+        private long[] amounts;
+        private int[] categoryIds;
+        private int size;
+        private boolean sorted = true;
+
+        /**
+         * @param capacity Expected number of rows
+         */
+        Builder(int capacity) {
+            capacity = Math.max(capacity, 16);
+            ids = new long[capacity];
+            dates = new long[capacity];
+            amounts = new long[capacity];
+            categoryIds = new int[capacity];
+        }
+
+        void add(long id, long date, long amountMinor, int categoryId) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                dates = Arrays.copyOf(dates, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+            }
+            if (size > 0 && (date < dates[size - 1] || (date == dates[size - 1] && id < ids[size - 1]))) {
+                sorted = false;
+            }
+            ids[size] = id;
+            dates[size] = date;
+            amounts[size] = amountMinor;
+            categoryIds[size] = categoryId;
+            size++;
+        }
+
+        /**
+         * @return true if any row is dated in the range
+         */
+        boolean anyBetween(long startMillis, long endMillis) {
+            for (int i = 0; i < size; i++) {
+                if (dates[i] >= startMillis && dates[i] <= endMillis) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Add the amounts of the rows dated in a range to per-category totals
+         * @param sign 1 to add the amounts, -1 to subtract them
+         * @return The totals, grown if a row has a higher category id
+         */
+        long[] addByCategoryBetween(long[] totals, long startMillis, long endMillis, int sign) {
+            for (int i = 0; i < size; i++) {
+                if (dates[i] < startMillis || dates[i] > endMillis) continue;
+                int categoryId = categoryIds[i];
+                if (categoryId >= totals.length) {
+                    totals = Arrays.copyOf(totals, Math.max(categoryId + 1, totals.length * 2));
+                }
+                totals[categoryId] += sign * amounts[i];
+            }
+            return totals;
+        }
+
+        /**
+         * Put the rows in date and id order, if they did not arrive in it
+         */
+        void sort() {
+            if (sorted) return;
+            // Only change batches arrive out of order, and they are small
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (x, y) -> dates[x] != dates[y]
+                    ? Long.compare(dates[x], dates[y])
+                    : Long.compare(ids[x], ids[y]));
+            long[] sortedIds = new long[size];
+            long[] sortedDates = new long[size];
+            long[] sortedAmounts = new long[size];
+            int[] sortedCategoryIds = new int[size];
+            for (int k = 0; k < size; k++) {
+                int i = order[k];
+                sortedIds[k] = ids[i];
+                sortedDates[k] = dates[i];
+                sortedAmounts[k] = amounts[i];
+                sortedCategoryIds[k] = categoryIds[i];
+            }
+            ids = sortedIds;
+            dates = sortedDates;
+            amounts = sortedAmounts;
+            categoryIds = sortedCategoryIds;
+            sorted = true;
+        }
+
+        @NonNull
+        LedgerSnapshot build() {
+            sort();
+            Chunk[] chunks = new Chunk[(size + CHUNK_SIZE - 1) / CHUNK_SIZE];
+            for (int c = 0; c < chunks.length; c++) {
+                int from = c * CHUNK_SIZE;
+                chunks[c] = Chunk.copyOf(this, from, Math.min(from + CHUNK_SIZE, size));
+            }
+            return new LedgerSnapshot(chunks);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.expensetracker.data.ledger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.example.expensetracker.data.dao.ExpenseDao.CategorySum;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.data.model.YearMonth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-category totals of one month, computed from the ledger snapshot on the main thread.
+ * The totals are an accumulator: when a new snapshot was made from the previous one, only the
+ * rows it changed are added or subtracted. Otherwise, as after a reload or when LiveData skipped
+ * a snapshot, the month's rows are summed again in one pass over their contiguous run. A new
+ * list is published only when a total or a category name changed, sorted by category name.
+ */
+public class MonthCategorySums extends MediatorLiveData<List<CategorySum>> {
+
+    private final long startMillis;
+    private final long endMillis;
+    private LedgerSnapshot snapshot;
+    private CategoryTable categories;
+    private long[] totals;
+
+    /**
+     * @param month Month to total
+     * @param ledger Snapshots of every expense
+     * @param categoryTable Categories, for naming the totals
+     */
+    public MonthCategorySums(@NonNull YearMonth month,
+                             @NonNull LiveData<LedgerSnapshot> ledger,
+                             @NonNull LiveData<CategoryTable> categoryTable) {
+        this.startMillis = month.getStartDate().getTime();
+        this.endMillis = month.getEndDate().getTime();
+        addSource(ledger, this::onSnapshotChanged);
+        addSource(categoryTable, this::onCategoriesChanged);
+    }
+
+    private void onSnapshotChanged(@Nullable LedgerSnapshot value) {
+        LedgerSnapshot previous = snapshot;
+        snapshot = value;
+        if (value == null) return;
+        long[] next = totals != null && previous != null && value.isChangeOf(previous.getVersion())
+                ? value.adjustByCategoryBetween(totals, startMillis, endMillis)
+                : value.sumByCategoryBetween(startMillis, endMillis);
+        if (totals != null && (next == totals || sameTotals(totals, next))) return;
+        totals = next;
+        publish();
+    }
+
+    private void onCategoriesChanged(@Nullable CategoryTable value) {
+        categories = value;
+        publish();
+    }
+
+    private void publish() {
+        if (snapshot == null || categories == null) return;
+        List<CategorySum> sums = new ArrayList<>();
+        for (int id = 0; id < totals.length; id++) {
+            if (totals[id] != 0) {
+                sums.add(new CategorySum(id, categories.nameOf(id), totals[id]));
+            }
+        }
+        sums.sort((a, b) -> a.category.compareTo(b.category));
+        setValue(sums);
+    }
+
+    /**
+     * Compare two totals arrays, treating missing trailing entries as zero
+     */
+    private static boolean sameTotals(long[] a, long[] b) {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            if (a[i] != b[i]) return false;
+        }
+        long[] longer = a.length > b.length ? a : b;
+        for (int i = common; i < longer.length; i++) {
+            if (longer[i] != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of budget against spending for one month, overall and per category.
+ * Produced by BudgetEvaluator; equal snapshots compare equal so unchanged states can be skipped.
+ * Amounts are in minor units.
+ */
+public final class BudgetStatus {
+
+    private final YearMonth month;
+    private final long budget;
+    private final long spent;
+    private final List<CategoryStatus> categories;
+
+    /**
+     * @param month Month the status is for
+     * @param budget Budget for the month, or 0 if none is set
+     * @param spent Amount spent in the month
+     * @param categories Status of each category that has a budget or spending
+     */
+    public BudgetStatus(@NonNull YearMonth month, long budget, long spent,
+                        @NonNull CategoryStatus[] categories) {
+        this.month = month;
+        this.budget = budget;
+        this.spent = spent;
+        this.categories = Collections.unmodifiableList(Arrays.asList(categories));
+    }
+
+    @NonNull
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    /**
+     * @return true if a budget is set for the month
+     */
+    public boolean hasBudget() {
+        return budget > 0;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public long getSpent() {
+        return spent;
+    }
+
+    /**
+     * @return Budget minus spending; negative when the budget is exceeded
+     */
+    public long getRemaining() {
+        return budget - spent;
+    }
+
+    /**
+     * @return Spending as a fraction of the budget, or 0 if no budget is set
+     */
+    public double getFractionUsed() {
+        return budget > 0 ? (double) spent / budget : 0.0;
+    }
+
+    /**
+     * @return Status of each category that has a budget or spending, in category id order
+     */
+    @NonNull
+    public List<CategoryStatus> getCategories() {
+        return categories;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BudgetStatus)) return false;
+        BudgetStatus other = (BudgetStatus) o;
+        return budget == other.budget
+                && spent == other.spent
+                && month.equals(other.month)
+                && categories.equals(other.categories);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = month.hashCode();
+        result = 31 * result + Long.hashCode(budget);
+        result = 31 * result + Long.hashCode(spent);
+        result = 31 * result + categories.hashCode();
+        return result;
+    }
+
+    /**
+     * Budget against spending for one category
+     */
+    public static final class CategoryStatus {
+        private final int categoryId;
+        private final long budget;
+        private final long spent;
+
+        /**
+         * @param categoryId Category id
+         * @param budget Budget for the category, or 0 if none is set
+         * @param spent Amount spent in the category
+         */
+        public CategoryStatus(int categoryId, long budget, long spent) {
+            this.categoryId = categoryId;
+            this.budget = budget;
+            this.spent = spent;
+        }
+
+        public int getCategoryId() {
+            return categoryId;
+        }
+
+        public boolean hasBudget() {
+            return budget > 0;
+        }
+
+        public long getBudget() {
+            return budget;
+        }
+
+        public long getSpent() {
+            return spent;
+        }
+
+        public long getRemaining() {
+            return budget - spent;
+        }
+
+        public double getFractionUsed() {
+            return budget > 0 ? (double) spent / budget : 0.0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CategoryStatus)) return false;
+            CategoryStatus other = (CategoryStatus) o;
+            return categoryId == other.categoryId
+                    && budget == other.budget
+                    && spent == other.spent;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = categoryId;
+            result = 31 * result + Long.hashCode(budget);
+            result = 31 * result + Long.hashCode(spent);
+            return result;
+        }
+    }
+}
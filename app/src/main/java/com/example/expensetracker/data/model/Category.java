@@ -1,27 +1,52 @@
 package com.example.expensetracker.data.model;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
- * Enum representing expense categories.
+ * Enum representing the built-in expense categories.
+ * Each has a fixed row id in the categories table; user-defined categories get ids after
+ * these (see CategoryTable).
  */
 public enum Category {
-    FOOD("Food"),
-    TRANSPORTATION("Transportation"),
-    HOUSING("Housing"),
-    ENTERTAINMENT("Entertainment"),
-    SHOPPING("Shopping"),
-    UTILITIES("Utilities"),
-    HEALTHCARE("Healthcare"),
-    EDUCATION("Education"),
-    OTHER("Other");
+    FOOD(1, "Food"),
+    TRANSPORTATION(2, "Transportation"),
+    HOUSING(3, "Housing"),
+    ENTERTAINMENT(4, "Entertainment"),
+    SHOPPING(5, "Shopping"),
+    UTILITIES(6, "Utilities"),
+    HEALTHCARE(7, "Healthcare"),
+    EDUCATION(8, "Education"),
+    OTHER(9, "Other");
 
+    /**
+     * Built-in categories indexed by id
+     */
+    private static final Category[] BY_ID;
+
+    static {
+        Category[] categories = values();
+        BY_ID = new Category[categories[categories.length - 1].id + 1];
+        for (Category category : categories) {
+            BY_ID[category.id] = category;
+        }
+    }
+
+    private final int id;
     private final String displayName;
 
-    Category(String displayName) {
+    Category(int id, String displayName) {
+        this.id = id;
         this.displayName = displayName;
     }
 
+    /**
+     * @return Row id of this category in the categories table
+     */
+    public int getId() {
+        return id;
+    }
+
     @NonNull
     public String getDisplayName() {
         return displayName;
@@ -39,6 +64,20 @@ public enum Category {
         return names;
     }
     
+    /**
+     * @param id Category row id
+     * @return The built-in category with that id, or null for a user-defined category
+     */
+    @Nullable
+    public static Category fromId(int id) {
+        return id > 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+
+    /**
+     * Match a display name read from text, such as a CSV file
+     * @param displayName Display name
+     * @return The matching built-in category, OTHER if none matches
+     */
     @NonNull
     public static Category fromDisplayName(String displayName) {
         for (Category category : Category.values()) {
@@ -0,0 +1,164 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.expensetracker.data.entity.CategoryEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the categories table, for turning category ids into names and back.
+ * <p>
+ * Ids are small and dense, so names are held in an array indexed by id and a lookup by id is
+ * a single array read. Categories are listed in id order: the built-in categories first, then
+ * user-defined ones in the order they were created.
+ */
+public final class CategoryTable {
+
+    /**
+     * The built-in categories alone, for use before the table has been read
+     */
+    public static final CategoryTable BUILT_IN = fromBuiltIns();
+
+    private final int[] ids;
+    private final String[] names;
+    private final String[] namesById;
+    private final Map<String, Integer> idsByName;
+
+    private CategoryTable(int[] ids, String[] names) {
+        this.ids = ids;
+        this.names = names;
+        int maxId = 0;
+        for (int id : ids) {
+            maxId = Math.max(maxId, id);
+        }
+        this.namesById = new String[maxId + 1];
+        this.idsByName = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            namesById[ids[i]] = names[i];
+            idsByName.put(names[i], ids[i]);
+        }
+    }
+
+    /**
+     * @param rows Rows of the categories table, in id order
+     * @return Table of those categories
+     */
+    @NonNull
+    public static CategoryTable of(@NonNull List<CategoryEntity> rows) {
+        int[] ids = new int[rows.size()];
+        String[] names = new String[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rows.get(i).getId();
+            names[i] = rows.get(i).getName();
+        }
+        return new CategoryTable(ids, names);
+    }
+
+    private static CategoryTable fromBuiltIns() {
+        Category[] categories = Category.values();
+        int[] ids = new int[categories.length];
+        String[] names = new String[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            ids[i] = categories[i].getId();
+            names[i] = categories[i].getDisplayName();
+        }
+        return new CategoryTable(ids, names);
+    }
+
+    /**
+     * @return Number of categories
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param position Position in id order
+     * @return Id of the category at that position
+     */
+    public int getId(int position) {
+        return ids[position];
+    }
+
+    /**
+     * @param position Position in id order
+     * @return Name of the category at that position
+     */
+    @NonNull
+    public String getName(int position) {
+        return names[position];
+    }
+
+    /**
+     * @return Names of every category in id order, as a new array
+     */
+    @NonNull
+    public String[] getNames() {
+        return names.clone();
+    }
+
+    /**
+     * @param id Category id
+     * @return Position of the category in id order, or -1 if there is no such category
+     */
+    public int positionOf(int id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * @param id Category id
+     * @return Name of the category, or the name of Category.OTHER for an unknown id
+     */
+    @NonNull
+    public String nameOf(int id) {
+        String name = id >= 0 && id < namesById.length ? namesById[id] : null;
+        return name != null ? name : Category.OTHER.getDisplayName();
+    }
+
+    /**
+     * @param name Category name
+     * @return Id of the category with that name, or null if there is none
+     */
+    @Nullable
+    public Integer findId(@Nullable String name) {
+        return name != null ? idsByName.get(name) : null;
+    }
+
+    /**
+     * Match a name read from text, such as a CSV file
+     * @param name Category name
+     * @return Id of the category with that name, Category.OTHER's id if there is none
+     */
+    public int idOf(@Nullable String name) {
+        Integer id = findId(name);
+        return id != null ? id : Category.OTHER.getId();
+    }
+
+    /**
+     * @param id Category id
+     * @return true if the category is user-defined and may be deleted
+     */
+    public boolean isUserDefined(int id) {
+        return Category.fromId(id) == null && positionOf(id) >= 0;
+    }
+
+    /**
+     * @param ids Category ids
+     * @return Names of those categories, in the same order
+     */
+    @NonNull
+    public List<String> namesOf(@NonNull Iterable<Integer> ids) {
+        List<String> result = new ArrayList<>();
+        for (int id : ids) {
+            result.add(nameOf(id));
+        }
+        return result;
+    }
+}
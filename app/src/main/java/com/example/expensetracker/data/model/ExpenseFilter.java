@@ -0,0 +1,233 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Criteria for the expense list: date range, categories, amount range, notes text and sort order.
+ * Every criterion is optional. Filters are immutable and compare by value, so setting an equal
+ * filter again does not restart the list query. ExpenseFilterCompiler turns a filter into one SQL query.
+ */
+public final class ExpenseFilter {
+
+    /**
+     * Order of the filtered list
+     */
+    public enum Sort {
+        NEWEST_FIRST,
+        OLDEST_FIRST,
+        HIGHEST_AMOUNT,
+        LOWEST_AMOUNT
+    }
+
+    private static final ExpenseFilter NONE = new Builder().build();
+
+    private final Date startDate;
+    private final Date endDate;
+    private final SortedSet<Integer> categoryIds;
+    private final Long minAmountMinor;
+    private final Long maxAmountMinor;
+    private final String notesText;
+    private final Sort sort;
+
+    private ExpenseFilter(Builder builder) {
+        this.startDate = builder.startDate;
+        this.endDate = builder.endDate;
+        this.categoryIds = Collections.unmodifiableSortedSet(new TreeSet<>(builder.categoryIds));
+        this.minAmountMinor = builder.minAmountMinor;
+        this.maxAmountMinor = builder.maxAmountMinor;
+        this.notesText = builder.notesText;
+        this.sort = builder.sort;
+    }
+
+    /**
+     * @return A filter that matches every expense, newest first
+     */
+    @NonNull
+    public static ExpenseFilter none() {
+        return NONE;
+    }
+
+    /**
+     * @return A builder initialised with this filter's criteria
+     */
+    @NonNull
+    public Builder buildUpon() {
+        return new Builder()
+                .setDateRange(startDate, endDate)
+                .setCategoryIds(categoryIds)
+                .setAmountRange(minAmountMinor, maxAmountMinor)
+                .setNotesText(notesText)
+                .setSort(sort);
+    }
+
+    /**
+     * @return true if the filter matches every expense in the default order
+     */
+    public boolean isUnfiltered() {
+        return !hasCriteria() && sort == Sort.NEWEST_FIRST;
+    }
+
+    /**
+     * @return true if the notes text is the only criterion and the order is the default
+     */
+    public boolean isTextOnly() {
+        return notesText != null && startDate == null && endDate == null && categoryIds.isEmpty()
+                && minAmountMinor == null && maxAmountMinor == null && sort == Sort.NEWEST_FIRST;
+    }
+
+    /**
+     * @return true if any criterion other than the sort order is set
+     */
+    public boolean hasCriteria() {
+        return startDate != null || endDate != null || !categoryIds.isEmpty()
+                || minAmountMinor != null || maxAmountMinor != null || notesText != null;
+    }
+
+    /**
+     * @return Earliest date to include, or null for no lower bound
+     */
+    @Nullable
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * @return Latest date to include, or null for no upper bound
+     */
+    @Nullable
+    public Date getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return Ids of the categories to include, in ascending order; empty for all categories
+     */
+    @NonNull
+    public SortedSet<Integer> getCategoryIds() {
+        return categoryIds;
+    }
+
+    /**
+     * @return Smallest amount to include in minor units, or null for no lower bound
+     */
+    @Nullable
+    public Long getMinAmountMinor() {
+        return minAmountMinor;
+    }
+
+    /**
+     * @return Largest amount to include in minor units, or null for no upper bound
+     */
+    @Nullable
+    public Long getMaxAmountMinor() {
+        return maxAmountMinor;
+    }
+
+    /**
+     * @return Words the notes or category must contain (see SearchQuery), or null for any notes
+     */
+    @Nullable
+    public String getNotesText() {
+        return notesText;
+    }
+
+    @NonNull
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExpenseFilter)) return false;
+        ExpenseFilter other = (ExpenseFilter) o;
+        return Objects.equals(startDate, other.startDate)
+                && Objects.equals(endDate, other.endDate)
+                && categoryIds.equals(other.categoryIds)
+                && Objects.equals(minAmountMinor, other.minAmountMinor)
+                && Objects.equals(maxAmountMinor, other.maxAmountMinor)
+                && Objects.equals(notesText, other.notesText)
+                && sort == other.sort;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(startDate, endDate, categoryIds, minAmountMinor, maxAmountMinor, notesText, sort);
+    }
+
+    /**
+     * Builder for ExpenseFilter
+     */
+    public static final class Builder {
+
+        private Date startDate;
+        private Date endDate;
+        private final SortedSet<Integer> categoryIds = new TreeSet<>();
+        private Long minAmountMinor;
+        private Long maxAmountMinor;
+        private String notesText;
+        private Sort sort = Sort.NEWEST_FIRST;
+
+        /**
+         * @param startDate Earliest date to include, or null for no lower bound
+         * @param endDate Latest date to include, or null for no upper bound
+         */
+        @NonNull
+        public Builder setDateRange(@Nullable Date startDate, @Nullable Date endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            return this;
+        }
+
+        /**
+         * @param categoryIds Ids of the categories to include, or null or empty for all categories
+         */
+        @NonNull
+        public Builder setCategoryIds(@Nullable Collection<Integer> categoryIds) {
+            this.categoryIds.clear();
+            if (categoryIds != null) {
+                this.categoryIds.addAll(categoryIds);
+            }
+            return this;
+        }
+
+        /**
+         * @param minAmountMinor Smallest amount to include in minor units, or null for no lower bound
+         * @param maxAmountMinor Largest amount to include in minor units, or null for no upper bound
+         */
+        @NonNull
+        public Builder setAmountRange(@Nullable Long minAmountMinor, @Nullable Long maxAmountMinor) {
+            this.minAmountMinor = minAmountMinor;
+            this.maxAmountMinor = maxAmountMinor;
+            return this;
+        }
+
+        /**
+         * @param notesText Words the notes or category must contain; blank text is no criterion
+         */
+        @NonNull
+        public Builder setNotesText(@Nullable String notesText) {
+            this.notesText = notesText == null || notesText.trim().isEmpty() ? null : notesText.trim();
+            return this;
+        }
+
+        @NonNull
+        public Builder setSort(@NonNull Sort sort) {
+            this.sort = sort;
+            return this;
+        }
+
+        @NonNull
+        public ExpenseFilter build() {
+            return new ExpenseFilter(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Date range and category selection for exports and backups.
+ * The filter is passed to the DAO query so only matching rows are read from the database.
+ */
+public class ExportFilter {
+
+    private final Date startDate;
+    private final Date endDate;
+    private final List<Integer> categoryIds;
+
+    /**
+     * @param startDate Earliest date to include, or null for no lower bound
+     * @param endDate Latest date to include, or null for no upper bound
+     * @param categoryIds Ids of the categories to include, or null or empty for all categories
+     */
+    public ExportFilter(@Nullable Date startDate, @Nullable Date endDate, @Nullable Collection<Integer> categoryIds) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.categoryIds = categoryIds == null || categoryIds.isEmpty()
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(categoryIds)));
+    }
+
+    /**
+     * @return A filter that matches every expense
+     */
+    @NonNull
+    public static ExportFilter all() {
+        return new ExportFilter(null, null, null);
+    }
+
+    /**
+     * @return true if the filter matches every expense and can be skipped in the query
+     */
+    public boolean isUnfiltered() {
+        return startDate == null && endDate == null && isAllCategories();
+    }
+
+    /**
+     * @return true if every category, including ones added later, is included
+     */
+    public boolean isAllCategories() {
+        return categoryIds.isEmpty();
+    }
+
+    /**
+     * @return Lower date bound for the query
+     */
+    @NonNull
+    public Date getStartDate() {
+        return startDate != null ? startDate : new Date(Long.MIN_VALUE);
+    }
+
+    /**
+     * @return Upper date bound for the query
+     */
+    @NonNull
+    public Date getEndDate() {
+        return endDate != null ? endDate : new Date(Long.MAX_VALUE);
+    }
+
+    /**
+     * @return Ids of the selected categories, empty when all categories are included
+     */
+    @NonNull
+    public List<Integer> getCategoryIds() {
+        return categoryIds;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An exact amount of money in minor units (paisa; 100 per taka).
+ * <p>
+ * Amounts are stored, summed and compared as {@code long} minor units everywhere in the data
+ * layer, so totals are exact and SQLite aggregates them with integer arithmetic. The static
+ * helpers work on raw minor units for hot paths; instances wrap a value where a type is clearer
+ * than a bare long. Format amounts for display with MoneyFormat.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Digits after the decimal point
+     */
+    public static final int MINOR_DIGITS = 2;
+
+    /**
+     * Minor units per major unit
+     */
+    public static final long MINOR_PER_MAJOR = 100;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minor;
+
+    private Money(long minor) {
+        this.minor = minor;
+    }
+
+    /**
+     * @param minor Amount in minor units
+     * @return Money of that amount
+     */
+    @NonNull
+    public static Money ofMinor(long minor) {
+        return minor == 0 ? ZERO : new Money(minor);
+    }
+
+    /**
+     * Parse a decimal amount typed by the user or read from a file, such as "1234.5"
+     * @param text Decimal amount in major units; digits beyond the minor unit are rounded half up
+     * @return Amount in minor units
+     * @throws NumberFormatException If the text is not a number or does not fit in a long
+     */
+    public static long parseMinor(@NonNull String text) {
+        try {
+            return new BigDecimal(text.trim())
+                    .movePointRight(MINOR_DIGITS)
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    /**
+     * Convert a floating-point amount, rounding to the nearest minor unit.
+     * Only for values that are already approximate, such as chart input or legacy data.
+     * @param major Amount in major units
+     * @return Amount in minor units
+     */
+    public static long toMinor(double major) {
+        return Math.round(major * MINOR_PER_MAJOR);
+    }
+
+    /**
+     * Convert to a floating-point amount, for charts and ratios only
+     * @param minor Amount in minor units
+     * @return Amount in major units
+     */
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Write an amount as a plain decimal with exactly MINOR_DIGITS fraction digits, such as
+     * "-12.05", in the form parseMinor reads back
+     * @param out Destination
+     * @param minor Amount in minor units
+     * @return out, for chaining
+     */
+    @NonNull
+    public static StringBuilder appendPlain(@NonNull StringBuilder out, long minor) {
+        long major = minor / MINOR_PER_MAJOR;
+        int fraction = (int) Math.abs(minor % MINOR_PER_MAJOR);
+        if (minor < 0 && major == 0) out.append('-');
+        out.append(major).append('.');
+        if (fraction < 10) out.append('0');
+        return out.append(fraction);
+    }
+
+    /**
+     * @param minor Amount in minor units
+     * @return Plain decimal form, see appendPlain
+     */
+    @NonNull
+    public static String toPlainString(long minor) {
+        return appendPlain(new StringBuilder(24), minor).toString();
+    }
+
+    public long getMinor() {
+        return minor;
+    }
+
+    @NonNull
+    public Money plus(@NonNull Money other) {
+        return ofMinor(Math.addExact(minor, other.minor));
+    }
+
+    @NonNull
+    public Money minus(@NonNull Money other) {
+        return ofMinor(Math.subtractExact(minor, other.minor));
+    }
+
+    public int signum() {
+        return Long.signum(minor);
+    }
+
+    @Override
+    public int compareTo(@NonNull Money other) {
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        return minor == ((Money) o).minor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minor);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return toPlainString(minor);
+    }
+}
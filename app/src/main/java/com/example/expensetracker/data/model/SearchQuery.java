@@ -0,0 +1,46 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Turns free text typed by the user into an FTS4 MATCH expression.
+ * Every word becomes a prefix term ("tax rec" matches "taxi receipt") and all words must match.
+ * Characters with a meaning in the FTS query syntax are dropped, so input can never produce
+ * a malformed query.
+ */
+public final class SearchQuery {
+
+    private SearchQuery() {
+        // Utility class
+    }
+
+    /**
+     * Build a MATCH expression from user input
+     * @param text Text typed by the user
+     * @return MATCH expression, or null if the text has no searchable words
+     */
+    @Nullable
+    public static String toMatchExpression(@Nullable String text) {
+        if (text == null) return null;
+        StringBuilder match = new StringBuilder(text.length() + 8);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                appendTerm(match, word);
+                word.setLength(0);
+            }
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    private static void appendTerm(StringBuilder match, CharSequence word) {
+        // Lower case, because upper-case AND/OR/NOT/NEAR are operators; the tokenizer folds case anyway
+        if (match.length() > 0) match.append(' ');
+        match.append(word.toString().toLowerCase(Locale.ROOT)).append('*');
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Calendar;
+
+/**
+ * Bucket size for time-series statistics. Buckets follow the default time zone, and weeks
+ * start on Monday as in ISO 8601.
+ */
+public enum TrendGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Move a calendar back to the start of the bucket containing it
+     * @param calendar Calendar to adjust in place
+     */
+    public void floor(@NonNull Calendar calendar) {
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        switch (this) {
+            case WEEK:
+                // Days since Monday (Calendar.SUNDAY is 1, MONDAY is 2)
+                int daysSinceMonday = (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+                calendar.add(Calendar.DAY_OF_MONTH, -daysSinceMonday);
+                break;
+            case MONTH:
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Move a calendar forward by one bucket
+     * @param calendar Calendar to adjust in place
+     */
+    public void advance(@NonNull Calendar calendar) {
+        switch (this) {
+            case DAY:
+                calendar.add(Calendar.DAY_OF_MONTH, 1);
+                break;
+            case WEEK:
+                calendar.add(Calendar.DAY_OF_MONTH, 7);
+                break;
+            case MONTH:
+                calendar.add(Calendar.MONTH, 1);
+                break;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.expensetracker.data.dao.ExpenseDao.TrendBucket;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Dense time series of expense totals: one slot per bucket in the range, including empty ones.
+ * Held in primitive arrays so a five-year daily series is two arrays of about 1,800 elements.
+ */
+public final class TrendSeries {
+
+    private final TrendGranularity granularity;
+    private final long[] bucketStarts;
+    private final long[] totals;
+    private final long maxTotal;
+
+    private TrendSeries(TrendGranularity granularity, long[] bucketStarts, long[] totals, long maxTotal) {
+        this.granularity = granularity;
+        this.bucketStarts = bucketStarts;
+        this.totals = totals;
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Expand the non-empty buckets returned by the DAO into a dense series, filling gaps with zero
+     * @param buckets Non-empty buckets, oldest first, as returned by ExpenseDao.getTotals
+     * @param granularity Bucket size the buckets were queried with
+     * @param startMillis Start of the range in epoch millis
+     * @param endMillis End of the range in epoch millis
+     * @return Series with one slot per bucket from the bucket containing startMillis to the one
+     *         containing endMillis
+     */
+    @NonNull
+    public static TrendSeries gapFill(@Nullable List<TrendBucket> buckets, @NonNull TrendGranularity granularity,
+                                      long startMillis, long endMillis) {
+        // Bucket boundaries from Calendar, so month lengths and DST shifts match SQLite's localtime
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(startMillis);
+        granularity.floor(calendar);
+        long first = calendar.getTimeInMillis();
+
+        int count = 0;
+        for (long t = first; t <= endMillis; t = calendar.getTimeInMillis()) {
+            count++;
+            granularity.advance(calendar);
+        }
+
+        long[] starts = new long[count];
+        calendar.setTimeInMillis(first);
+        for (int i = 0; i < count; i++) {
+            starts[i] = calendar.getTimeInMillis();
+            granularity.advance(calendar);
+        }
+
+        // Merge: both sides are sorted, so each bucket lands in the last slot starting at or before it
+        long[] totals = new long[count];
+        long max = 0;
+        if (buckets != null && count > 0) {
+            int slot = 0;
+            for (int b = 0, n = buckets.size(); b < n; b++) {
+                TrendBucket bucket = buckets.get(b);
+                if (bucket.bucketStart < starts[0]) continue;
+                while (slot + 1 < count && starts[slot + 1] <= bucket.bucketStart) slot++;
+                totals[slot] += bucket.totalMinor;
+                if (totals[slot] > max) max = totals[slot];
+            }
+        }
+        return new TrendSeries(granularity, starts, totals, max);
+    }
+
+    @NonNull
+    public TrendGranularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * @return Number of buckets in the series
+     */
+    public int size() {
+        return totals.length;
+    }
+
+    /**
+     * @param index Bucket index
+     * @return Start of the bucket in epoch millis
+     */
+    public long getBucketStart(int index) {
+        return bucketStarts[index];
+    }
+
+    /**
+     * @param index Bucket index
+     * @return Total spent in the bucket in minor units, 0 if there were no expenses
+     */
+    public long getTotalMinor(int index) {
+        return totals[index];
+    }
+
+    /**
+     * @return Largest bucket total in the series, in minor units
+     */
+    public long getMaxTotalMinor() {
+        return maxTotal;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.expensetracker.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * An immutable year and month pair, used as the key for month-scoped queries.
+ * Equal values compare equal so a repeated selection does not restart a query.
+ */
+public final class YearMonth {
+
+    private final int year;
+    private final int month;
+
+    /**
+     * @param year Year
+     * @param month Month (1-12)
+     */
+    public YearMonth(int year, int month) {
+        this.year = year;
+        this.month = month;
+    }
+
+    /**
+     * @return The current month in the default time zone
+     */
+    @NonNull
+    public static YearMonth now() {
+        Calendar calendar = Calendar.getInstance();
+        return new YearMonth(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @return Month (1-12)
+     */
+    public int getMonth() {
+        return month;
+    }
+
+    /**
+     * @return First millisecond of the month in the default time zone
+     */
+    @NonNull
+    public Date getStartDate() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month - 1, 1);
+        return calendar.getTime();
+    }
+
+    /**
+     * @return Last millisecond of the month in the default time zone
+     */
+    @NonNull
+    public Date getEndDate() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, 1);
+        return new Date(calendar.getTimeInMillis() - 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof YearMonth)) return false;
+        YearMonth other = (YearMonth) o;
+        return year == other.year && month == other.month;
+    }
+
+    @Override
+    public int hashCode() {
+        return year * 31 + month;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return year + "-" + (month < 10 ? "0" : "") + month;
+    }
+}
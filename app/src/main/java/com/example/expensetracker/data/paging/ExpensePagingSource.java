@@ -0,0 +1,133 @@
+package com.example.expensetracker.data.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.entity.Expense;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PagingSource that loads expenses with keyset pagination on (date DESC, id DESC).
+ * Each page is fetched with a seek on the last row of the previous page instead of an
+ * OFFSET, so the cost of loading a page does not grow with how far the user has scrolled.
+ */
+public class ExpensePagingSource extends ListenableFuturePagingSource<ExpensePagingSource.Key, Expense> {
+
+    private final ExpenseDao expenseDao;
+    private final ExpensesInvalidation invalidation;
+
+    /**
+     * Constructor only keeps references; the source starts watching the expenses table on its
+     * first load, which runs off the main thread, and stops when it is invalidated
+     * @param database Database instance used for invalidation tracking
+     */
+    public ExpensePagingSource(AppDatabase database) {
+        this.expenseDao = database.expenseDao();
+        this.invalidation = new ExpensesInvalidation(database, this);
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Key, Expense>> loadFuture(@NonNull LoadParams<Key> params) {
+        invalidation.start();
+        Key key = params.getKey();
+        int loadSize = params.getLoadSize();
+
+        ListenableFuture<LoadResult<Key, Expense>> result;
+        if (params instanceof LoadParams.Prepend) {
+            result = Futures.transform(
+                    expenseDao.getExpensePageBefore(key.date, key.id, loadSize),
+                    rows -> toPrependPage(rows, key, loadSize),
+                    MoreExecutors.directExecutor());
+        } else if (params instanceof LoadParams.Append) {
+            result = Futures.transform(
+                    expenseDao.getExpensePageAfter(key.date, key.id, loadSize),
+                    rows -> toAppendPage(rows, key, loadSize),
+                    MoreExecutors.directExecutor());
+        } else if (key == null) {
+            result = Futures.transform(
+                    expenseDao.getExpensePageFirst(loadSize),
+                    rows -> toAppendPage(rows, null, loadSize),
+                    MoreExecutors.directExecutor());
+        } else {
+            result = Futures.transform(
+                    expenseDao.getExpensePageFrom(key.date, key.id, loadSize),
+                    rows -> toRefreshPage(rows, loadSize),
+                    MoreExecutors.directExecutor());
+        }
+
+        return Futures.catching(
+                result,
+                Exception.class,
+                LoadResult.Error::new,
+                MoreExecutors.directExecutor());
+    }
+
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, Expense> state) {
+        Integer anchorPosition = state.getAnchorPosition();
+        if (anchorPosition == null) {
+            return null;
+        }
+        // Start half a page above the anchor, so the refreshed page is centred on it
+        int position = Math.max(0, anchorPosition - state.getConfig().pageSize / 2);
+        Expense first = state.closestItemToPosition(position);
+        return first != null ? Key.of(first) : null;
+    }
+
+    /**
+     * Build a page for an append (or the first page), where rows are already newest-first
+     */
+    private LoadResult<Key, Expense> toAppendPage(List<Expense> rows, @Nullable Key prevKey, int loadSize) {
+        Key nextKey = rows.size() < loadSize ? null : Key.of(rows.get(rows.size() - 1));
+        return new LoadResult.Page<>(rows, prevKey, nextKey);
+    }
+
+    /**
+     * Build a page for a refresh anchored at a key, which may still have newer rows before it
+     */
+    private LoadResult<Key, Expense> toRefreshPage(List<Expense> rows, int loadSize) {
+        if (rows.isEmpty()) {
+            return new LoadResult.Page<>(rows, null, null);
+        }
+        Key prevKey = Key.of(rows.get(0));
+        Key nextKey = rows.size() < loadSize ? null : Key.of(rows.get(rows.size() - 1));
+        return new LoadResult.Page<>(rows, prevKey, nextKey);
+    }
+
+    /**
+     * Build a page for a prepend; rows come back oldest-first and are reversed into list order
+     */
+    private LoadResult<Key, Expense> toPrependPage(List<Expense> rows, Key nextKey, int loadSize) {
+        Collections.reverse(rows);
+        Key prevKey = rows.size() < loadSize ? null : Key.of(rows.get(0));
+        return new LoadResult.Page<>(rows, prevKey, nextKey);
+    }
+
+    /**
+     * Position of a row in the (date DESC, id DESC) ordering
+     */
+    public static final class Key {
+        final long date;
+        final long id;
+
+        Key(long date, long id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        static Key of(Expense expense) {
+            return new Key(expense.getDate().getTime(), expense.getId());
+        }
+    }
+}
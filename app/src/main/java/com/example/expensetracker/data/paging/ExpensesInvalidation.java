@@ -0,0 +1,50 @@
+package com.example.expensetracker.data.paging;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingSource;
+import androidx.room.InvalidationTracker;
+
+import com.example.expensetracker.data.AppDatabase;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Invalidates a PagingSource when the expenses table changes. The observer is registered on
+ * the source's first load and removed when the source is invalidated.
+ */
+final class ExpensesInvalidation {
+
+    private final PagingSource<?, ?> source;
+    private final InvalidationTracker invalidationTracker;
+    private final InvalidationTracker.Observer observer = new InvalidationTracker.Observer("expenses") {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            source.invalidate();
+        }
+    };
+    private final AtomicBoolean observing = new AtomicBoolean(false);
+
+    ExpensesInvalidation(AppDatabase database, PagingSource<?, ?> source) {
+        this.source = source;
+        this.invalidationTracker = database.getInvalidationTracker();
+        source.registerInvalidatedCallback(() -> {
+            invalidationTracker.removeObserver(observer);
+            return kotlin.Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * Register the invalidation observer, once. Call from the first load: adding an observer may
+     * sync Room's triggers, which is database work, so it is kept out of the constructor.
+     */
+    void start() {
+        if (observing.compareAndSet(false, true)) {
+            invalidationTracker.addObserver(observer);
+            // Invalidated while registering: the callback may have run before the add
+            if (source.getInvalid()) {
+                invalidationTracker.removeObserver(observer);
+            }
+        }
+    }
+}
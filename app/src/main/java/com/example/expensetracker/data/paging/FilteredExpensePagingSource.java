@@ -0,0 +1,99 @@
+package com.example.expensetracker.data.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.ExpenseFilterCompiler;
+import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.ExpenseFilter;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * PagingSource over the query ExpenseFilterCompiler builds for a filter, paged with LIMIT and
+ * OFFSET. A filter can sort by amount as well as by date, so there is no single column to seek
+ * on; every sort order ends with id, which keeps the order stable between pages.
+ * <p>
+ * Keys are row offsets in the filter's order: where an append or refresh starts, and where a
+ * prepend ends.
+ */
+public class FilteredExpensePagingSource extends ListenableFuturePagingSource<Integer, Expense> {
+
+    private final ExpenseDao expenseDao;
+    private final Executor queryExecutor;
+    private final ExpenseFilterCompiler compiler;
+    private final ExpenseFilter filter;
+    private final ExpensesInvalidation invalidation;
+
+    /**
+     * @param database Database to query, also used for invalidation tracking
+     * @param compiler Compiler for the filter's query, shared so its SQL cache is reused
+     * @param filter Criteria and sort order
+     */
+    public FilteredExpensePagingSource(AppDatabase database, ExpenseFilterCompiler compiler,
+                                       ExpenseFilter filter) {
+        this.expenseDao = database.expenseDao();
+        this.queryExecutor = database.getQueryExecutor();
+        this.compiler = compiler;
+        this.filter = filter;
+        this.invalidation = new ExpensesInvalidation(database, this);
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Integer, Expense>> loadFuture(@NonNull LoadParams<Integer> params) {
+        Integer key = params.getKey();
+        int limit;
+        int offset;
+        if (params instanceof LoadParams.Prepend) {
+            limit = Math.min(key, params.getLoadSize());
+            offset = key - limit;
+        } else {
+            limit = params.getLoadSize();
+            offset = key == null ? 0 : key;
+        }
+
+        ListenableFuture<LoadResult<Integer, Expense>> result = Futures.submit(() -> {
+            invalidation.start();
+            List<Expense> rows = expenseDao.getFilteredExpensePage(compiler.compile(filter, limit, offset));
+            Integer prevKey = offset > 0 ? offset : null;
+            Integer nextKey = rows.size() < limit ? null : offset + rows.size();
+            return new LoadResult.Page<>(rows, prevKey, nextKey);
+        }, queryExecutor);
+
+        return Futures.catching(
+                result,
+                Exception.class,
+                LoadResult.Error::new,
+                MoreExecutors.directExecutor());
+    }
+
+    @Nullable
+    @Override
+    public Integer getRefreshKey(@NonNull PagingState<Integer, Expense> state) {
+        Integer anchorPosition = state.getAnchorPosition();
+        if (anchorPosition == null) {
+            return null;
+        }
+        // Without placeholders the anchor counts from the first loaded row; a page's prevKey
+        // is its own offset, so find the anchor's page and add the offset
+        int position = anchorPosition;
+        for (LoadResult.Page<Integer, Expense> page : state.getPages()) {
+            if (position < page.getData().size()) {
+                int start = page.getPrevKey() == null ? 0 : page.getPrevKey();
+                // Start half a page above the anchor, so the refreshed page is centred on it
+                return Math.max(0, start + position - state.getConfig().pageSize / 2);
+            }
+            position -= page.getData().size();
+        }
+        return null;
+    }
+}
@@ -1,18 +1,44 @@
 package com.example.expensetracker.data.repository;
 
 import android.app.Application;
-import android.os.AsyncTask;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
 import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.BatchingWriteExecutor;
+import com.example.expensetracker.data.CategoryCache;
+import com.example.expensetracker.data.ExpenseFilterCompiler;
+import com.example.expensetracker.data.budget.BudgetEvaluator;
+import com.example.expensetracker.data.dao.BudgetDao;
+import com.example.expensetracker.data.dao.CategoryDao;
 import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.entity.Budget;
+import com.example.expensetracker.data.entity.CategoryEntity;
 import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.ledger.Ledger;
+import com.example.expensetracker.data.ledger.MonthCategorySums;
+import com.example.expensetracker.data.model.BudgetStatus;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.data.model.ExpenseFilter;
+import com.example.expensetracker.data.model.ExportFilter;
+import com.example.expensetracker.data.model.SearchQuery;
+import com.example.expensetracker.data.model.TrendGranularity;
+import com.example.expensetracker.data.model.TrendSeries;
+import com.example.expensetracker.data.model.YearMonth;
 import com.example.expensetracker.data.dao.ExpenseDao.CategorySum;
+import com.example.expensetracker.data.paging.ExpensePagingSource;
+import com.example.expensetracker.data.paging.FilteredExpensePagingSource;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
-import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Repository class that abstracts access to the database.
@@ -20,17 +46,31 @@ import java.util.List;
  */
 public class ExpenseRepository {
     
+    private final AppDatabase database;
     private final ExpenseDao expenseDao;
+    private final BudgetDao budgetDao;
+    private final CategoryDao categoryDao;
+    private final BatchingWriteExecutor writeExecutor;
+    private final CategoryCache categoryCache;
+    private final Ledger ledger;
+    private final ExpenseFilterCompiler filterCompiler = new ExpenseFilterCompiler();
     private final LiveData<List<Expense>> allExpenses;
+    private final LiveData<CategoryTable> categories;
     
     /**
      * Constructor initializes the database and DAO
      * @param application Application context
      */
     public ExpenseRepository(Application application) {
-        AppDatabase database = AppDatabase.getInstance(application);
+        database = AppDatabase.getInstance(application);
         expenseDao = database.expenseDao();
+        budgetDao = database.budgetDao();
+        categoryDao = database.categoryDao();
+        writeExecutor = BatchingWriteExecutor.getInstance(database);
+        categoryCache = CategoryCache.getInstance(database);
+        ledger = Ledger.getInstance(database);
         allExpenses = expenseDao.getAllExpenses();
+        categories = Transformations.map(categoryDao.observeAll(), CategoryTable::of);
     }
     
     /**
@@ -41,6 +81,25 @@ public class ExpenseRepository {
         return allExpenses;
     }
     
+    /**
+     * Create a new keyset PagingSource over all expenses.
+     * Called by the Pager every time the previous source is invalidated.
+     * @return Fresh PagingSource
+     */
+    public ExpensePagingSource newExpensePagingSource() {
+        return new ExpensePagingSource(database);
+    }
+    
+    /**
+     * Count the expenses matching an export filter.
+     * Must be called off the main thread.
+     * @param filter Date range and categories to include
+     * @return Number of matching expenses
+     */
+    public long countExpenses(ExportFilter filter) {
+        return expenseDao.countExpenses(filter);
+    }
+    
     /**
      * Get expense by ID
      * @param id Expense ID
@@ -52,11 +111,56 @@ public class ExpenseRepository {
     
     /**
      * Get expenses by category
-     * @param category Category to filter by
+     * @param categoryId Id of the category to filter by
      * @return LiveData list of expenses in the category
      */
-    public LiveData<List<Expense>> getExpensesByCategory(String category) {
-        return expenseDao.getExpensesByCategory(category);
+    public LiveData<List<Expense>> getExpensesByCategory(int categoryId) {
+        return expenseDao.getExpensesByCategory(categoryId);
+    }
+    
+    /**
+     * Get every category, built-in and user-defined
+     * @return LiveData of the categories table, updated when a category is added or removed
+     */
+    public LiveData<CategoryTable> getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Get the current categories for turning ids into names.
+     * Must be called off the main thread; the table is cached until categories change.
+     * @return Snapshot of the categories table
+     */
+    public CategoryTable getCategoryTable() {
+        return categoryCache.get();
+    }
+    
+    /**
+     * Add a user-defined category on the write executor
+     * @param name Display name; must not be blank
+     * @return Future completing with the new category's id, or -1 if the name is taken
+     */
+    public ListenableFuture<Long> addCategory(String name) {
+        return writeExecutor.submit(() -> categoryDao.insert(new CategoryEntity(name.trim())));
+    }
+    
+    /**
+     * Delete a user-defined category on the write executor, in one transaction.
+     * Its expenses move to Category.OTHER and its budgets are removed.
+     * @param categoryId Id of the category to delete
+     * @return Future completing with the number of expenses moved, or failing for a built-in category
+     */
+    public ListenableFuture<Integer> deleteCategory(int categoryId) {
+        if (Category.fromId(categoryId) != null) {
+            return Futures.immediateFailedFuture(
+                    new IllegalArgumentException("Built-in category " + categoryId + " cannot be deleted"));
+        }
+        return writeExecutor.submit(() -> {
+            int moved = expenseDao.reassignCategory(categoryId, Category.OTHER.getId());
+            budgetDao.deleteForCategory(categoryId);
+            categoryDao.delete(categoryId);
+            return moved;
+        });
     }
     
     /**
@@ -70,139 +174,195 @@ public class ExpenseRepository {
     }
     
     /**
-     * Get the sum of expenses for a specific month
+     * Get expenses for a specific month
+     * @param year Year
+     * @param month Month (1-12)
+     * @return LiveData list of expenses in the month
+     */
+    public LiveData<List<Expense>> getMonthlyExpenses(int year, int month) {
+        YearMonth ym = new YearMonth(year, month);
+        return expenseDao.getExpensesBetweenDates(ym.getStartDate(), ym.getEndDate());
+    }
+    
+    /**
+     * Search expenses by notes and category
+     * @param text Text typed by the user; every word is matched as a prefix
+     * @param limit Maximum number of results
+     * @return LiveData list of matching expenses, best match first; empty if the text has no words
+     */
+    public LiveData<List<Expense>> searchExpenses(String text, int limit) {
+        String match = SearchQuery.toMatchExpression(text);
+        if (match == null) {
+            return new MutableLiveData<>(Collections.emptyList());
+        }
+        return expenseDao.searchExpenses(match, limit);
+    }
+    
+    /**
+     * Create a new PagingSource over the expenses matching a filter, with every criterion
+     * applied in one SQL query
+     * @param filter Criteria and sort order
+     * @return Fresh PagingSource, in the filter's order
+     */
+    public FilteredExpensePagingSource newFilteredPagingSource(ExpenseFilter filter) {
+        return new FilteredExpensePagingSource(database, filterCompiler, filter);
+    }
+    
+    /**
+     * Get the sum of expenses for a specific month, computed from the in-memory ledger
      * @param year Year
      * @param month Month (1-12)
-     * @return LiveData containing the sum
+     * @return LiveData containing the sum in minor units, null if there are no expenses
      */
-    public LiveData<Double> getMonthlyExpenseSum(int year, int month) {
-        System.out.println("DEBUG: ExpenseRepository.getMonthlyExpenseSum called for year: " + year + ", month: " + month);
-        Date[] dates = getMonthStartAndEndDates(year, month);
-        System.out.println("DEBUG: Date range for expense sum: " + dates[0] + " to " + dates[1]);
-        
-        LiveData<Double> result = expenseDao.getMonthlyExpenseSum(dates[0], dates[1]);
-        System.out.println("DEBUG: Returning LiveData for monthly expense sum");
-        return result;
+    public LiveData<Long> getMonthlyExpenseSum(int year, int month) {
+        YearMonth ym = new YearMonth(year, month);
+        long start = ym.getStartDate().getTime();
+        long end = ym.getEndDate().getTime();
+        return Transformations.distinctUntilChanged(Transformations.map(ledger.getSnapshot(),
+                snapshot -> snapshot.countBetween(start, end) > 0 ? snapshot.sumBetween(start, end) : null));
     }
     
     /**
-     * Get the sum of expenses for each category in a specific month
+     * Get the sum of expenses for each category in a specific month, computed from the
+     * in-memory ledger
      * @param year Year
      * @param month Month (1-12)
-     * @return LiveData list of category sums
+     * @return LiveData list of category sums, sorted by category name
      */
     public LiveData<List<CategorySum>> getMonthlyCategorySums(int year, int month) {
-        System.out.println("DEBUG: ExpenseRepository.getMonthlyCategorySums called for year: " + year + ", month: " + month);
-        Date[] dates = getMonthStartAndEndDates(year, month);
-        System.out.println("DEBUG: Date range for category sums: " + dates[0] + " to " + dates[1]);
-        
-        LiveData<List<CategorySum>> result = expenseDao.getMonthlyCategorySums(dates[0], dates[1]);
-        System.out.println("DEBUG: Returning LiveData for monthly category sums");
-        return result;
+        return new MonthCategorySums(new YearMonth(year, month), ledger.getSnapshot(), categories);
+    }
+    
+    /**
+     * Get a dense time series of expense totals. Buckets are computed in SQL; empty buckets are
+     * filled in on the given executor so the main thread only receives the finished series.
+     * @param granularity Bucket size
+     * @param startMillis Start of the range in epoch millis
+     * @param endMillis End of the range in epoch millis
+     * @param executor Single-threaded executor for gap filling, so results stay in order
+     * @return LiveData of the series, updated when expenses change
+     */
+    public LiveData<TrendSeries> getTrend(TrendGranularity granularity, long startMillis, long endMillis,
+                                          Executor executor) {
+        MediatorLiveData<TrendSeries> trend = new MediatorLiveData<>();
+        trend.addSource(expenseDao.getTotals(granularity, startMillis, endMillis), buckets ->
+                executor.execute(() -> trend.postValue(
+                        TrendSeries.gapFill(buckets, granularity, startMillis, endMillis))));
+        return trend;
     }
     
     /**
-     * Insert a new expense
+     * Get budget against spending for a month, updated incrementally as expenses
+     * and budgets change
+     * @param month Month to evaluate
+     * @return LiveData of the month's budget status
+     */
+    public LiveData<BudgetStatus> getBudgetStatus(YearMonth month) {
+        return new BudgetEvaluator(month,
+                new MonthCategorySums(month, ledger.getSnapshot(), categories),
+                budgetDao.getBudgetsForMonth(month.getYear(), month.getMonth()));
+    }
+    
+    /**
+     * Set the budget for a month and category on the write executor
+     * @param month Month the budget applies to
+     * @param categoryId Category id, or Budget.OVERALL for the whole month
+     * @param amountMinor Budget amount in minor units
+     * @return Future completing when the budget is stored
+     */
+    public ListenableFuture<Void> setBudget(YearMonth month, int categoryId, long amountMinor) {
+        return writeExecutor.submit(() -> {
+            budgetDao.upsert(new Budget(month.getYear(), month.getMonth(), categoryId, amountMinor));
+            return null;
+        });
+    }
+    
+    /**
+     * Remove the budget for a month and category on the write executor
+     * @param month Month the budget applies to
+     * @param categoryId Category id, or Budget.OVERALL for the whole month
+     * @return Future completing with the number of budgets removed
+     */
+    public ListenableFuture<Integer> clearBudget(YearMonth month, int categoryId) {
+        return writeExecutor.submit(() -> budgetDao.delete(month.getYear(), month.getMonth(), categoryId));
+    }
+    
+    /**
+     * Insert a new expense on the write executor
      * @param expense Expense to insert
-     * @return ID of the inserted expense
-     */
-    public long insert(Expense expense) {
-        try {
-            return new InsertExpenseAsyncTask(expenseDao).execute(expense).get();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return -1; // Return -1 to indicate error
-        }
+     * @return Future completing with the ID of the inserted expense
+     */
+    public ListenableFuture<Long> insert(Expense expense) {
+        return writeExecutor.submit(() -> expenseDao.insert(expense));
     }
     
     /**
-     * Update an existing expense
+     * Update an existing expense on the write executor
      * @param expense Expense to update
+     * @return Future completing when the update is committed
      */
-    public void update(Expense expense) {
-        new UpdateExpenseAsyncTask(expenseDao).execute(expense);
+    public ListenableFuture<Void> update(Expense expense) {
+        return writeExecutor.submit(() -> {
+            expenseDao.update(expense);
+            return null;
+        });
     }
     
     /**
-     * Delete an expense
+     * Delete an expense on the write executor
      * @param expense Expense to delete
+     * @return Future completing when the delete is committed
      */
-    public void delete(Expense expense) {
-        new DeleteExpenseAsyncTask(expenseDao).execute(expense);
+    public ListenableFuture<Void> delete(Expense expense) {
+        return writeExecutor.submit(() -> {
+            expenseDao.delete(expense);
+            return null;
+        });
     }
     
     /**
-     * Helper method to get start and end dates for a month
-     * @param year Year
-     * @param month Month (1-12)
-     * @return Array with start date at index 0 and end date at index 1
-     */
-    private Date[] getMonthStartAndEndDates(int year, int month) {
-        Calendar calendar = Calendar.getInstance();
-        
-        // Set to first day of month
-        calendar.set(year, month - 1, 1, 0, 0, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        Date startDate = calendar.getTime();
-        
-        // Set to last day of month
-        calendar.set(Calendar.DAY_OF_MONTH, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.MINUTE, 59);
-        calendar.set(Calendar.SECOND, 59);
-        calendar.set(Calendar.MILLISECOND, 999);
-        Date endDate = calendar.getTime();
-        
-        return new Date[]{startDate, endDate};
-    }
-    
-    /**
-     * AsyncTask for inserting expenses
-     */
-    private static class InsertExpenseAsyncTask extends AsyncTask<Expense, Void, Long> {
-        private final ExpenseDao expenseDao;
-        
-        private InsertExpenseAsyncTask(ExpenseDao expenseDao) {
-            this.expenseDao = expenseDao;
-        }
-        
-        @Override
-        protected Long doInBackground(Expense... expenses) {
-            return expenseDao.insert(expenses[0]);
-        }
+     * Insert a batch of expenses (for example an import) in a single transaction
+     * @param expenses Expenses to insert
+     * @return Future completing with the IDs of the inserted expenses
+     */
+    public ListenableFuture<long[]> insertAll(List<Expense> expenses) {
+        return writeExecutor.submit(() -> expenseDao.insertAll(expenses));
     }
     
     /**
-     * AsyncTask for updating expenses
+     * Delete the expenses with the given IDs in a single transaction
+     * @param ids IDs of the expenses to delete
+     * @return Future completing with the number of rows deleted
      */
-    private static class UpdateExpenseAsyncTask extends AsyncTask<Expense, Void, Void> {
-        private final ExpenseDao expenseDao;
-        
-        private UpdateExpenseAsyncTask(ExpenseDao expenseDao) {
-            this.expenseDao = expenseDao;
-        }
-        
-        @Override
-        protected Void doInBackground(Expense... expenses) {
-            expenseDao.update(expenses[0]);
-            return null;
-        }
+    public ListenableFuture<Integer> deleteByIds(long[] ids) {
+        return writeExecutor.submit(() -> expenseDao.deleteByIds(ids));
     }
     
     /**
-     * AsyncTask for deleting expenses
+     * Delete all expenses between two dates (inclusive) in a single transaction
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Future completing with the number of rows deleted
      */
-    private static class DeleteExpenseAsyncTask extends AsyncTask<Expense, Void, Void> {
-        private final ExpenseDao expenseDao;
-        
-        private DeleteExpenseAsyncTask(ExpenseDao expenseDao) {
-            this.expenseDao = expenseDao;
-        }
-        
-        @Override
-        protected Void doInBackground(Expense... expenses) {
-            expenseDao.delete(expenses[0]);
-            return null;
-        }
+    public ListenableFuture<Integer> deleteBetweenDates(Date startDate, Date endDate) {
+        return writeExecutor.submit(() -> expenseDao.deleteBetweenDates(startDate, endDate));
+    }
+    
+    /**
+     * Move every expense in one category to another in a single transaction
+     * @param fromCategoryId Id of the category to move expenses out of
+     * @param toCategoryId Id of the category to move expenses into
+     * @return Future completing with the number of rows updated
+     */
+    public ListenableFuture<Integer> reassignCategory(int fromCategoryId, int toCategoryId) {
+        return writeExecutor.submit(() -> expenseDao.reassignCategory(fromCategoryId, toCategoryId));
+    }
+    
+    /**
+     * Get the write executor, for queue depth and batch size metrics
+     * @return The shared write executor
+     */
+    public BatchingWriteExecutor getWriteExecutor() {
+        return writeExecutor;
     }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.example.expensetracker.ui;
 import android.os.Bundle;
 
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 import androidx.navigation.fragment.NavHostFragment;
@@ -11,7 +10,7 @@ import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
 import com.example.expensetracker.R;
-import com.example.expensetracker.viewmodel.ExpenseViewModel;
+import com.example.expensetracker.util.StartupTimeline;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
@@ -21,16 +20,16 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
  */
 public class MainActivity extends AppCompatActivity {
 
-    private ExpenseViewModel expenseViewModel;
     private NavController navController;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        StartupTimeline.markFirstFrame(getWindow().getDecorView());
 
-        // Set up ViewModel
-        expenseViewModel = new ViewModelProvider(this).get(ExpenseViewModel.class);
+        // The ViewModel is created by the first fragment that needs it, and its queries attach
+        // as fragments observe them, so nothing here waits for the database
 
         // Set up Toolbar
         setSupportActionBar(findViewById(R.id.toolbar));
@@ -7,28 +7,49 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.expensetracker.R;
 import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.ui.model.ExpenseRow;
 import com.google.android.material.card.MaterialCardView;
 
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
-import java.util.Locale;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+
+import kotlinx.coroutines.CoroutineDispatcher;
+import kotlinx.coroutines.Dispatchers;
+import kotlinx.coroutines.ExecutorsKt;
 
 /**
  * Adapter for displaying expenses in a RecyclerView using Material Design 3 components.
- * Uses ListAdapter for efficient updates with DiffUtil.
+ * Uses PagingDataAdapter so only the pages around the viewport are held and diffed.
+ * Diffs run on a dedicated background thread, and edited rows are rebound with a payload
+ * naming the changed fields so only those TextViews are updated.
+ * Rows arrive as preformatted ExpenseRow models, so binding does no formatting.
  */
-public class ExpenseAdapter extends ListAdapter<Expense, ExpenseAdapter.ExpenseViewHolder> {
+public class ExpenseAdapter extends PagingDataAdapter<ExpenseRow, ExpenseAdapter.ExpenseViewHolder> {
+    
+    /**
+     * Bit flags for the fields that changed, passed as the change payload
+     */
+    private static final int CHANGED_AMOUNT = 1;
+    private static final int CHANGED_CATEGORY = 1 << 1;
+    private static final int CHANGED_DATE = 1 << 2;
+    private static final int CHANGED_NOTES = 1 << 3;
+    
+    /**
+     * Shared by all adapter instances so diffs never compete with Room's query threads
+     */
+    private static final CoroutineDispatcher DIFF_DISPATCHER = ExecutorsKt.from(
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "expense-diff")));
     
     private final Context context;
     private final OnItemClickListener listener;
-    private final SimpleDateFormat dateFormat;
-    private final NumberFormat currencyFormat;
     
     /**
      * Interface for handling item clicks and actions
@@ -45,32 +66,45 @@ public class ExpenseAdapter extends ListAdapter<Expense, ExpenseAdapter.ExpenseV
      * @param listener Click listener for items
      */
     public ExpenseAdapter(Context context, OnItemClickListener listener) {
-        super(DIFF_CALLBACK);
+        super(DIFF_CALLBACK, Dispatchers.getMain(), DIFF_DISPATCHER);
         this.context = context;
         this.listener = listener;
-        this.dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-        this.currencyFormat = NumberFormat.getCurrencyInstance(new Locale("bn", "BD"));
     }
     
     /**
      * DiffUtil callback for efficient updates
      */
-    private static final DiffUtil.ItemCallback<Expense> DIFF_CALLBACK = new DiffUtil.ItemCallback<Expense>() {
+    private static final DiffUtil.ItemCallback<ExpenseRow> DIFF_CALLBACK = new DiffUtil.ItemCallback<ExpenseRow>() {
         @Override
-        public boolean areItemsTheSame(@NonNull Expense oldItem, @NonNull Expense newItem) {
+        public boolean areItemsTheSame(@NonNull ExpenseRow oldItem, @NonNull ExpenseRow newItem) {
             return oldItem.getId() == newItem.getId();
         }
         
         @Override
-        public boolean areContentsTheSame(@NonNull Expense oldItem, @NonNull Expense newItem) {
-            return oldItem.getAmount() == newItem.getAmount() &&
-                   oldItem.getCategory().equals(newItem.getCategory()) &&
-                   oldItem.getDate().equals(newItem.getDate()) &&
-                   (oldItem.getNotes() == null ? newItem.getNotes() == null : 
-                    oldItem.getNotes().equals(newItem.getNotes()));
+        public boolean areContentsTheSame(@NonNull ExpenseRow oldItem, @NonNull ExpenseRow newItem) {
+            return oldItem == newItem || changedFields(oldItem, newItem) == 0;
+        }
+        
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull ExpenseRow oldItem, @NonNull ExpenseRow newItem) {
+            return changedFields(oldItem, newItem);
         }
     };
     
+    /**
+     * Compare two versions of a row field by field
+     * @return Bit flags of the fields that differ, 0 if none
+     */
+    private static int changedFields(ExpenseRow oldItem, ExpenseRow newItem) {
+        int changed = 0;
+        if (oldItem.getExpense().getAmountMinor() != newItem.getExpense().getAmountMinor()) changed |= CHANGED_AMOUNT;
+        if (!oldItem.getCategory().equals(newItem.getCategory())) changed |= CHANGED_CATEGORY;
+        if (!oldItem.getDateText().equals(newItem.getDateText())) changed |= CHANGED_DATE;
+        if (!Objects.equals(oldItem.getNotes(), newItem.getNotes())) changed |= CHANGED_NOTES;
+        return changed;
+    }
+    
     @NonNull
     @Override
     public ExpenseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -81,18 +115,49 @@ public class ExpenseAdapter extends ListAdapter<Expense, ExpenseAdapter.ExpenseV
     
     @Override
     public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position) {
-        Expense currentExpense = getItem(position);
+        bind(holder, getItem(position), CHANGED_AMOUNT | CHANGED_CATEGORY | CHANGED_DATE | CHANGED_NOTES);
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        
+        // Several edits may be merged into one rebind
+        int changed = 0;
+        for (Object payload : payloads) {
+            if (payload instanceof Integer) {
+                changed |= (Integer) payload;
+            }
+        }
+        bind(holder, getItem(position), changed);
+    }
+    
+    /**
+     * Bind the given fields of a row
+     * @param fields Bit flags of the fields to bind
+     */
+    private void bind(ExpenseViewHolder holder, @Nullable ExpenseRow row, int fields) {
+        if (row == null) {
+            return;
+        }
         
-        holder.textViewAmount.setText(currencyFormat.format(currentExpense.getAmount()));
-        holder.textViewCategory.setText(currentExpense.getCategory());
-        holder.textViewDate.setText(dateFormat.format(currentExpense.getDate()));
+        if ((fields & CHANGED_AMOUNT) != 0) {
+            holder.textViewAmount.setText(row.getAmountText());
+        }
+        if ((fields & CHANGED_CATEGORY) != 0) {
+            holder.textViewCategory.setText(row.getCategory());
+        }
+        if ((fields & CHANGED_DATE) != 0) {
+            holder.textViewDate.setText(row.getDateText());
+        }
         
         // Set notes if available, otherwise hide the notes TextView
-        if (currentExpense.getNotes() != null && !currentExpense.getNotes().isEmpty()) {
-            holder.textViewNotes.setText(currentExpense.getNotes());
-            holder.textViewNotes.setVisibility(View.VISIBLE);
-        } else {
-            holder.textViewNotes.setVisibility(View.GONE);
+        if ((fields & CHANGED_NOTES) != 0) {
+            holder.textViewNotes.setText(row.getNotes());
+            holder.textViewNotes.setVisibility(row.getNotesVisibility());
         }
         
         // Set card color based on category (could be customized per category)
@@ -121,7 +186,10 @@ public class ExpenseAdapter extends ListAdapter<Expense, ExpenseAdapter.ExpenseV
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (listener != null && position != RecyclerView.NO_POSITION) {
-                    listener.onItemClick(getItem(position));
+                    ExpenseRow row = getItem(position);
+                    if (row != null) {
+                        listener.onItemClick(row.getExpense());
+                    }
                 }
             });
             
@@ -129,7 +197,10 @@ public class ExpenseAdapter extends ListAdapter<Expense, ExpenseAdapter.ExpenseV
             itemView.findViewById(R.id.button_edit).setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (listener != null && position != RecyclerView.NO_POSITION) {
-                    listener.onEditClick(getItem(position));
+                    ExpenseRow row = getItem(position);
+                    if (row != null) {
+                        listener.onEditClick(row.getExpense());
+                    }
                 }
             });
             
@@ -137,7 +208,10 @@ public class ExpenseAdapter extends ListAdapter<Expense, ExpenseAdapter.ExpenseV
             itemView.findViewById(R.id.button_delete).setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (listener != null && position != RecyclerView.NO_POSITION) {
-                    listener.onDeleteClick(getItem(position));
+                    ExpenseRow row = getItem(position);
+                    if (row != null) {
+                        listener.onDeleteClick(row.getExpense());
+                    }
                 }
             });
         }
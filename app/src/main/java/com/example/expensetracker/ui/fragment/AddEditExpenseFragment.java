@@ -12,6 +12,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
@@ -19,8 +20,15 @@ import androidx.navigation.Navigation;
 import com.example.expensetracker.R;
 import com.example.expensetracker.data.entity.Expense;
 import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.data.model.Money;
 import com.example.expensetracker.viewmodel.ExpenseViewModel;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 
 /**
@@ -32,7 +40,12 @@ public class AddEditExpenseFragment extends Fragment {
     private EditText editTextAmount;
     private EditText editTextDescription;
     private Spinner spinnerCategory;
+    private ArrayAdapter<String> categoryAdapter;
+    private CategoryTable categoryTable = CategoryTable.BUILT_IN;
+    private int selectedCategoryId = Category.FOOD.getId();
     private long expenseId = -1;
+    private Expense loadedExpense;
+    private Button saveButton;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -56,36 +69,32 @@ public class AddEditExpenseFragment extends Fragment {
         editTextDescription = view.findViewById(R.id.edit_text_description);
         spinnerCategory = view.findViewById(R.id.spinner_category);
         
-        // Set up category spinner
-        ArrayAdapter<String> categoryAdapter = new ArrayAdapter<>(
+        // Set up category spinner; user-defined categories are added when the table loads
+        categoryAdapter = new ArrayAdapter<>(
                 requireContext(),
                 android.R.layout.simple_spinner_item,
-                Category.getAllDisplayNames());
+                new ArrayList<>(Arrays.asList(categoryTable.getNames())));
         categoryAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         spinnerCategory.setAdapter(categoryAdapter);
+        expenseViewModel.getCategories().observe(getViewLifecycleOwner(), this::showCategories);
         
         // If editing an existing expense, load its data
         if (expenseId != -1L) {
             // Load expense data from ViewModel
             expenseViewModel.getExpenseById(expenseId).observe(getViewLifecycleOwner(), expense -> {
                 if (expense != null) {
-                    editTextAmount.setText(String.valueOf(expense.getAmount()));
+                    loadedExpense = expense;
+                    editTextAmount.setText(Money.toPlainString(expense.getAmountMinor()));
                     editTextDescription.setText(expense.getNotes());
                     
                     // Set spinner selection based on category
-                    String categoryName = expense.getCategory();
-                    for (int i = 0; i < categoryAdapter.getCount(); i++) {
-                        if (categoryAdapter.getItem(i).equals(categoryName)) {
-                            spinnerCategory.setSelection(i);
-                            break;
-                        }
-                    }
+                    selectCategory(expense.getCategoryId());
                 }
             });
         }
         
         // Set up save button
-        Button saveButton = view.findViewById(R.id.button_save);
+        saveButton = view.findViewById(R.id.button_save);
         if (saveButton != null) {
             saveButton.setOnClickListener(v -> saveExpense());
         }
@@ -93,11 +102,31 @@ public class AddEditExpenseFragment extends Fragment {
         return view;
     }
     
+    private void showCategories(CategoryTable table) {
+        // Keep the selection across the reload, unless it is waiting for a category the old table lacked
+        int position = spinnerCategory.getSelectedItemPosition();
+        if (categoryTable.positionOf(selectedCategoryId) >= 0 && position >= 0 && position < categoryTable.size()) {
+            selectedCategoryId = categoryTable.getId(position);
+        }
+        categoryTable = table;
+        categoryAdapter.clear();
+        categoryAdapter.addAll(table.getNames());
+        selectCategory(selectedCategoryId);
+    }
+    
+    private void selectCategory(int categoryId) {
+        selectedCategoryId = categoryId;
+        int position = categoryTable.positionOf(categoryId);
+        if (position >= 0) {
+            spinnerCategory.setSelection(position);
+        }
+    }
+    
     private void saveExpense() {
         // Validate inputs
         String amountStr = editTextAmount.getText().toString().trim();
         String description = editTextDescription.getText().toString().trim();
-        String categoryStr = spinnerCategory.getSelectedItem().toString();
+        int categoryId = categoryTable.getId(spinnerCategory.getSelectedItemPosition());
         
         if (amountStr.isEmpty()) {
             editTextAmount.setError("Please enter an amount");
@@ -105,32 +134,54 @@ public class AddEditExpenseFragment extends Fragment {
         }
         
         try {
-            double amount = Double.parseDouble(amountStr);
+            long amountMinor = Money.parseMinor(amountStr);
             
             // Create or update expense
             if (expenseId == -1L) {
                 // Create new expense
-                Expense newExpense = new Expense(amount, categoryStr, new Date(), description);
-                expenseViewModel.insert(newExpense);
-                Toast.makeText(requireContext(), "Expense added", Toast.LENGTH_SHORT).show();
+                Expense newExpense = new Expense(amountMinor, categoryId, new Date(), description);
+                finishWhenSaved(expenseViewModel.insert(newExpense), "Expense added", "Failed to add expense");
             } else {
-                // Update existing expense
-                expenseViewModel.getExpenseById(expenseId).observe(getViewLifecycleOwner(), expense -> {
-                    if (expense != null) {
-                        expense.setAmount(amount);
-                        expense.setCategory(categoryStr);
-                        expense.setNotes(description);
-                        expenseViewModel.update(expense);
-                    }
-                });
-                Toast.makeText(requireContext(), "Expense updated", Toast.LENGTH_SHORT).show();
+                // Update the expense the form was filled from, keeping its date
+                if (loadedExpense == null) {
+                    Toast.makeText(requireContext(), "Expense is still loading", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                Expense expense = loadedExpense;
+                expense.setAmountMinor(amountMinor);
+                expense.setCategoryId(categoryId);
+                expense.setNotes(description);
+                finishWhenSaved(expenseViewModel.update(expense), "Expense updated", "Failed to update expense");
             }
             
-            // Navigate back
-            Navigation.findNavController(requireView()).navigateUp();
-            
         } catch (NumberFormatException e) {
             editTextAmount.setError("Please enter a valid amount");
         }
     }
+    
+    /**
+     * Navigate back once the write is committed, or stay on the form if it failed
+     * @param write Future for the insert or update
+     * @param successMessage Shown once the write is committed
+     * @param failureMessage Shown if the write failed
+     */
+    private void finishWhenSaved(ListenableFuture<?> write, String successMessage, String failureMessage) {
+        // Only one save at a time
+        saveButton.setEnabled(false);
+        Futures.addCallback(write, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(Object result) {
+                if (!isAdded() || getView() == null) return;
+                Toast.makeText(requireContext(), successMessage, Toast.LENGTH_SHORT).show();
+                Navigation.findNavController(requireView()).navigateUp();
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                if (!isAdded() || getView() == null) return;
+                saveButton.setEnabled(true);
+                Toast.makeText(requireContext(), failureMessage, Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(requireContext()));
+    }
 }
\ No newline at end of file
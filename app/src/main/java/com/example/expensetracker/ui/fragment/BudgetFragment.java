@@ -7,20 +7,26 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
 
+import androidx.annotation.ColorRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.expensetracker.R;
+import com.example.expensetracker.data.model.Money;
+import com.example.expensetracker.ui.model.BudgetUiState;
+import com.example.expensetracker.util.MoneyFormat;
+import com.example.expensetracker.util.Tracer;
 import com.example.expensetracker.viewmodel.ExpenseViewModel;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.slider.Slider;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 
-import java.text.NumberFormat;
-import java.util.Locale;
 
 /**
  * Fragment for setting and tracking monthly budget.
@@ -28,6 +34,8 @@ import java.util.Locale;
  */
 public class BudgetFragment extends Fragment {
 
+    private static final String TAG = "BudgetFragment";
+
     private ExpenseViewModel expenseViewModel;
     private TextInputLayout textInputLayoutBudget;
     private TextInputEditText editTextBudget;
@@ -35,7 +43,7 @@ public class BudgetFragment extends Fragment {
     private TextView textViewCurrentBudget;
     private TextView textViewCurrentSpending;
     private LinearProgressIndicator progressIndicator;
-    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("bn", "BD"));
+    private final MoneyFormat moneyFormat = new MoneyFormat();
 
     @Nullable
     @Override
@@ -61,75 +69,37 @@ public class BudgetFragment extends Fragment {
         // Set up budget save button
         buttonSaveBudget.setOnClickListener(v -> saveBudget());
 
-        System.out.println("DEBUG: Setting up LiveData observers");
-        
-        // Observe budget and expenses together to ensure consistent updates
-        expenseViewModel.getMonthlyBudget().observe(getViewLifecycleOwner(), budget -> {
-            System.out.println("DEBUG: Budget LiveData updated: " + budget);
-            if (textViewCurrentBudget != null) {
-                textViewCurrentBudget.setText(currencyFormat.format(budget));
-                System.out.println("DEBUG: Updated textViewCurrentBudget");
-            } else {
-                System.out.println("DEBUG: textViewCurrentBudget is null");
-            }
-            updateBudgetUI();
-        });
-
-        // Observe current month expenses
-        expenseViewModel.getCurrentMonthExpenseSum().observe(getViewLifecycleOwner(), sum -> {
-            double expenseSum = sum != null ? sum : 0.0;
-            System.out.println("DEBUG: Expense sum LiveData updated: " + expenseSum);
-            if (textViewCurrentSpending != null) {
-                textViewCurrentSpending.setText(currencyFormat.format(expenseSum));
-                System.out.println("DEBUG: Updated textViewCurrentSpending");
-            } else {
-                System.out.println("DEBUG: textViewCurrentSpending is null");
-            }
-            updateBudgetUI();
-        });
-        
-        // Observe all expenses to ensure UI updates when expenses are added or removed
-        expenseViewModel.getAllExpenses().observe(getViewLifecycleOwner(), expenses -> {
-            System.out.println("DEBUG: All expenses LiveData updated with " + (expenses != null ? expenses.size() : 0) + " items");
-            // This will trigger a UI update whenever any expense is added, updated, or removed
-            updateBudgetUI();
-        });
-        
-        // Force initial UI update
-        System.out.println("DEBUG: Forcing initial UI update");
-        updateBudgetUI();
+        // Render one combined state; it only emits when the budget or spending changes
+        expenseViewModel.getBudgetUiState().observe(getViewLifecycleOwner(), this::render);
     }
-    
+
     /**
-     * Update the budget UI with the latest data
+     * Render the budget state
+     * @param state Budget and spending for the selected month
      */
-    private void updateBudgetUI() {
-        System.out.println("DEBUG: updateBudgetUI called");
-        
-        Double budget = expenseViewModel.getMonthlyBudget().getValue();
-        Double expenseSum = expenseViewModel.getCurrentMonthExpenseSum().getValue();
-        
-        System.out.println("DEBUG: updateBudgetUI - budget: " + budget + ", expenseSum: " + expenseSum);
-        
-        if (budget != null && expenseSum != null) {
-            System.out.println("DEBUG: updateBudgetUI - calling updateBudgetProgress");
-            updateBudgetProgress(budget, expenseSum);
-        } else {
-            System.out.println("DEBUG: updateBudgetUI - NOT calling updateBudgetProgress because " + 
-                              (budget == null ? "budget is null" : "") + 
-                              (expenseSum == null ? "expenseSum is null" : ""));
-            
-            // Force update with default values if data is missing
-            if (budget == null && expenseSum != null) {
-                System.out.println("DEBUG: updateBudgetUI - forcing update with default budget");
-                updateBudgetProgress(1000.0, expenseSum); // Use default budget
-            } else if (budget != null && expenseSum == null) {
-                System.out.println("DEBUG: updateBudgetUI - forcing update with zero expenses");
-                updateBudgetProgress(budget, 0.0); // Use zero expenses
-            } else if (budget == null && expenseSum == null) {
-                System.out.println("DEBUG: updateBudgetUI - forcing update with default values");
-                updateBudgetProgress(1000.0, 0.0); // Use default values
-            }
+    private void render(@NonNull BudgetUiState state) {
+        Tracer.beginSection("BudgetFragment.render");
+        try {
+            textViewCurrentBudget.setText(moneyFormat.format(state.getBudget()));
+            textViewCurrentSpending.setText(moneyFormat.format(state.getSpent()));
+            progressIndicator.setProgress(state.getProgressPercent());
+            progressIndicator.setIndicatorColor(
+                    ContextCompat.getColor(requireContext(), colorFor(state.getLevel())));
+            Tracer.counter("budget.progressPercent", state.getProgressPercent());
+        } finally {
+            Tracer.endSection();
+        }
+    }
+
+    @ColorRes
+    private static int colorFor(BudgetUiState.Level level) {
+        switch (level) {
+            case EXCEEDED:
+                return R.color.budget_exceeded;
+            case WARNING:
+                return R.color.budget_warning;
+            default:
+                return R.color.budget_good;
         }
     }
 
@@ -138,159 +108,40 @@ public class BudgetFragment extends Fragment {
      * Sets the new budget amount directly (not adding to existing budget)
      */
     private void saveBudget() {
-        System.out.println("DEBUG: saveBudget method called");
         String budgetStr = editTextBudget.getText() != null ? editTextBudget.getText().toString() : "";
-        System.out.println("DEBUG: Budget input string: '" + budgetStr + "'");
         
         if (budgetStr.isEmpty()) {
-            System.out.println("DEBUG: Budget string is empty");
             textInputLayoutBudget.setError(getString(R.string.error_empty_budget));
             return;
         }
         
         try {
-            double newBudgetAmount = Double.parseDouble(budgetStr);
-            System.out.println("DEBUG: Parsed budget amount: " + newBudgetAmount);
+            long newBudgetMinor = Money.parseMinor(budgetStr);
             
-            if (newBudgetAmount <= 0) {
-                System.out.println("DEBUG: Budget amount is negative or zero");
+            if (newBudgetMinor <= 0) {
                 textInputLayoutBudget.setError(getString(R.string.error_negative_budget));
                 return;
             }
             
-            // Set the new budget amount directly (not adding to existing budget)
-            System.out.println("DEBUG: Setting new budget amount in ViewModel: " + newBudgetAmount);
-            expenseViewModel.setMonthlyBudget(newBudgetAmount);
+            // Set the new budget amount directly (not adding to existing budget);
+            // the stored budget flows back through getBudgetUiState
             textInputLayoutBudget.setError(null);
-            editTextBudget.setText("");
-            
-            // Update the budget progress with the new budget value
-            System.out.println("DEBUG: Calling updateBudgetProgress with new budget");
-            updateBudgetProgress(newBudgetAmount);
-            
-            // Force UI refresh
-            System.out.println("DEBUG: Forcing UI refresh after budget save");
-            if (getView() != null) {
-                getView().post(() -> {
-                    updateBudgetUI();
-                    System.out.println("DEBUG: Post-save UI update complete");
-                });
-            }
-        } catch (NumberFormatException e) {
-            System.out.println("DEBUG: Number format exception: " + e.getMessage());
-            textInputLayoutBudget.setError(getString(R.string.error_invalid_number));
-        }
-    }
+            Futures.addCallback(expenseViewModel.setMonthlyBudget(newBudgetMinor), new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                    if (!isAdded() || getView() == null) return;
+                    editTextBudget.setText("");
+                }
 
-    /**
-     * Update the budget progress indicator and remaining amount
-     * @param budget The current budget amount
-     */
-    private void updateBudgetProgress(Double budget) {
-        if (budget == null || budget <= 0) {
-            System.out.println("DEBUG: Invalid budget value: " + budget);
-            return;
-        }
-        
-        // Get the latest expense sum from view model
-        Double expenseSum = expenseViewModel.getCurrentMonthExpenseSum().getValue();
-        double spent = expenseSum != null ? expenseSum : 0.0;
-        
-        // Use the overloaded method with both parameters
-        updateBudgetProgress(budget, spent);
-    }
-    
-    /**
-     * Update the budget progress indicator and remaining amount with specified expense sum
-     * @param budget The current budget amount
-     * @param expenseSum The current expense sum
-     */
-    private void updateBudgetProgress(Double budget, Double expenseSum) {
-        System.out.println("DEBUG: updateBudgetProgress(budget, expenseSum) called with budget: " + budget + ", expenseSum: " + expenseSum);
-        
-        if (budget == null || budget <= 0) {
-            System.out.println("DEBUG: Invalid budget value: " + budget);
-            return;
-        }
-        
-        double spent = expenseSum != null ? expenseSum : 0.0;
-        
-        // Remaining value calculation removed
-        System.out.println("DEBUG: Updating UI - Budget: " + budget + ", Spent: " + spent);
-        
-        // Calculate progress percentage (avoid division by zero)
-        int progress = 0;
-        if (budget > 0) {
-            progress = (int) ((spent / budget) * 100);
-            System.out.println("DEBUG: Progress calculated: " + progress + "%");
-        }
-        
-        // Ensure progress doesn't exceed 100% for visual purposes only
-        if (progressIndicator != null) {
-            int cappedProgress = Math.min(progress, 100);
-            progressIndicator.setProgress(cappedProgress);
-            System.out.println("DEBUG: Set progress indicator to " + cappedProgress + "%");
-        } else {
-            System.out.println("DEBUG: progressIndicator is null");
-        }
-        
-        // Change color based on progress
-        int colorResId;
-        if (progress >= 100) {
-            colorResId = R.color.budget_exceeded;
-            System.out.println("DEBUG: Using budget_exceeded color");
-        } else if (progress >= 80) {
-            colorResId = R.color.budget_warning;
-            System.out.println("DEBUG: Using budget_warning color");
-        } else {
-            colorResId = R.color.budget_good;
-            System.out.println("DEBUG: Using budget_good color");
-        }
-        
-        // Apply colors to UI components
-        if (getContext() != null) {
-            try {
-                int color = getResources().getColor(colorResId, null);
-                System.out.println("DEBUG: Color resource resolved");
-                
-                if (progressIndicator != null) {
-                    progressIndicator.setIndicatorColor(color);
-                    progressIndicator.invalidate();
-                    System.out.println("DEBUG: Applied color to progressIndicator");
+                @Override
+                public void onFailure(@NonNull Throwable t) {
+                    if (!isAdded() || getView() == null) return;
+                    textInputLayoutBudget.setError("Failed to save budget");
                 }
-                
-                // Color application to remaining text removed
-            } catch (Exception e) {
-                System.out.println("DEBUG: Error applying colors: " + e.getMessage());
-            }
-        } else {
-            System.out.println("DEBUG: Context is null");
-        }
-        
-        // Force layout updates to ensure UI reflects current state
-        if (progressIndicator != null) {
-            progressIndicator.requestLayout();
-            System.out.println("DEBUG: Requested layout for progressIndicator");
-        }
-        
-        // Layout update for remaining text removed
-        
-        // Force parent view to redraw
-        View rootView = getView();
-        if (rootView != null) {
-            rootView.invalidate();
-            rootView.requestLayout();
-            System.out.println("DEBUG: Invalidated and requested layout for root view");
-        } else {
-            System.out.println("DEBUG: Root view is null");
-        }
-        
-        // Force immediate layout pass
-        if (rootView != null) {
-            rootView.post(() -> {
-                System.out.println("DEBUG: Performing post-layout update");
-                rootView.invalidate();
-            });
+            }, ContextCompat.getMainExecutor(requireContext()));
+        } catch (NumberFormatException e) {
+            Tracer.debug(TAG, () -> "Invalid budget input: " + e.getMessage());
+            textInputLayoutBudget.setError(getString(R.string.error_invalid_number));
         }
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,44 @@
 package com.example.expensetracker.ui.fragment;
 
 import android.os.Bundle;
+import android.text.InputType;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
+import android.widget.EditText;
+import android.widget.FrameLayout;
 import android.widget.ListView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.expensetracker.R;
 import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.viewmodel.ExpenseViewModel;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
 
 /**
  * Fragment for displaying and managing expense categories.
+ * Built-in categories are fixed; user-defined ones can be added, and removed with a long press.
  */
 public class CategoriesFragment extends Fragment {
 
+    private ExpenseViewModel expenseViewModel;
     private ListView listViewCategories;
+    private ArrayAdapter<String> adapter;
+    private CategoryTable categoryTable = CategoryTable.BUILT_IN;
 
     @Nullable
     @Override
@@ -32,24 +51,110 @@ public class CategoriesFragment extends Fragment {
         
         // Initialize views
         listViewCategories = view.findViewById(R.id.list_view_categories);
+        view.findViewById(R.id.button_add_category).setOnClickListener(v -> showAddCategoryDialog());
         
         // Set up categories list
         setupCategoriesList();
         
         return view;
     }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        expenseViewModel = new ViewModelProvider(requireActivity()).get(ExpenseViewModel.class);
+        expenseViewModel.getCategories().observe(getViewLifecycleOwner(), this::showCategories);
+    }
     
     private void setupCategoriesList() {
-        // Get all category display names
-        String[] categories = Category.getAllDisplayNames();
-        
-        // Create adapter for the ListView
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+        // Create adapter for the ListView, starting with the built-in categories
+        adapter = new ArrayAdapter<>(
                 requireContext(),
                 android.R.layout.simple_list_item_1,
-                categories);
+                new ArrayList<>(Arrays.asList(categoryTable.getNames())));
         
         // Set adapter to ListView
         listViewCategories.setAdapter(adapter);
+        listViewCategories.setOnItemLongClickListener((parent, view, position, id) -> {
+            int categoryId = categoryTable.getId(position);
+            if (!categoryTable.isUserDefined(categoryId)) return false;
+            confirmDeleteCategory(categoryId, categoryTable.getName(position));
+            return true;
+        });
+    }
+
+    private void showCategories(CategoryTable table) {
+        categoryTable = table;
+        adapter.clear();
+        adapter.addAll(table.getNames());
+    }
+
+    private void showAddCategoryDialog() {
+        EditText nameText = new EditText(requireContext());
+        nameText.setHint("Name");
+        nameText.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_CAP_WORDS);
+        nameText.setSingleLine(true);
+        FrameLayout container = new FrameLayout(requireContext());
+        int padding = (int) (24 * getResources().getDisplayMetrics().density);
+        container.setPadding(padding, padding / 2, padding, 0);
+        container.addView(nameText);
+
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle(R.string.add_category)
+                .setView(container)
+                .setPositiveButton("Add", (dialog, which) -> addCategory(nameText.getText().toString().trim()))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void addCategory(String name) {
+        if (name.isEmpty()) {
+            Toast.makeText(requireContext(), "Please enter a name", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Futures.addCallback(expenseViewModel.addCategory(name), new FutureCallback<Long>() {
+            @Override
+            public void onSuccess(Long id) {
+                if (!isAdded() || id >= 0) return;
+                Toast.makeText(requireContext(), 
+                        String.format(Locale.getDefault(), "\"%s\" already exists", name), 
+                        Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), "Failed to add category", Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(requireContext()));
+    }
+
+    private void confirmDeleteCategory(int categoryId, String name) {
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Delete Category")
+                .setMessage(String.format(Locale.getDefault(),
+                        "Delete \"%s\"? Its expenses will move to %s and its budgets will be removed.",
+                        name, Category.OTHER.getDisplayName()))
+                .setPositiveButton("Delete", (dialog, which) -> deleteCategory(categoryId))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void deleteCategory(int categoryId) {
+        Futures.addCallback(expenseViewModel.deleteCategory(categoryId), new FutureCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer moved) {
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), 
+                        String.format(Locale.getDefault(), "Category deleted, %d expenses moved", moved), 
+                        Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), "Failed to delete category", Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(requireContext()));
     }
-}
\ No newline at end of file
+}
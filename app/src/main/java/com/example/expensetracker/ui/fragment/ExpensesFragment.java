@@ -3,16 +3,28 @@ package com.example.expensetracker.ui.fragment;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.InputType;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.core.content.ContextCompat;
+import androidx.core.util.Pair;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
@@ -21,13 +33,37 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.expensetracker.R;
 import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.data.model.ExpenseFilter;
+import com.example.expensetracker.data.model.ExportFilter;
+import com.example.expensetracker.data.model.Money;
+import com.example.expensetracker.data.model.YearMonth;
 import com.example.expensetracker.ui.adapter.ExpenseAdapter;
 import com.example.expensetracker.util.CsvExportUtil;
+import com.example.expensetracker.util.CsvImportUtil;
+import com.example.expensetracker.util.MoneyFormat;
+import com.example.expensetracker.util.StartupTimeline;
 import com.example.expensetracker.viewmodel.ExpenseViewModel;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
+import com.google.android.material.datepicker.MaterialDatePicker;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.SortedSet;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+
+import kotlin.Unit;
 
 /**
  * Fragment for displaying the list of expenses.
@@ -35,14 +71,60 @@ import java.util.List;
  */
 public class ExpensesFragment extends Fragment implements ExpenseAdapter.OnItemClickListener {
 
+    private static final String BACKUP_MIME_TYPE = "application/octet-stream";
+
+    // Keys for the backup selection while the file picker is open
+    private static final String STATE_BACKUP_START = "backupStart";
+    private static final String STATE_BACKUP_END = "backupEnd";
+    private static final String STATE_BACKUP_CATEGORIES = "backupCategories";
+
+    /**
+     * Delay after the last keystroke before a search runs
+     */
+    private static final long SEARCH_DEBOUNCE_MILLIS = 250;
+
+    /**
+     * Labels for the sort chip, indexed by ExpenseFilter.Sort ordinal
+     */
+    private static final int[] SORT_LABELS = {
+            R.string.sort_newest_first,
+            R.string.sort_oldest_first,
+            R.string.sort_highest_amount,
+            R.string.sort_lowest_amount
+    };
+
     private ExpenseViewModel expenseViewModel;
     private ExpenseAdapter adapter;
-    private List<Expense> currentExpenses = new ArrayList<>();
+    private Runnable pendingSearch;
+    private Chip chipThisMonth;
+    private Chip chipCategories;
+    private CategoryTable categoryTable = CategoryTable.BUILT_IN;
+    private Chip chipAmount;
+    private Chip chipSort;
+    private final MoneyFormat moneyFormat = new MoneyFormat();
+    private ExportFilter pendingBackupFilter;
+    private final ActivityResultLauncher<String[]> importCsvLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importFromCsv);
+    private final ActivityResultLauncher<String> backupLauncher =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument(BACKUP_MIME_TYPE), this::writeBackup);
+    private final ActivityResultLauncher<String[]> restoreLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::restoreBackup);
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setHasOptionsMenu(true); // Enable options menu
+        if (savedInstanceState != null && savedInstanceState.containsKey(STATE_BACKUP_CATEGORIES)) {
+            pendingBackupFilter = readBackupFilter(savedInstanceState);
+        }
+    }
+
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (pendingBackupFilter != null) {
+            writeBackupFilter(pendingBackupFilter, outState);
+        }
     }
 
     @Nullable
@@ -67,23 +149,246 @@ public class ExpensesFragment extends Fragment implements ExpenseAdapter.OnItemC
         // Set up ViewModel
         expenseViewModel = new ViewModelProvider(requireActivity()).get(ExpenseViewModel.class);
         
-        // Observe expenses
-        expenseViewModel.getAllExpenses().observe(getViewLifecycleOwner(), expenses -> {
-            currentExpenses = expenses;
-            adapter.submitList(expenses);
-            
-            // Show empty state if no expenses
-            View emptyView = view.findViewById(R.id.empty_view);
-            if (expenses.isEmpty()) {
+        // Observe paged expenses, or search results while searching
+        expenseViewModel.getExpenseList().observe(getViewLifecycleOwner(), pagingData ->
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
+        
+        // Search as the user types, once typing pauses
+        EditText searchText = view.findViewById(R.id.edit_text_search);
+        searchText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+                // Do nothing
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // Do nothing
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                scheduleSearch(searchText, s.toString());
+            }
+        });
+        
+        // Set up filter chips. Each chip edits one criterion of the ViewModel's filter;
+        // showFilter then redraws every chip from the filter, so chip state never drifts.
+        chipThisMonth = view.findViewById(R.id.chip_filter_this_month);
+        chipCategories = view.findViewById(R.id.chip_filter_categories);
+        chipAmount = view.findViewById(R.id.chip_filter_amount);
+        chipSort = view.findViewById(R.id.chip_filter_sort);
+        chipThisMonth.setOnClickListener(v -> toggleThisMonth());
+        chipCategories.setOnClickListener(v -> showCategoryFilterDialog());
+        chipCategories.setOnCloseIconClickListener(v -> expenseViewModel.setFilter(
+                expenseViewModel.requireFilter().buildUpon().setCategoryIds(null).build()));
+        chipAmount.setOnClickListener(v -> showAmountFilterDialog());
+        chipAmount.setOnCloseIconClickListener(v -> expenseViewModel.setFilter(
+                expenseViewModel.requireFilter().buildUpon().setAmountRange(null, null).build()));
+        chipSort.setOnClickListener(v -> showSortDialog());
+        expenseViewModel.getFilter().observe(getViewLifecycleOwner(), this::showFilter);
+        expenseViewModel.getCategories().observe(getViewLifecycleOwner(), table -> {
+            categoryTable = table;
+            showFilter(expenseViewModel.requireFilter());
+        });
+        
+        // Show the skeleton until the first rows are presented, then the rows or the empty state.
+        // Load states start out as NotLoading before anything has loaded, so they cannot tell an
+        // empty ledger from one still loading; a pages update always follows a finished load.
+        View skeletonView = view.findViewById(R.id.skeleton_view);
+        View emptyView = view.findViewById(R.id.empty_view);
+        TextView emptyText = view.findViewById(R.id.text_empty);
+        adapter.addOnPagesUpdatedListener(() -> {
+            if (skeletonView.getVisibility() == View.VISIBLE) {
+                skeletonView.setVisibility(View.GONE);
+                StartupTimeline.markFirstDataFrame(view, requireActivity()::reportFullyDrawn);
+            }
+            if (adapter.getItemCount() == 0) {
+                emptyText.setText(expenseViewModel.requireFilter().hasCriteria()
+                        ? R.string.no_search_results : R.string.no_expenses);
                 emptyView.setVisibility(View.VISIBLE);
                 recyclerView.setVisibility(View.GONE);
             } else {
                 emptyView.setVisibility(View.GONE);
                 recyclerView.setVisibility(View.VISIBLE);
             }
+            return Unit.INSTANCE;
         });
     }
 
+    /**
+     * Run a search after SEARCH_DEBOUNCE_MILLIS, replacing any search still waiting
+     */
+    private void scheduleSearch(View view, String text) {
+        if (pendingSearch != null) {
+            view.removeCallbacks(pendingSearch);
+        }
+        pendingSearch = () -> expenseViewModel.setSearchText(text);
+        view.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Update the filter chips to match a filter
+     * @param filter Current expense list filter
+     */
+    private void showFilter(ExpenseFilter filter) {
+        YearMonth month = YearMonth.now();
+        chipThisMonth.setChecked(month.getStartDate().equals(filter.getStartDate())
+                && month.getEndDate().equals(filter.getEndDate()));
+
+        SortedSet<Integer> categories = filter.getCategoryIds();
+        chipCategories.setChecked(!categories.isEmpty());
+        chipCategories.setCloseIconVisible(!categories.isEmpty());
+        if (categories.size() == 1) {
+            chipCategories.setText(categoryTable.nameOf(categories.first()));
+        } else if (categories.size() > 1) {
+            chipCategories.setText(getString(R.string.filter_categories) + " (" + categories.size() + ")");
+        } else {
+            chipCategories.setText(R.string.filter_categories);
+        }
+
+        Long min = filter.getMinAmountMinor();
+        Long max = filter.getMaxAmountMinor();
+        chipAmount.setChecked(min != null || max != null);
+        chipAmount.setCloseIconVisible(min != null || max != null);
+        if (min != null && max != null) {
+            chipAmount.setText(getString(R.string.filter_amount_between,
+                    moneyFormat.format(min), moneyFormat.format(max)));
+        } else if (min != null) {
+            chipAmount.setText(getString(R.string.filter_amount_at_least, moneyFormat.format(min)));
+        } else if (max != null) {
+            chipAmount.setText(getString(R.string.filter_amount_at_most, moneyFormat.format(max)));
+        } else {
+            chipAmount.setText(R.string.filter_amount);
+        }
+
+        chipSort.setText(SORT_LABELS[filter.getSort().ordinal()]);
+    }
+
+    /**
+     * Limit the list to the current month, or remove the date range if it already is
+     */
+    private void toggleThisMonth() {
+        ExpenseFilter filter = expenseViewModel.requireFilter();
+        YearMonth month = YearMonth.now();
+        boolean thisMonth = month.getStartDate().equals(filter.getStartDate())
+                && month.getEndDate().equals(filter.getEndDate());
+        expenseViewModel.setFilter(filter.buildUpon()
+                .setDateRange(thisMonth ? null : month.getStartDate(), thisMonth ? null : month.getEndDate())
+                .build());
+    }
+
+    /**
+     * Let the user pick the categories to show
+     */
+    private void showCategoryFilterDialog() {
+        ExpenseFilter filter = expenseViewModel.requireFilter();
+        CategoryTable table = categoryTable;
+        String[] names = table.getNames();
+        boolean[] checked = new boolean[names.length];
+        for (int i = 0; i < names.length; i++) {
+            checked[i] = filter.getCategoryIds().contains(table.getId(i));
+        }
+
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Filter by Category")
+                .setMultiChoiceItems(names, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton("Apply", (dialog, which) -> {
+                    List<Integer> selected = new ArrayList<>();
+                    for (int i = 0; i < names.length; i++) {
+                        if (checked[i]) selected.add(table.getId(i));
+                    }
+                    expenseViewModel.setFilter(expenseViewModel.requireFilter().buildUpon()
+                            .setCategoryIds(selected).build());
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Let the user enter a minimum and maximum amount; either may be left blank
+     */
+    private void showAmountFilterDialog() {
+        ExpenseFilter filter = expenseViewModel.requireFilter();
+        EditText minText = newAmountField("Minimum", filter.getMinAmountMinor());
+        EditText maxText = newAmountField("Maximum", filter.getMaxAmountMinor());
+
+        LinearLayout fields = new LinearLayout(requireContext());
+        fields.setOrientation(LinearLayout.VERTICAL);
+        int padding = (int) (24 * getResources().getDisplayMetrics().density);
+        fields.setPadding(padding, padding / 2, padding, 0);
+        fields.addView(minText);
+        fields.addView(maxText);
+
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Filter by Amount")
+                .setView(fields)
+                .setPositiveButton("Apply", (dialog, which) -> {
+                    Long min = parseAmount(minText);
+                    Long max = parseAmount(maxText);
+                    if (min != null && max != null && min > max) {
+                        Long swap = min;
+                        min = max;
+                        max = swap;
+                    }
+                    expenseViewModel.setFilter(expenseViewModel.requireFilter().buildUpon()
+                            .setAmountRange(min, max).build());
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private EditText newAmountField(String hint, @Nullable Long valueMinor) {
+        EditText field = new EditText(requireContext());
+        field.setHint(hint);
+        field.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_DECIMAL);
+        if (valueMinor != null) {
+            field.setText(Money.toPlainString(valueMinor));
+        }
+        return field;
+    }
+
+    @Nullable
+    private static Long parseAmount(EditText field) {
+        String text = field.getText().toString().trim();
+        if (text.isEmpty()) return null;
+        try {
+            return Money.parseMinor(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Let the user pick the order of the list
+     */
+    private void showSortDialog() {
+        ExpenseFilter filter = expenseViewModel.requireFilter();
+        String[] labels = new String[SORT_LABELS.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = getString(SORT_LABELS[i]);
+        }
+
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Sort By")
+                .setSingleChoiceItems(labels, filter.getSort().ordinal(), (dialog, which) -> {
+                    expenseViewModel.setFilter(expenseViewModel.requireFilter().buildUpon()
+                            .setSort(ExpenseFilter.Sort.values()[which]).build());
+                    dialog.dismiss();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    @Override
+    public void onDestroyView() {
+        if (pendingSearch != null) {
+            requireView().removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        super.onDestroyView();
+    }
+
     @Override
     public void onItemClick(Expense expense) {
         // Navigate to edit expense screen
@@ -103,9 +408,20 @@ public class ExpensesFragment extends Fragment implements ExpenseAdapter.OnItemC
                 .setTitle("Delete Expense")
                 .setMessage("Are you sure you want to delete this expense?")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    // Delete the expense
-                    expenseViewModel.delete(expense);
-                    Toast.makeText(requireContext(), "Expense deleted", Toast.LENGTH_SHORT).show();
+                    // Delete the expense and report once the delete is committed
+                    Futures.addCallback(expenseViewModel.delete(expense), new FutureCallback<Void>() {
+                        @Override
+                        public void onSuccess(Void result) {
+                            if (!isAdded()) return;
+                            Toast.makeText(requireContext(), "Expense deleted", Toast.LENGTH_SHORT).show();
+                        }
+
+                        @Override
+                        public void onFailure(@NonNull Throwable t) {
+                            if (!isAdded()) return;
+                            Toast.makeText(requireContext(), "Failed to delete expense", Toast.LENGTH_SHORT).show();
+                        }
+                    }, ContextCompat.getMainExecutor(requireContext()));
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -133,6 +449,15 @@ public class ExpensesFragment extends Fragment implements ExpenseAdapter.OnItemC
         if (id == R.id.action_export_csv) {
             exportToCsv();
             return true;
+        } else if (id == R.id.action_import_csv) {
+            importCsvLauncher.launch(new String[]{"text/csv", "text/comma-separated-values", "text/plain"});
+            return true;
+        } else if (id == R.id.action_backup) {
+            showBackupDialog();
+            return true;
+        } else if (id == R.id.action_restore) {
+            restoreLauncher.launch(new String[]{BACKUP_MIME_TYPE});
+            return true;
         } else if (id == R.id.action_categories) {
             // Navigate to categories fragment
             Navigation.findNavController(requireView())
@@ -146,27 +471,261 @@ public class ExpensesFragment extends Fragment implements ExpenseAdapter.OnItemC
      * Export expenses to CSV file
      */
     private void exportToCsv() {
-        if (currentExpenses.isEmpty()) {
-            Toast.makeText(requireContext(), "No expenses to export", Toast.LENGTH_SHORT).show();
-            return;
+        // The export ignores the list's filter and search, so count the whole table
+        Futures.addCallback(expenseViewModel.countAllExpenses(), new FutureCallback<Long>() {
+            @Override
+            public void onSuccess(Long count) {
+                if (!isAdded()) return;
+                if (count == 0) {
+                    Toast.makeText(requireContext(), "No expenses to export", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                new MaterialAlertDialogBuilder(requireContext())
+                        .setTitle("Export Expenses")
+                        .setMessage("Do you want to export all " + count + " expenses to a CSV file?")
+                        .setPositiveButton("Export", (dialog, which) -> startCsvExport())
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), "Failed to export", Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(requireContext()));
+    }
+
+    /**
+     * Run the CSV export in the background, showing progress in a cancellable dialog
+     */
+    private void startCsvExport() {
+        LinearProgressIndicator progressIndicator = new LinearProgressIndicator(requireContext());
+        int padding = (int) (24 * getResources().getDisplayMetrics().density);
+        progressIndicator.setPadding(padding, padding, padding, 0);
+        progressIndicator.setMax(100);
+        progressIndicator.setIndeterminate(true);
+
+        Executor mainExecutor = ContextCompat.getMainExecutor(requireContext());
+        ListenableFuture<String> export = expenseViewModel.exportCsv((rowsWritten, totalRows) ->
+                mainExecutor.execute(() -> {
+                    if (totalRows > 0) {
+                        progressIndicator.setIndeterminate(false);
+                        progressIndicator.setProgressCompat((int) Math.min(100, rowsWritten * 100 / totalRows), true);
+                    }
+                }));
+
+        AlertDialog progressDialog = new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Exporting Expenses")
+                .setView(progressIndicator)
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> export.cancel(true))
+                .show();
+
+        Futures.addCallback(export, new FutureCallback<String>() {
+            @Override
+            public void onSuccess(String filePath) {
+                progressDialog.dismiss();
+                if (!isAdded()) return;
+                if (filePath != null) {
+                    Toast.makeText(requireContext(), 
+                            "Exported to: " + filePath, 
+                            Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(requireContext(), 
+                            "Failed to export", 
+                            Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                progressDialog.dismiss();
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), 
+                        export.isCancelled() ? "Export cancelled" : "Failed to export", 
+                        Toast.LENGTH_SHORT).show();
+            }
+        }, mainExecutor);
+    }
+
+    /**
+     * Import expenses from the CSV file picked by the user
+     * @param uri URI of the picked file, or null if the picker was cancelled
+     */
+    private void importFromCsv(@Nullable Uri uri) {
+        if (uri == null) return;
+
+        Toast.makeText(requireContext(), "Importing expenses...", Toast.LENGTH_SHORT).show();
+        Futures.addCallback(expenseViewModel.importCsv(uri, null), new FutureCallback<CsvImportUtil.ImportResult>() {
+            @Override
+            public void onSuccess(CsvImportUtil.ImportResult result) {
+                if (!isAdded()) return;
+                String message = "Imported " + result.getRowsImported() + " expenses";
+                if (result.getRowsSkipped() > 0) {
+                    message += " (" + result.getRowsSkipped() + " rows skipped)";
+                }
+                Toast.makeText(requireContext(), message, Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), 
+                        "Failed to import", 
+                        Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(requireContext()));
+    }
+
+    /**
+     * Let the user pick the date range and categories to back up, then the file to write
+     */
+    private void showBackupDialog() {
+        Date[] range = new Date[2];
+        DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM);
+
+        // Date range, all dates until one is picked
+        Chip dateChip = new Chip(requireContext());
+        dateChip.setText("All dates");
+        dateChip.setOnClickListener(v -> {
+            MaterialDatePicker<Pair<Long, Long>> picker = MaterialDatePicker.Builder.dateRangePicker()
+                    .setTitleText("Back up expenses between")
+                    .build();
+            picker.addOnPositiveButtonClickListener(selection -> {
+                range[0] = toLocalDay(selection.first, false);
+                range[1] = toLocalDay(selection.second, true);
+                dateChip.setText(dateFormat.format(range[0]) + " - " + dateFormat.format(range[1]));
+                dateChip.setCloseIconVisible(true);
+            });
+            picker.show(getChildFragmentManager(), "backup_date_range");
+        });
+        dateChip.setCloseIconVisible(false);
+        dateChip.setOnCloseIconClickListener(v -> {
+            range[0] = null;
+            range[1] = null;
+            dateChip.setText("All dates");
+            dateChip.setCloseIconVisible(false);
+        });
+
+        // One chip per category, all checked
+        CategoryTable table = categoryTable;
+        ChipGroup categoryChips = new ChipGroup(requireContext());
+        for (int i = 0; i < table.size(); i++) {
+            Chip chip = new Chip(requireContext());
+            chip.setText(table.getName(i));
+            chip.setTag(table.getId(i));
+            chip.setCheckable(true);
+            chip.setChecked(true);
+            categoryChips.addView(chip);
         }
 
+        LinearLayout content = new LinearLayout(requireContext());
+        content.setOrientation(LinearLayout.VERTICAL);
+        int padding = (int) (24 * getResources().getDisplayMetrics().density);
+        content.setPadding(padding, padding / 2, padding, 0);
+        content.addView(dateChip);
+        content.addView(categoryChips);
+        ScrollView scrollView = new ScrollView(requireContext());
+        scrollView.addView(content);
+
         new MaterialAlertDialogBuilder(requireContext())
-                .setTitle("Export Expenses")
-                .setMessage("Do you want to export all expenses to a CSV file?")
-                .setPositiveButton("Export", (dialog, which) -> {
-                    String filePath = CsvExportUtil.exportToDownloads(requireContext(), currentExpenses);
-                    if (filePath != null) {
-                        Toast.makeText(requireContext(), 
-                                "Exported to: " + filePath, 
-                                Toast.LENGTH_LONG).show();
-                    } else {
-                        Toast.makeText(requireContext(), 
-                                "Failed to export", 
-                                Toast.LENGTH_SHORT).show();
+                .setTitle("Back Up Expenses")
+                .setView(scrollView)
+                .setPositiveButton("Back Up", (dialog, which) -> {
+                    List<Integer> selected = new ArrayList<>();
+                    for (int i = 0; i < categoryChips.getChildCount(); i++) {
+                        Chip chip = (Chip) categoryChips.getChildAt(i);
+                        if (chip.isChecked()) selected.add((Integer) chip.getTag());
+                    }
+                    if (selected.isEmpty()) {
+                        Toast.makeText(requireContext(), "No categories selected", Toast.LENGTH_SHORT).show();
+                        return;
                     }
+                    // Every category checked means all of them, including ones added later
+                    pendingBackupFilter = new ExportFilter(range[0], range[1],
+                            selected.size() == table.size() ? null : selected);
+                    backupLauncher.launch("expenses_" + System.currentTimeMillis() + ".expb");
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
+
+    /**
+     * Turn a day picked in MaterialDatePicker (midnight UTC) into the start or end of that
+     * day in the local time zone
+     */
+    private static Date toLocalDay(long utcMidnight, boolean endOfDay) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        utc.setTimeInMillis(utcMidnight);
+        Calendar local = Calendar.getInstance();
+        local.clear();
+        local.set(utc.get(Calendar.YEAR), utc.get(Calendar.MONTH), utc.get(Calendar.DAY_OF_MONTH));
+        if (endOfDay) {
+            local.add(Calendar.DAY_OF_MONTH, 1);
+            local.add(Calendar.MILLISECOND, -1);
+        }
+        return local.getTime();
+    }
+
+    private static void writeBackupFilter(ExportFilter filter, Bundle state) {
+        state.putLong(STATE_BACKUP_START, filter.getStartDate().getTime());
+        state.putLong(STATE_BACKUP_END, filter.getEndDate().getTime());
+        List<Integer> categoryIds = filter.getCategoryIds();
+        int[] ids = new int[categoryIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = categoryIds.get(i);
+        }
+        state.putIntArray(STATE_BACKUP_CATEGORIES, ids);
+    }
+
+    private static ExportFilter readBackupFilter(Bundle state) {
+        // Open bounds were saved as Long.MIN_VALUE and Long.MAX_VALUE, which match the same rows
+        List<Integer> categoryIds = new ArrayList<>();
+        for (int id : state.getIntArray(STATE_BACKUP_CATEGORIES)) {
+            categoryIds.add(id);
+        }
+        return new ExportFilter(new Date(state.getLong(STATE_BACKUP_START)),
+                new Date(state.getLong(STATE_BACKUP_END)), categoryIds);
+    }
+
+    /**
+     * Write a binary backup of the selected expenses to the file created by the user
+     * @param uri URI of the created file, or null if the picker was cancelled
+     */
+    private void writeBackup(@Nullable Uri uri) {
+        ExportFilter filter = pendingBackupFilter != null ? pendingBackupFilter : ExportFilter.all();
+        pendingBackupFilter = null;
+        if (uri == null) return;
+        showBackupResult(expenseViewModel.exportBackup(uri, filter),
+                "Backed up %d expenses", "Failed to back up");
+    }
+
+    /**
+     * Restore expenses from the backup file picked by the user
+     * @param uri URI of the picked file, or null if the picker was cancelled
+     */
+    private void restoreBackup(@Nullable Uri uri) {
+        if (uri == null) return;
+        showBackupResult(expenseViewModel.restoreBackup(uri),
+                "Restored %d expenses", "Failed to restore backup");
+    }
+
+    private void showBackupResult(ListenableFuture<Long> result, String successFormat, String failureMessage) {
+        Futures.addCallback(result, new FutureCallback<Long>() {
+            @Override
+            public void onSuccess(Long count) {
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), 
+                        String.format(Locale.getDefault(), successFormat, count), 
+                        Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onFailure(@NonNull Throwable t) {
+                if (!isAdded()) return;
+                Toast.makeText(requireContext(), failureMessage, Toast.LENGTH_SHORT).show();
+            }
+        }, ContextCompat.getMainExecutor(requireContext()));
+    }
 }
\ No newline at end of file
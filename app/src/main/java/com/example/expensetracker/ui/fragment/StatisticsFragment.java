@@ -16,16 +16,20 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.expensetracker.R;
 import com.example.expensetracker.data.dao.ExpenseDao.CategorySum;
-import com.example.expensetracker.util.ChartHelper;
+import com.example.expensetracker.data.model.TrendGranularity;
+import com.example.expensetracker.data.model.TrendSeries;
+import com.example.expensetracker.util.ChartBinder;
+import com.example.expensetracker.util.MoneyFormat;
+import com.example.expensetracker.util.Tracer;
 import com.example.expensetracker.viewmodel.ExpenseViewModel;
 import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.charts.PieChart;
+import com.google.android.material.chip.ChipGroup;
 
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Fragment for displaying expense statistics using charts.
@@ -33,13 +37,18 @@ import java.util.Locale;
  */
 public class StatisticsFragment extends Fragment {
 
+    private static final int CHART_ANIMATION_MILLIS = 300;
+
     private ExpenseViewModel expenseViewModel;
     private PieChart pieChart;
     private BarChart barChart;
+    private LineChart lineChartTrend;
+    private ChipGroup chipGroupTrend;
+    private ChartBinder chartBinder;
     private TextView textViewTotalExpenses;
     private Spinner spinnerMonth;
     private Spinner spinnerYear;
-    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("bn", "BD"));
+    private final MoneyFormat moneyFormat = new MoneyFormat();
 
     @Nullable
     @Override
@@ -54,6 +63,12 @@ public class StatisticsFragment extends Fragment {
         // Initialize views
         pieChart = view.findViewById(R.id.pie_chart);
         barChart = view.findViewById(R.id.bar_chart);
+        lineChartTrend = view.findViewById(R.id.line_chart_trend);
+        chipGroupTrend = view.findViewById(R.id.chip_group_trend);
+
+        // Configure the charts once; emissions only update their data
+        chartBinder = new ChartBinder(pieChart, barChart, lineChartTrend, requireContext());
+        chartBinder.setAnimationDuration(CHART_ANIMATION_MILLIS);
         textViewTotalExpenses = view.findViewById(R.id.text_view_total_expenses);
         spinnerMonth = view.findViewById(R.id.spinner_month);
         spinnerYear = view.findViewById(R.id.spinner_year);
@@ -93,7 +108,7 @@ public class StatisticsFragment extends Fragment {
         spinnerMonth.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                updateCharts();
+                selectMonth();
             }
 
             @Override
@@ -105,7 +120,7 @@ public class StatisticsFragment extends Fragment {
         spinnerYear.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                updateCharts();
+                selectMonth();
             }
 
             @Override
@@ -114,76 +129,100 @@ public class StatisticsFragment extends Fragment {
             }
         });
 
+        // Set up trend granularity chips, starting from the ViewModel's selection
+        TrendGranularity granularity = expenseViewModel.getTrendGranularity().getValue();
+        if (granularity != null) {
+            chipGroupTrend.check(chipIdFor(granularity));
+        }
+        chipGroupTrend.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (!checkedIds.isEmpty()) {
+                expenseViewModel.setTrendGranularity(granularityFor(checkedIds.get(0)));
+            }
+        });
+
+        // Observe once; the ViewModel switches the underlying queries when the month changes
+        expenseViewModel.getCurrentMonthExpenseSum().observe(getViewLifecycleOwner(), this::showTotal);
+        expenseViewModel.getCurrentMonthCategorySums().observe(getViewLifecycleOwner(), this::showCharts);
+        expenseViewModel.getTrend().observe(getViewLifecycleOwner(), this::showTrend);
+
         // Initial update
-        updateCharts();
+        selectMonth();
     }
 
     /**
-     * Update charts based on selected month and year
+     * Select the month and year chosen in the spinners
      */
-    private void updateCharts() {
-        System.out.println("DEBUG: StatisticsFragment.updateCharts called");
-        
+    private void selectMonth() {
         int selectedMonth = spinnerMonth.getSelectedItemPosition() + 1; // +1 because Calendar months are 0-based
         int selectedYear = Integer.parseInt(spinnerYear.getSelectedItem().toString());
-        
-        System.out.println("DEBUG: Selected month: " + selectedMonth + ", Selected year: " + selectedYear);
 
         // Update ViewModel with selected month and year
         expenseViewModel.setCurrentMonthAndYear(selectedYear, selectedMonth);
-        System.out.println("DEBUG: Updated ViewModel with selected month and year");
-
-        // Observe monthly expense sum
-        System.out.println("DEBUG: Setting up expense sum observer");
-        expenseViewModel.getCurrentMonthExpenseSum().observe(getViewLifecycleOwner(), sum -> {
-            System.out.println("DEBUG: Expense sum updated: " + sum);
-            if (sum != null) {
-                textViewTotalExpenses.setText(currencyFormat.format(sum));
-                System.out.println("DEBUG: Updated total expenses text: " + currencyFormat.format(sum));
-            } else {
-                textViewTotalExpenses.setText(currencyFormat.format(0));
-                System.out.println("DEBUG: Updated total expenses text with zero");
-            }
-        });
+    }
+
+    /**
+     * Show the total for the selected month
+     * @param sumMinor Expense sum in minor units, or null if there are no expenses
+     */
+    private void showTotal(@Nullable Long sumMinor) {
+        textViewTotalExpenses.setText(moneyFormat.format(sumMinor != null ? sumMinor : 0));
+    }
 
-        // Observe category sums for charts
-        System.out.println("DEBUG: Setting up category sums observer");
-        expenseViewModel.getCurrentMonthCategorySums().observe(getViewLifecycleOwner(), categorySums -> {
-            if (categorySums != null) {
-                System.out.println("DEBUG: Category sums updated, count: " + categorySums.size());
-                
-                if (!categorySums.isEmpty()) {
-                    System.out.println("DEBUG: Category sums not empty, updating charts");
-                    // Show charts
-                    pieChart.setVisibility(View.VISIBLE);
-                    barChart.setVisibility(View.VISIBLE);
-                    requireView().findViewById(R.id.text_view_no_data).setVisibility(View.GONE);
-
-                    // Update charts
-                    System.out.println("DEBUG: Setting up pie chart");
-                    ChartHelper.setupPieChart(pieChart, categorySums, requireContext());
-                    
-                    System.out.println("DEBUG: Setting up bar chart");
-                    ChartHelper.setupBarChart(barChart, categorySums, requireContext());
-                    
-                    System.out.println("DEBUG: Charts updated successfully");
-                } else {
-                    System.out.println("DEBUG: Category sums empty, showing no data message");
-                    // Show no data message
-                    pieChart.setVisibility(View.GONE);
-                    barChart.setVisibility(View.GONE);
-                    requireView().findViewById(R.id.text_view_no_data).setVisibility(View.VISIBLE);
-                }
-            } else {
-                System.out.println("DEBUG: Category sums null, showing no data message");
-                // Show no data message
-                pieChart.setVisibility(View.GONE);
-                barChart.setVisibility(View.GONE);
-                requireView().findViewById(R.id.text_view_no_data).setVisibility(View.VISIBLE);
+    /**
+     * Update charts with the category sums for the selected month
+     * @param categorySums Category sums, or null if there are none
+     */
+    private void showCharts(@Nullable List<CategorySum> categorySums) {
+        View noData = requireView().findViewById(R.id.text_view_no_data);
+        if (categorySums != null && !categorySums.isEmpty()) {
+            // Show charts
+            pieChart.setVisibility(View.VISIBLE);
+            barChart.setVisibility(View.VISIBLE);
+            noData.setVisibility(View.GONE);
+
+            // Update charts
+            Tracer.beginSection("StatisticsFragment.showCharts");
+            try {
+                chartBinder.bindCategorySums(categorySums);
+            } finally {
+                Tracer.endSection();
             }
-        });
-        
-        System.out.println("DEBUG: updateCharts setup complete");
+        } else {
+            // Show no data message
+            pieChart.setVisibility(View.GONE);
+            barChart.setVisibility(View.GONE);
+            noData.setVisibility(View.VISIBLE);
+        }
+    }
+
+    /**
+     * Update the trend chart
+     * @param series Dense trend series for the selected granularity
+     */
+    private void showTrend(@NonNull TrendSeries series) {
+        Tracer.beginSection("StatisticsFragment.showTrend");
+        try {
+            chartBinder.bindTrend(series);
+        } finally {
+            Tracer.endSection();
+        }
+    }
+
+    private static int chipIdFor(TrendGranularity granularity) {
+        switch (granularity) {
+            case DAY:
+                return R.id.chip_trend_day;
+            case WEEK:
+                return R.id.chip_trend_week;
+            default:
+                return R.id.chip_trend_month;
+        }
+    }
+
+    private static TrendGranularity granularityFor(int chipId) {
+        if (chipId == R.id.chip_trend_day) return TrendGranularity.DAY;
+        if (chipId == R.id.chip_trend_week) return TrendGranularity.WEEK;
+        return TrendGranularity.MONTH;
     }
 
     /**
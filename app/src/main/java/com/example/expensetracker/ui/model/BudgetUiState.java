@@ -0,0 +1,89 @@
+package com.example.expensetracker.ui.model;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.data.model.BudgetStatus;
+
+/**
+ * Immutable state rendered by BudgetFragment, with amounts in minor units.
+ * Equal states compare equal, so the fragment renders only when something visible changed.
+ */
+public final class BudgetUiState {
+
+    /**
+     * How close spending is to the budget, which picks the progress color
+     */
+    public enum Level {
+        GOOD,
+        WARNING,
+        EXCEEDED
+    }
+
+    private static final int WARNING_PERCENT = 80;
+
+    private final long budget;
+    private final long spent;
+    private final int progressPercent;
+    private final Level level;
+
+    private BudgetUiState(long budget, long spent) {
+        this.budget = budget;
+        this.spent = spent;
+        int percent = budget > 0 ? (int) (spent * 100.0 / budget) : 0;
+        this.progressPercent = Math.max(0, Math.min(percent, 100));
+        this.level = percent >= 100 ? Level.EXCEEDED
+                : percent >= WARNING_PERCENT ? Level.WARNING
+                : Level.GOOD;
+    }
+
+    /**
+     * Build the state for a month's budget status
+     * @param status Budget status for the month
+     * @param defaultBudget Budget to show when none is stored for the month, in minor units
+     * @return UI state
+     */
+    @NonNull
+    public static BudgetUiState from(@NonNull BudgetStatus status, long defaultBudget) {
+        return new BudgetUiState(status.hasBudget() ? status.getBudget() : defaultBudget, status.getSpent());
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public long getSpent() {
+        return spent;
+    }
+
+    /**
+     * @return Spending as a percentage of the budget, capped at 0-100 for the progress bar
+     */
+    public int getProgressPercent() {
+        return progressPercent;
+    }
+
+    @NonNull
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BudgetUiState)) return false;
+        BudgetUiState other = (BudgetUiState) o;
+        return budget == other.budget
+                && spent == other.spent
+                && progressPercent == other.progressPercent
+                && level == other.level;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(budget);
+        result = 31 * result + Long.hashCode(spent);
+        result = 31 * result + progressPercent;
+        result = 31 * result + level.hashCode();
+        return result;
+    }
+}
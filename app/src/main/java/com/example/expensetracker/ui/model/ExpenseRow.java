@@ -0,0 +1,73 @@
+package com.example.expensetracker.ui.model;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.data.entity.Expense;
+
+/**
+ * Immutable display model for one row of the expense list.
+ * All strings are formatted ahead of time by ExpenseRowMapper, so binding a row does no
+ * formatting work.
+ */
+public final class ExpenseRow {
+
+    private final Expense expense;
+    private final String amountText;
+    private final String dateText;
+    private final String category;
+    private final String notes;
+    private final int notesVisibility;
+
+    ExpenseRow(@NonNull Expense expense, @NonNull String category,
+               @NonNull String amountText, @NonNull String dateText) {
+        this.expense = expense;
+        this.amountText = amountText;
+        this.dateText = dateText;
+        this.category = category;
+        this.notes = expense.getNotes();
+        this.notesVisibility = notes != null && !notes.isEmpty() ? View.VISIBLE : View.GONE;
+    }
+
+    /**
+     * @return The expense this row was built from, for click handling
+     */
+    @NonNull
+    public Expense getExpense() {
+        return expense;
+    }
+
+    public long getId() {
+        return expense.getId();
+    }
+
+    @NonNull
+    public String getAmountText() {
+        return amountText;
+    }
+
+    @NonNull
+    public String getDateText() {
+        return dateText;
+    }
+
+    /**
+     * @return Name of the expense's category
+     */
+    @NonNull
+    public String getCategory() {
+        return category;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    /**
+     * @return View.VISIBLE if the row has notes, View.GONE otherwise
+     */
+    public int getNotesVisibility() {
+        return notesVisibility;
+    }
+}
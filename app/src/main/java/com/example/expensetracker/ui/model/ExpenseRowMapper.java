@@ -0,0 +1,103 @@
+package com.example.expensetracker.ui.model;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.util.MoneyFormat;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Maps expenses to preformatted ExpenseRow models.
+ * Formatted rows are kept in an LRU keyed by (id, amount, date), the inputs of the two
+ * expensive formatters, so paging back over rows that were already seen does no formatting.
+ * Category names are looked up by id in the table the supplier returns, which may read the
+ * database, so mapping must not run on the main thread.
+ * Not thread-safe: the formatters must only be used from one thread at a time, so callers
+ * run the mapping on a single background executor.
+ */
+public class ExpenseRowMapper {
+
+    private static final int CACHE_SIZE = 1000;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+    private final MoneyFormat moneyFormat = new MoneyFormat();
+    private final LruCache<RowKey, ExpenseRow> cache = new LruCache<>(CACHE_SIZE);
+    private final Supplier<CategoryTable> categories;
+
+    /**
+     * @param categories Source of the current categories, called on the mapping thread
+     */
+    public ExpenseRowMapper(@NonNull Supplier<CategoryTable> categories) {
+        this.categories = categories;
+    }
+
+    /**
+     * Map an expense to its display row, reusing cached formatting where possible
+     * @param expense Expense to map
+     * @return Row model for the expense
+     */
+    @NonNull
+    public ExpenseRow toRow(@NonNull Expense expense) {
+        RowKey key = new RowKey(expense);
+        String category = categories.get().nameOf(expense.getCategoryId());
+        ExpenseRow cached = cache.get(key);
+        if (cached != null) {
+            if (cached.getCategory().equals(category)
+                    && Objects.equals(cached.getNotes(), expense.getNotes())) {
+                return cached;
+            }
+            // Only the category or notes changed; keep the formatted strings
+            ExpenseRow row = new ExpenseRow(expense, category, cached.getAmountText(), cached.getDateText());
+            cache.put(key, row);
+            return row;
+        }
+
+        ExpenseRow row = new ExpenseRow(
+                expense,
+                category,
+                moneyFormat.format(expense.getAmountMinor()),
+                dateFormat.format(expense.getDate()));
+        cache.put(key, row);
+        return row;
+    }
+
+    /**
+     * Cache key: the inputs of the amount and date formatting for one expense
+     */
+    private static final class RowKey {
+        private final long id;
+        private final long amountMinor;
+        private final long date;
+
+        RowKey(Expense expense) {
+            this.id = expense.getId();
+            this.amountMinor = expense.getAmountMinor();
+            this.date = expense.getDate().getTime();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RowKey)) return false;
+            RowKey other = (RowKey) o;
+            return id == other.id
+                    && amountMinor == other.amountMinor
+                    && date == other.date;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(id);
+            result = 31 * result + Long.hashCode(amountMinor);
+            result = 31 * result + Long.hashCode(date);
+            return result;
+        }
+    }
+}
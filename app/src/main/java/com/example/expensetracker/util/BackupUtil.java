@@ -0,0 +1,268 @@
+package com.example.expensetracker.util;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.BatchingWriteExecutor;
+import com.example.expensetracker.data.CategoryCache;
+import com.example.expensetracker.data.dao.CategoryDao;
+import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.data.model.ExportFilter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class for compact binary backups of expense data.
+ * A sibling of CsvExportUtil: rows are streamed from a Cursor on export and bulk inserted in
+ * chunks on restore, and both must run off the main thread.
+ * <p>
+ * Format (all integers are LEB128 varints, signed ones zigzag-encoded):
+ * <pre>
+ * header:   "EXPB" magic, version byte, category count, then each category name as
+ *           length + UTF-8 bytes (a row's category is an index into this dictionary),
+ *           then the row count
+ * each row: id, amount in minor units (signed), category index,
+ *           epoch day minus the previous row's epoch day (signed), millisecond of day,
+ *           notes length + 1 (0 for no notes) followed by the UTF-8 bytes
+ * </pre>
+ * Rows are written newest first, so day deltas are small and usually fit in one byte.
+ * Categories travel by name, so user-defined categories missing on restore are recreated.
+ */
+public class BackupUtil {
+
+    private static final byte[] MAGIC = {'E', 'X', 'P', 'B'};
+    private static final int VERSION = 1;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int RESTORE_CHUNK_SIZE = 500;
+
+    /**
+     * Write a backup of the expenses matching a filter to a user-selected location
+     * @param context Application context
+     * @param uri URI of the backup file
+     * @param filter Date range and categories to include
+     * @return Number of expenses written
+     * @throws IOException If an I/O error occurs
+     */
+    public static long exportToUri(Context context, Uri uri, @NonNull ExportFilter filter) throws IOException {
+        OutputStream os = context.getContentResolver().openOutputStream(uri);
+        if (os == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        AppDatabase database = AppDatabase.getInstance(context);
+        CategoryTable categories = CategoryCache.getInstance(database).get();
+        try (OutputStream out = new BufferedOutputStream(os, BUFFER_SIZE);
+             Cursor cursor = database.expenseDao().getExpensesCursor(filter)) {
+            return writeBackup(cursor, categories, out);
+        }
+    }
+
+    /**
+     * Restore expenses from a backup file. Expenses keep their original IDs, so restoring
+     * replaces rows with the same ID instead of duplicating them.
+     * @param context Application context
+     * @param uri URI of the backup file
+     * @return Number of expenses restored
+     * @throws IOException If the file cannot be read, is not a backup, or a chunk fails to insert
+     */
+    public static long restoreFromUri(Context context, Uri uri) throws IOException {
+        InputStream is = context.getContentResolver().openInputStream(uri);
+        if (is == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        AppDatabase database = AppDatabase.getInstance(context);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(is, BUFFER_SIZE))) {
+            return readBackup(in, database.expenseDao(), database.categoryDao(),
+                    BatchingWriteExecutor.getInstance(database));
+        }
+    }
+
+    /**
+     * Write the rows of an expenses cursor in backup format.
+     * The cursor must have the columns id, amount_minor, category_id, date and notes, and every
+     * category id must be in the table.
+     */
+    static long writeBackup(Cursor cursor, CategoryTable categories, OutputStream out) throws IOException {
+        int idColumn = cursor.getColumnIndexOrThrow("id");
+        int amountColumn = cursor.getColumnIndexOrThrow("amount_minor");
+        int categoryColumn = cursor.getColumnIndexOrThrow("category_id");
+        int dateColumn = cursor.getColumnIndexOrThrow("date");
+        int notesColumn = cursor.getColumnIndexOrThrow("notes");
+
+        // Header and category dictionary
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, categories.size());
+        for (int i = 0; i < categories.size(); i++) {
+            writeBytes(out, categories.getName(i).getBytes(StandardCharsets.UTF_8));
+        }
+        writeVarint(out, cursor.getCount());
+
+        // Rows
+        long previousDay = 0;
+        long rows = 0;
+        while (cursor.moveToNext()) {
+            long date = cursor.getLong(dateColumn);
+            long day = Math.floorDiv(date, MILLIS_PER_DAY);
+
+            writeVarint(out, cursor.getLong(idColumn));
+            writeVarint(out, zigzag(cursor.getLong(amountColumn)));
+            int categoryIndex = categories.positionOf(cursor.getInt(categoryColumn));
+            if (categoryIndex < 0) {
+                throw new IOException("Unknown category id " + cursor.getInt(categoryColumn));
+            }
+            writeVarint(out, categoryIndex);
+            writeVarint(out, zigzag(day - previousDay));
+            writeVarint(out, Math.floorMod(date, MILLIS_PER_DAY));
+            if (cursor.isNull(notesColumn)) {
+                writeVarint(out, 0);
+            } else {
+                byte[] notes = cursor.getString(notesColumn).getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, notes.length + 1L);
+                out.write(notes);
+            }
+
+            previousDay = day;
+            rows++;
+        }
+        out.flush();
+        return rows;
+    }
+
+    /**
+     * Read a backup and insert its rows in chunks, one transaction per chunk
+     */
+    static long readBackup(DataInputStream in, ExpenseDao expenseDao, CategoryDao categoryDao,
+                           BatchingWriteExecutor writeExecutor) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) throw new IOException("Not an expense backup");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported backup version " + version);
+        }
+
+        // Map the file's dictionary onto category ids by name, adding categories that are missing
+        int[] dictionary = new int[(int) readVarint(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            String name = new String(readBytes(in, (int) readVarint(in)), StandardCharsets.UTF_8).trim();
+            dictionary[i] = name.isEmpty()
+                    ? Category.OTHER.getId()
+                    : await(writeExecutor.submit(() -> categoryDao.getOrInsert(name)), "Failed to restore categories");
+        }
+
+        long rowCount = readVarint(in);
+        List<Expense> chunk = new ArrayList<>(RESTORE_CHUNK_SIZE);
+        long day = 0;
+        long restored = 0;
+        for (long row = 0; row < rowCount; row++) {
+            long id = readVarint(in);
+            long amountMinor = unzigzag(readVarint(in));
+            int categoryIndex = (int) readVarint(in);
+            day += unzigzag(readVarint(in));
+            long millisOfDay = readVarint(in);
+            int notesLength = (int) readVarint(in);
+            String notes = notesLength == 0
+                    ? null
+                    : new String(readBytes(in, notesLength - 1), StandardCharsets.UTF_8);
+
+            if (categoryIndex < 0 || categoryIndex >= dictionary.length) {
+                throw new IOException("Bad category index " + categoryIndex + " in row " + row);
+            }
+            Expense expense = new Expense(amountMinor, dictionary[categoryIndex],
+                    new Date(day * MILLIS_PER_DAY + millisOfDay), notes);
+            expense.setId(id);
+            chunk.add(expense);
+
+            if (chunk.size() >= RESTORE_CHUNK_SIZE) {
+                restored += insertChunk(writeExecutor, expenseDao, chunk);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            restored += insertChunk(writeExecutor, expenseDao, chunk);
+        }
+        return restored;
+    }
+
+    private static int insertChunk(BatchingWriteExecutor writeExecutor, ExpenseDao expenseDao,
+                                   List<Expense> chunk) throws IOException {
+        List<Expense> rows = new ArrayList<>(chunk);
+        chunk.clear();
+        await(writeExecutor.submit(() -> expenseDao.insertAll(rows)), "Failed to restore rows");
+        return rows.size();
+    }
+
+    /**
+     * Wait for a write queued on the write executor
+     */
+    private static <T> T await(Future<T> write, String failureMessage) throws IOException {
+        try {
+            return write.get();
+        } catch (ExecutionException e) {
+            throw new IOException(failureMessage, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Restore interrupted", e);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b == -1) throw new EOFException("Truncated backup");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeBytes(OutputStream out, byte[] bytes) throws IOException {
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        if (length < 0) throw new IOException("Negative length");
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
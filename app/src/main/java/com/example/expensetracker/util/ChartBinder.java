@@ -0,0 +1,210 @@
+package com.example.expensetracker.util;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.data.dao.ExpenseDao.CategorySum;
+import com.example.expensetracker.data.model.Money;
+import com.example.expensetracker.data.model.TrendGranularity;
+import com.example.expensetracker.data.model.TrendSeries;
+import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.Chart;
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.charts.PieChart;
+import com.github.mikephil.charting.components.AxisBase;
+import com.github.mikephil.charting.data.BarDataSet;
+import com.github.mikephil.charting.data.BarEntry;
+import com.github.mikephil.charting.data.DataSet;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.data.PieDataSet;
+import com.github.mikephil.charting.data.PieEntry;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Binds expense statistics to a set of charts.
+ * Each chart is configured once when the binder is created; later updates overwrite the
+ * values of the existing entries, add or drop only the difference in entry count, and call
+ * notifyDataSetChanged, so a refresh costs one small write per category or bucket.
+ * Create one binder per view hierarchy and use it on the main thread.
+ */
+public class ChartBinder {
+
+    /**
+     * Number of trend buckets visible before the user zooms out; older buckets are a scroll away
+     */
+    private static final float TREND_VISIBLE_BUCKETS = 60f;
+
+    private final PieChart pieChart;
+    private final BarChart barChart;
+    private final LineChart trendChart;
+    private final PieDataSet pieDataSet;
+    private final BarDataSet barDataSet;
+    private final LineDataSet trendDataSet;
+    private final List<String> barLabels = new ArrayList<>();
+    private final TrendDateFormatter trendFormatter = new TrendDateFormatter();
+    private int animationMillis;
+
+    /**
+     * Configure the charts
+     * @param pieChart Chart for category distribution
+     * @param barChart Chart for category comparison
+     * @param trendChart Chart for the spending trend
+     * @param context Context for resources
+     */
+    public ChartBinder(@NonNull PieChart pieChart, @NonNull BarChart barChart,
+                       @NonNull LineChart trendChart, @NonNull Context context) {
+        this.pieChart = pieChart;
+        this.barChart = barChart;
+        this.trendChart = trendChart;
+        this.pieDataSet = ChartHelper.configurePieChart(pieChart);
+        this.barDataSet = ChartHelper.configureBarChart(barChart, new BarLabelFormatter());
+        this.trendDataSet = ChartHelper.configureTrendChart(trendChart, trendFormatter, context);
+    }
+
+    /**
+     * Animate category chart updates
+     * @param millis Animation duration, or 0 to redraw without animating
+     */
+    public void setAnimationDuration(int millis) {
+        this.animationMillis = millis;
+    }
+
+    /**
+     * Show category sums in the pie and bar charts
+     * @param categorySums Category sums to display
+     */
+    public void bindCategorySums(@NonNull List<CategorySum> categorySums) {
+        int size = categorySums.size();
+
+        // Pie: one slice per category
+        List<PieEntry> slices = pieDataSet.getValues();
+        resize(pieDataSet, size, i -> new PieEntry(0f));
+        for (int i = 0; i < size; i++) {
+            CategorySum sum = categorySums.get(i);
+            PieEntry slice = slices.get(i);
+            slice.setY((float) Money.toMajor(sum.totalMinor));
+            slice.setLabel(sum.category);
+        }
+
+        // Bar: one bar per category, labelled on the X axis
+        List<BarEntry> bars = barDataSet.getValues();
+        resize(barDataSet, size, i -> new BarEntry(i, 0f));
+        barLabels.clear();
+        for (int i = 0; i < size; i++) {
+            CategorySum sum = categorySums.get(i);
+            bars.get(i).setY((float) Money.toMajor(sum.totalMinor));
+            barLabels.add(sum.category);
+        }
+        barChart.getXAxis().setLabelCount(size);
+
+        refresh(pieChart, pieDataSet);
+        refresh(barChart, barDataSet);
+    }
+
+    /**
+     * Show a trend series in the line chart
+     * @param series Dense trend series to display
+     */
+    public void bindTrend(@NonNull TrendSeries series) {
+        int size = series.size();
+        boolean granularityChanged = trendFormatter.setSeries(series);
+
+        List<Entry> points = trendDataSet.getValues();
+        resize(trendDataSet, size, i -> new Entry(i, 0f));
+        for (int i = 0; i < size; i++) {
+            points.get(i).setY((float) Money.toMajor(series.getTotalMinor(i)));
+        }
+
+        trendDataSet.notifyDataSetChanged();
+        trendChart.getData().notifyDataChanged();
+        trendChart.notifyDataSetChanged();
+        trendChart.setVisibleXRangeMaximum(TREND_VISIBLE_BUCKETS);
+        if (granularityChanged) {
+            // A different bucket size is a different series; jump to the latest buckets
+            trendChart.moveViewToX(Math.max(0, size - TREND_VISIBLE_BUCKETS));
+        } else {
+            trendChart.invalidate();
+        }
+    }
+
+    /**
+     * Factory for entries appended when a dataset grows
+     */
+    private interface EntryFactory<E extends Entry> {
+        E create(int index);
+    }
+
+    /**
+     * Grow or shrink a dataset to the given size, keeping existing entries for reuse
+     */
+    private static <E extends Entry> void resize(DataSet<E> dataSet, int size, EntryFactory<E> factory) {
+        List<E> values = dataSet.getValues();
+        while (values.size() > size) {
+            values.remove(values.size() - 1);
+        }
+        while (values.size() < size) {
+            values.add(factory.create(values.size()));
+        }
+    }
+
+    private void refresh(Chart<?> chart, DataSet<?> dataSet) {
+        dataSet.notifyDataSetChanged();
+        chart.getData().notifyDataChanged();
+        chart.notifyDataSetChanged();
+        chart.highlightValues(null);
+        if (animationMillis > 0) {
+            chart.animateY(animationMillis);
+        } else {
+            chart.invalidate();
+        }
+    }
+
+    /**
+     * Formats bar X values (category indices) as category names from the latest bind
+     */
+    private class BarLabelFormatter extends ValueFormatter {
+        @Override
+        public String getAxisLabel(float value, AxisBase axis) {
+            int index = Math.round(value);
+            return index >= 0 && index < barLabels.size() ? barLabels.get(index) : "";
+        }
+    }
+
+    /**
+     * Formats trend X values (bucket indices) as the date of the bucket
+     */
+    private static class TrendDateFormatter extends ValueFormatter {
+        private final Date date = new Date();
+        private TrendSeries series;
+        private TrendGranularity granularity;
+        private SimpleDateFormat format;
+
+        /**
+         * @return true if the granularity differs from the previous series
+         */
+        boolean setSeries(TrendSeries series) {
+            this.series = series;
+            if (series.getGranularity() == granularity) return false;
+            granularity = series.getGranularity();
+            format = new SimpleDateFormat(granularity == TrendGranularity.MONTH ? "MMM yyyy" : "MMM dd",
+                    Locale.getDefault());
+            return true;
+        }
+
+        @Override
+        public String getAxisLabel(float value, AxisBase axis) {
+            int index = Math.round(value);
+            if (series == null || index < 0 || index >= series.size()) return "";
+            date.setTime(series.getBucketStart(index));
+            return format.format(date);
+        }
+    }
+}
@@ -3,19 +3,23 @@ package com.example.expensetracker.util;
 import android.content.Context;
 import android.graphics.Color;
 
-import com.example.expensetracker.data.dao.ExpenseDao.CategorySum;
+import com.example.expensetracker.R;
 import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.charts.PieChart;
 import com.github.mikephil.charting.components.Legend;
 import com.github.mikephil.charting.components.XAxis;
 import com.github.mikephil.charting.data.BarData;
 import com.github.mikephil.charting.data.BarDataSet;
 import com.github.mikephil.charting.data.BarEntry;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.data.PieData;
 import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.data.PieEntry;
-import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
 import com.github.mikephil.charting.formatter.PercentFormatter;
+import com.github.mikephil.charting.formatter.ValueFormatter;
 import com.github.mikephil.charting.utils.ColorTemplate;
 
 import java.util.ArrayList;
@@ -23,112 +27,142 @@ import java.util.List;
 
 /**
  * Helper class for setting up and configuring charts using MPAndroidChart library.
- * Provides methods for creating pie charts and bar charts for expense data visualization.
+ * Each method configures a chart's appearance once and attaches an empty dataset;
+ * ChartBinder then updates that dataset in place as data changes.
  */
 public class ChartHelper {
 
     /**
-     * Set up a pie chart for category distribution
+     * Slice colors for the pie chart, built once
+     */
+    private static final List<Integer> PIE_COLORS = buildPieColors();
+
+    private static final String PIE_LABEL = "Categories";
+    private static final String BAR_LABEL = "Expenses by Category";
+    private static final String TREND_LABEL = "Trend";
+
+    /**
+     * Configure a pie chart for category distribution
      * @param pieChart The PieChart view to configure
-     * @param categorySums List of category sums to display
-     * @param context Application context
+     * @return The chart's dataset, initially empty
      */
-    public static void setupPieChart(PieChart pieChart, List<CategorySum> categorySums, Context context) {
+    public static PieDataSet configurePieChart(PieChart pieChart) {
         // Configure pie chart appearance
         pieChart.setUsePercentValues(true);
         pieChart.getDescription().setEnabled(false);
         pieChart.setExtraOffsets(5, 10, 5, 5);
         pieChart.setDragDecelerationFrictionCoef(0.95f);
-        
+
         pieChart.setDrawHoleEnabled(true);
         pieChart.setHoleColor(Color.WHITE);
         pieChart.setTransparentCircleRadius(61f);
-        
+
         // Configure legend
         Legend legend = pieChart.getLegend();
         legend.setVerticalAlignment(Legend.LegendVerticalAlignment.TOP);
         legend.setHorizontalAlignment(Legend.LegendHorizontalAlignment.RIGHT);
         legend.setOrientation(Legend.LegendOrientation.VERTICAL);
         legend.setDrawInside(false);
-        
-        // Create entries from data
-        List<PieEntry> entries = new ArrayList<>();
-        for (CategorySum categorySum : categorySums) {
-            entries.add(new PieEntry((float) categorySum.total, categorySum.category));
-        }
-        
+
         // Create dataset
-        PieDataSet dataSet = new PieDataSet(entries, "Categories");
+        PieDataSet dataSet = new PieDataSet(new ArrayList<>(), PIE_LABEL);
         dataSet.setSliceSpace(3f);
         dataSet.setSelectionShift(5f);
-        
-        // Set colors
-        ArrayList<Integer> colors = new ArrayList<>();
-        for (int c : ColorTemplate.MATERIAL_COLORS) {
-            colors.add(c);
-        }
-        for (int c : ColorTemplate.VORDIPLOM_COLORS) {
-            colors.add(c);
-        }
-        dataSet.setColors(colors);
-        
+        dataSet.setColors(PIE_COLORS);
+
         // Configure data
         PieData data = new PieData(dataSet);
         data.setValueFormatter(new PercentFormatter(pieChart));
         data.setValueTextSize(11f);
         data.setValueTextColor(Color.WHITE);
-        
+
         pieChart.setData(data);
-        pieChart.highlightValues(null);
-        pieChart.invalidate();
+        return dataSet;
     }
-    
+
     /**
-     * Set up a bar chart for category comparison
+     * Configure a bar chart for category comparison
      * @param barChart The BarChart view to configure
-     * @param categorySums List of category sums to display
-     * @param context Application context
+     * @param labelFormatter Formatter for the X axis category labels
+     * @return The chart's dataset, initially empty
      */
-    public static void setupBarChart(BarChart barChart, List<CategorySum> categorySums, Context context) {
+    public static BarDataSet configureBarChart(BarChart barChart, ValueFormatter labelFormatter) {
         // Configure bar chart appearance
         barChart.setDrawBarShadow(false);
         barChart.setDrawValueAboveBar(true);
         barChart.getDescription().setEnabled(false);
         barChart.setPinchZoom(false);
         barChart.setDrawGridBackground(false);
-        
+        barChart.setFitBars(true);
+
         // Configure X axis
         XAxis xAxis = barChart.getXAxis();
         xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
         xAxis.setGranularity(1f);
         xAxis.setDrawGridLines(false);
-        
-        // Create entries and labels from data
-        ArrayList<BarEntry> entries = new ArrayList<>();
-        ArrayList<String> labels = new ArrayList<>();
-        
-        for (int i = 0; i < categorySums.size(); i++) {
-            CategorySum categorySum = categorySums.get(i);
-            entries.add(new BarEntry(i, (float) categorySum.total));
-            labels.add(categorySum.category);
-        }
-        
-        // Set X axis labels
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(labels));
-        xAxis.setLabelCount(labels.size());
         xAxis.setLabelRotationAngle(45f);
-        
+        xAxis.setValueFormatter(labelFormatter);
+
         // Create dataset
-        BarDataSet dataSet = new BarDataSet(entries, "Expenses by Category");
+        BarDataSet dataSet = new BarDataSet(new ArrayList<BarEntry>(), BAR_LABEL);
         dataSet.setColors(ColorTemplate.MATERIAL_COLORS);
-        
+
         // Configure data
         BarData data = new BarData(dataSet);
         data.setBarWidth(0.9f);
         data.setValueTextSize(10f);
-        
+
         barChart.setData(data);
-        barChart.setFitBars(true);
-        barChart.invalidate();
+        return dataSet;
+    }
+
+    /**
+     * Configure a line chart for an expense trend.
+     * Circles, values and cubic smoothing are off so a five-year daily series (about 1,800
+     * points) draws as a single polyline.
+     * @param lineChart The LineChart view to configure
+     * @param dateFormatter Formatter for the X axis bucket dates
+     * @param context Application context
+     * @return The chart's dataset, initially empty
+     */
+    public static LineDataSet configureTrendChart(LineChart lineChart, ValueFormatter dateFormatter,
+                                                  Context context) {
+        // Configure line chart appearance
+        lineChart.getDescription().setEnabled(false);
+        lineChart.getLegend().setEnabled(false);
+        lineChart.setDrawGridBackground(false);
+        lineChart.setScaleYEnabled(false);
+        lineChart.getAxisRight().setEnabled(false);
+        lineChart.getAxisLeft().setAxisMinimum(0f);
+
+        // Configure X axis with bucket dates
+        XAxis xAxis = lineChart.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setGranularity(1f);
+        xAxis.setDrawGridLines(false);
+        xAxis.setValueFormatter(dateFormatter);
+
+        // Create dataset
+        LineDataSet dataSet = new LineDataSet(new ArrayList<Entry>(), TREND_LABEL);
+        dataSet.setMode(LineDataSet.Mode.LINEAR);
+        dataSet.setDrawCircles(false);
+        dataSet.setDrawValues(false);
+        dataSet.setDrawHorizontalHighlightIndicator(false);
+        dataSet.setLineWidth(1.5f);
+        dataSet.setColor(context.getColor(R.color.primary));
+
+        lineChart.setData(new LineData(dataSet));
+        return dataSet;
+    }
+
+    private static List<Integer> buildPieColors() {
+        List<Integer> colors = new ArrayList<>();
+        for (int c : ColorTemplate.MATERIAL_COLORS) {
+            colors.add(c);
+        }
+        for (int c : ColorTemplate.VORDIPLOM_COLORS) {
+            colors.add(c);
+        }
+        return colors;
     }
-}
\ No newline at end of file
+}
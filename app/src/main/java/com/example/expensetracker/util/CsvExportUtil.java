@@ -1,144 +1,215 @@
 package com.example.expensetracker.util;
 
 import android.content.Context;
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
 import android.net.Uri;
 import android.os.Environment;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.documentfile.provider.DocumentFile;
 
-import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.model.ExportFilter;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.text.SimpleDateFormat;
-import java.util.List;
-import java.util.Locale;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Utility class for exporting expense data to CSV format.
  * Provides methods to export expenses to external storage or a user-selected location.
+ * <p>
+ * Rows are streamed from a Room Cursor through one reusable CsvRowEncoder into a
+ * BufferedWriter, so the full expense list is never loaded and each row allocates almost
+ * nothing. All methods do disk I/O and must be called off the main thread; they stop with
+ * an InterruptedIOException if the calling thread is interrupted.
  */
 public class CsvExportUtil {
 
     private static final String CSV_HEADER = "ID,Amount,Category,Date,Notes\n";
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+    private static final int WRITER_BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /**
+     * Listener for export progress, called on the exporting thread. The total is counted
+     * before the rows are read, so it can be off by a few if expenses change meanwhile.
+     */
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
 
     /**
      * Export expenses to a CSV file in the Downloads directory
      * @param context Application context
-     * @param expenses List of expenses to export
+     * @param filter Date range and categories to include
+     * @param listener Optional progress listener
      * @return File path if successful, null otherwise
+     * @throws InterruptedIOException If the export was cancelled
      */
-    public static String exportToDownloads(Context context, List<Expense> expenses) {
+    public static String exportToDownloads(Context context, @NonNull ExportFilter filter,
+                                           @Nullable ProgressListener listener)
+            throws InterruptedIOException {
+        File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
+        if (!downloadsDir.exists()) {
+            downloadsDir.mkdirs();
+        }
+
+        String fileName = "expenses_" + System.currentTimeMillis() + ".csv";
+        File file = new File(downloadsDir, fileName);
+
         try {
-            File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
-            if (!downloadsDir.exists()) {
-                downloadsDir.mkdirs();
-            }
-            
-            String fileName = "expenses_" + System.currentTimeMillis() + ".csv";
-            File file = new File(downloadsDir, fileName);
-            
-            FileOutputStream fos = new FileOutputStream(file);
-            writeExpensesToCsv(fos, expenses);
-            
+            writeExpensesToCsv(context, new FileOutputStream(file), filter, listener);
             return file.getAbsolutePath();
+        } catch (InterruptedIOException e) {
+            file.delete();
+            throw e;
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
     }
-    
+
     /**
      * Export expenses to a user-selected location using Storage Access Framework
      * @param context Application context
-     * @param expenses List of expenses to export
      * @param uri URI of the location selected by the user
+     * @param filter Date range and categories to include
+     * @param listener Optional progress listener
      * @return true if successful, false otherwise
+     * @throws InterruptedIOException If the export was cancelled
      */
-    public static boolean exportToUri(Context context, List<Expense> expenses, Uri uri) {
+    public static boolean exportToUri(Context context, Uri uri, @NonNull ExportFilter filter,
+                                      @Nullable ProgressListener listener)
+            throws InterruptedIOException {
         try {
             OutputStream os = context.getContentResolver().openOutputStream(uri);
             if (os != null) {
-                writeExpensesToCsv(os, expenses);
+                writeExpensesToCsv(context, os, filter, listener);
                 return true;
             }
             return false;
+        } catch (InterruptedIOException e) {
+            throw e;
         } catch (IOException e) {
             e.printStackTrace();
             return false;
         }
     }
-    
+
     /**
      * Create a new CSV file at a user-selected directory
      * @param context Application context
-     * @param expenses List of expenses to export
      * @param directoryUri URI of the directory selected by the user
+     * @param filter Date range and categories to include
+     * @param listener Optional progress listener
      * @return URI of the created file if successful, null otherwise
+     * @throws InterruptedIOException If the export was cancelled
      */
-    public static Uri createCsvInDirectory(Context context, List<Expense> expenses, Uri directoryUri) {
+    public static Uri createCsvInDirectory(Context context, Uri directoryUri, @NonNull ExportFilter filter,
+                                           @Nullable ProgressListener listener)
+            throws InterruptedIOException {
         try {
             DocumentFile pickedDir = DocumentFile.fromTreeUri(context, directoryUri);
             if (pickedDir == null) return null;
-            
+
             String fileName = "expenses_" + System.currentTimeMillis() + ".csv";
             DocumentFile newFile = pickedDir.createFile("text/csv", fileName);
             if (newFile == null) return null;
-            
+
             OutputStream os = context.getContentResolver().openOutputStream(newFile.getUri());
             if (os != null) {
-                writeExpensesToCsv(os, expenses);
+                writeExpensesToCsv(context, os, filter, listener);
                 return newFile.getUri();
             }
             return null;
+        } catch (InterruptedIOException e) {
+            throw e;
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
     }
-    
+
     /**
-     * Write expenses to a CSV file
-     * @param os OutputStream to write to
-     * @param expenses List of expenses to export
-     * @throws IOException If an I/O error occurs
+     * Stream the expenses matching a filter from the database to a CSV file
+     * @param context Application context
+     * @param os OutputStream to write to; closed when done
+     * @param filter Date range and categories to include
+     * @param listener Optional progress listener
+     * @throws IOException If an I/O error occurs or the thread is interrupted
      */
-    private static void writeExpensesToCsv(OutputStream os, List<Expense> expenses) throws IOException {
-        // Write header
-        os.write(CSV_HEADER.getBytes());
-        
-        // Write data rows
-        for (Expense expense : expenses) {
-            StringBuilder sb = new StringBuilder();
-            sb.append(expense.getId()).append(',');
-            sb.append(expense.getAmount()).append(',');
-            sb.append(escapeSpecialCharacters(expense.getCategory())).append(',');
-            sb.append(DATE_FORMAT.format(expense.getDate())).append(',');
-            sb.append(escapeSpecialCharacters(expense.getNotes())).append('\n');
-            
-            os.write(sb.toString().getBytes());
+    private static void writeExpensesToCsv(Context context, OutputStream os, ExportFilter filter,
+                                           @Nullable ProgressListener listener) throws IOException {
+        ExpenseDao expenseDao = AppDatabase.getInstance(context).expenseDao();
+        // Only count when someone is listening; the cursor itself is never asked for its size
+        long totalRows = listener != null ? expenseDao.countExpenses(filter) : -1;
+        try (Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(os, StandardCharsets.UTF_8), WRITER_BUFFER_SIZE);
+             Cursor cursor = expenseDao.getExpensesCursor(filter)) {
+            writeCursorToCsv(cursor, totalRows, writer, listener);
         }
-        
-        os.flush();
-        os.close();
     }
-    
+
     /**
-     * Escape special characters in CSV fields
-     * @param data The string to escape
-     * @return Escaped string
+     * Write the rows of an expenses cursor as CSV.
+     * The cursor must have the columns id, amount_minor, category (the name), date and notes.
+     * @param cursor Cursor positioned before the first row
+     * @param totalRows Expected number of rows, for progress, or -1 if unknown
+     * @param writer Writer to write to
+     * @param listener Optional progress listener
+     * @return Number of rows written
+     * @throws IOException If an I/O error occurs or the thread is interrupted
      */
-    private static String escapeSpecialCharacters(String data) {
-        if (data == null) return "";
-        
-        String escapedData = data.replaceAll("\"", "\"\"");
-        if (escapedData.contains(",") || escapedData.contains("\"") || 
-            escapedData.contains("\n") || escapedData.contains("\r")) {
-            return "\""+escapedData+"\"";
+    static long writeCursorToCsv(Cursor cursor, long totalRows, Writer writer,
+                                 @Nullable ProgressListener listener) throws IOException {
+        int idColumn = cursor.getColumnIndexOrThrow("id");
+        int amountColumn = cursor.getColumnIndexOrThrow("amount_minor");
+        int categoryColumn = cursor.getColumnIndexOrThrow("category");
+        int dateColumn = cursor.getColumnIndexOrThrow("date");
+        int notesColumn = cursor.getColumnIndexOrThrow("notes");
+
+        CsvRowEncoder encoder = new CsvRowEncoder();
+        CharArrayBuffer text = new CharArrayBuffer(128);
+
+        // Write header
+        writer.write(CSV_HEADER);
+
+        // Write data rows
+        long rowsWritten = 0;
+        while (cursor.moveToNext()) {
+            encoder.appendLong(cursor.getLong(idColumn));
+            encoder.appendMinorUnits(cursor.getLong(amountColumn));
+            cursor.copyStringToBuffer(categoryColumn, text);
+            encoder.appendText(text.data, text.sizeCopied);
+            encoder.appendDate(cursor.getLong(dateColumn));
+            if (cursor.isNull(notesColumn)) {
+                encoder.appendEmpty();
+            } else {
+                cursor.copyStringToBuffer(notesColumn, text);
+                encoder.appendText(text.data, text.sizeCopied);
+            }
+            encoder.writeRow(writer);
+
+            rowsWritten++;
+            if (rowsWritten % PROGRESS_INTERVAL == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Export cancelled after " + rowsWritten + " rows");
+                }
+                if (listener != null) listener.onProgress(rowsWritten, totalRows);
+            }
         }
-        return escapedData;
+
+        writer.flush();
+        if (listener != null) listener.onProgress(rowsWritten, totalRows);
+        return rowsWritten;
     }
-}
\ No newline at end of file
+}
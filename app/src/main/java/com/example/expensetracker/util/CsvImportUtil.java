@@ -0,0 +1,359 @@
+package com.example.expensetracker.util;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.provider.OpenableColumns;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.expensetracker.data.AppDatabase;
+import com.example.expensetracker.data.BatchingWriteExecutor;
+import com.example.expensetracker.data.CategoryCache;
+import com.example.expensetracker.data.dao.ExpenseDao;
+import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.data.model.Money;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Utility class for importing expense data from CSV files.
+ * Reads the format written by CsvExportUtil (ID,Amount,Category,Date,Notes) with RFC-4180
+ * quoting. The file is streamed and inserted in chunks, one transaction per chunk, so memory
+ * use does not depend on the file size.
+ */
+public class CsvImportUtil {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final int COLUMN_COUNT = 5;
+    private static final int COLUMN_AMOUNT = 1;
+    private static final int COLUMN_CATEGORY = 2;
+    private static final int COLUMN_DATE = 3;
+    private static final int COLUMN_NOTES = 4;
+
+    /**
+     * Listener for import progress, called on the importing thread after each chunk
+     */
+    public interface ProgressListener {
+        void onProgress(@NonNull ImportResult progress);
+    }
+
+    /**
+     * Counters for an import in progress or finished
+     */
+    public static class ImportResult {
+        private long rowsImported;
+        private long rowsSkipped;
+        private long bytesRead;
+        private final long totalBytes;
+        private final long startTime;
+        private long elapsedMillis;
+
+        ImportResult(long totalBytes) {
+            this.totalBytes = totalBytes;
+            this.startTime = SystemClock.elapsedRealtime();
+        }
+
+        public long getRowsImported() {
+            return rowsImported;
+        }
+
+        public long getRowsSkipped() {
+            return rowsSkipped;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        /**
+         * @return Size of the file in bytes, or -1 if the provider does not report it
+         */
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return Fraction of the file read so far (0-1), or -1 if the size is unknown
+         */
+        public float getFraction() {
+            return totalBytes > 0 ? Math.min(1f, (float) bytesRead / totalBytes) : -1f;
+        }
+
+        /**
+         * @return Imported rows per second
+         */
+        public double getRowsPerSecond() {
+            return elapsedMillis > 0 ? rowsImported * 1000.0 / elapsedMillis : 0.0;
+        }
+
+        private void update(long bytesRead) {
+            this.bytesRead = bytesRead;
+            this.elapsedMillis = SystemClock.elapsedRealtime() - startTime;
+        }
+    }
+
+    /**
+     * Import expenses from a CSV file selected with the Storage Access Framework.
+     * IDs in the file are ignored so imported rows never overwrite existing ones.
+     * Must be called off the main thread.
+     * @param context Application context
+     * @param uri URI of the CSV file
+     * @param chunkSize Number of rows inserted per transaction
+     * @param listener Optional progress listener
+     * @return Counters for the finished import
+     * @throws IOException If the file cannot be read or a chunk fails to insert
+     */
+    public static ImportResult importFromUri(Context context, Uri uri, int chunkSize,
+                                             @Nullable ProgressListener listener) throws IOException {
+        InputStream raw = context.getContentResolver().openInputStream(uri);
+        if (raw == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+
+        AppDatabase database = AppDatabase.getInstance(context);
+        ExpenseDao expenseDao = database.expenseDao();
+        BatchingWriteExecutor writeExecutor = BatchingWriteExecutor.getInstance(database);
+        CategoryTable categories = CategoryCache.getInstance(database).get();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+
+        ImportResult result = new ImportResult(querySize(context, uri));
+        try (CountingInputStream counting = new CountingInputStream(raw);
+             CsvReader reader = new CsvReader(new BufferedReader(
+                     new InputStreamReader(counting, StandardCharsets.UTF_8)))) {
+
+            List<Expense> chunk = new ArrayList<>(chunkSize);
+            List<String> fields = new ArrayList<>(COLUMN_COUNT);
+            boolean firstRecord = true;
+
+            while (reader.readRecord(fields)) {
+                if (firstRecord) {
+                    firstRecord = false;
+                    if (isHeader(fields)) continue;
+                }
+                if (fields.size() == 1 && fields.get(0).trim().isEmpty()) {
+                    continue; // Blank line
+                }
+
+                Expense expense = toExpense(fields, dateFormat, categories);
+                if (expense == null) {
+                    result.rowsSkipped++;
+                    continue;
+                }
+
+                chunk.add(expense);
+                if (chunk.size() >= chunkSize) {
+                    insertChunk(writeExecutor, expenseDao, chunk, result);
+                    result.update(counting.getCount());
+                    if (listener != null) listener.onProgress(result);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                insertChunk(writeExecutor, expenseDao, chunk, result);
+            }
+            result.update(counting.getCount());
+            if (listener != null) listener.onProgress(result);
+        }
+        return result;
+    }
+
+    /**
+     * Insert a chunk in one transaction and wait for it, so at most one chunk is held in memory
+     */
+    private static void insertChunk(BatchingWriteExecutor writeExecutor, ExpenseDao expenseDao,
+                                    List<Expense> chunk, ImportResult result) throws IOException {
+        List<Expense> rows = new ArrayList<>(chunk);
+        chunk.clear();
+        try {
+            writeExecutor.submit(() -> expenseDao.insertAll(rows)).get();
+            result.rowsImported += rows.size();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to insert rows", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        }
+    }
+
+    private static boolean isHeader(List<String> fields) {
+        return !fields.isEmpty() && "ID".equalsIgnoreCase(fields.get(0).trim());
+    }
+
+    /**
+     * Convert one record to an expense. Unknown category names fall back to Other.
+     * @return The expense, or null if the record is malformed
+     */
+    @Nullable
+    private static Expense toExpense(List<String> fields, SimpleDateFormat dateFormat, CategoryTable categories) {
+        if (fields.size() < COLUMN_COUNT - 1) return null;
+        try {
+            long amountMinor = Money.parseMinor(fields.get(COLUMN_AMOUNT));
+
+            int categoryId = categories.idOf(fields.get(COLUMN_CATEGORY).trim());
+            Date date = dateFormat.parse(fields.get(COLUMN_DATE).trim());
+            if (date == null) return null;
+
+            String notes = fields.size() > COLUMN_NOTES ? fields.get(COLUMN_NOTES) : "";
+            return new Expense(amountMinor, categoryId, date, notes.isEmpty() ? null : notes);
+        } catch (NumberFormatException | ParseException e) {
+            return null;
+        }
+    }
+
+    private static long querySize(Context context, Uri uri) {
+        try (Cursor cursor = context.getContentResolver()
+                .query(uri, new String[]{OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        } catch (RuntimeException e) {
+            // Some providers do not support the size column
+        }
+        return -1;
+    }
+
+    /**
+     * Streaming RFC-4180 record reader; the inverse of CsvExportUtil's escaping.
+     * Handles quoted fields with embedded commas, doubled quotes and line breaks,
+     * and both LF and CRLF record endings. One field buffer is reused for the whole file.
+     */
+    static class CsvReader implements AutoCloseable {
+        private final Reader reader;
+        private final StringBuilder field = new StringBuilder();
+        private int pushedBack = -2;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Read the next record into fields (cleared first)
+         * @return false at end of input
+         */
+        boolean readRecord(List<String> fields) throws IOException {
+            fields.clear();
+            field.setLength(0);
+
+            int c = read();
+            if (c == -1) return false;
+
+            boolean quoted = false;
+            boolean fieldStarted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        // Unterminated quote: keep what we have
+                        fields.add(field.toString());
+                        return true;
+                    } else if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && !fieldStarted) {
+                    quoted = true;
+                    fieldStarted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    fieldStarted = false;
+                } else if (c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    return true;
+                } else if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') unread(next);
+                    fields.add(field.toString());
+                    return true;
+                } else {
+                    field.append((char) c);
+                    fieldStarted = true;
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private void unread(int c) {
+            pushedBack = c;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * InputStream that counts the bytes read through it, for progress reporting
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.expensetracker.util;
+
+import com.example.expensetracker.data.model.Money;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Calendar;
+
+/**
+ * Encodes CSV rows into a single reusable char buffer.
+ * Fields are escaped per RFC-4180 without regular expressions or intermediate Strings,
+ * so encoding a row allocates nothing once the buffer has grown to the longest row.
+ * Not thread-safe; use one encoder per export.
+ */
+public class CsvRowEncoder {
+
+    private char[] buffer = new char[256];
+    private int length;
+    private boolean firstField = true;
+    private final StringBuilder scratch = new StringBuilder(32);
+    private final Calendar calendar = Calendar.getInstance();
+
+    /**
+     * Append a whole number field
+     */
+    public CsvRowEncoder appendLong(long value) {
+        separator();
+        scratch.setLength(0);
+        scratch.append(value);
+        appendScratch();
+        return this;
+    }
+
+    /**
+     * Append an amount field as a plain decimal such as 12.05, see Money.appendPlain
+     * @param minor Amount in minor units
+     */
+    public CsvRowEncoder appendMinorUnits(long minor) {
+        separator();
+        scratch.setLength(0);
+        Money.appendPlain(scratch, minor);
+        appendScratch();
+        return this;
+    }
+
+    /**
+     * Append a date field as yyyy-MM-dd in the default time zone
+     * @param millis Date in milliseconds since epoch
+     */
+    public CsvRowEncoder appendDate(long millis) {
+        separator();
+        calendar.setTimeInMillis(millis);
+        ensureCapacity(10);
+        length = appendDigits(calendar.get(Calendar.YEAR), 4);
+        buffer[length++] = '-';
+        length = appendDigits(calendar.get(Calendar.MONTH) + 1, 2);
+        buffer[length++] = '-';
+        length = appendDigits(calendar.get(Calendar.DAY_OF_MONTH), 2);
+        return this;
+    }
+
+    /**
+     * Append a text field, quoting it if it contains a comma, quote or line break
+     */
+    public CsvRowEncoder appendText(CharSequence text) {
+        separator();
+        if (text == null) return this;
+        int count = text.length();
+        ensureCapacity(count * 2 + 2);
+        if (!needsQuoting(text, count)) {
+            for (int i = 0; i < count; i++) {
+                buffer[length++] = text.charAt(i);
+            }
+            return this;
+        }
+        buffer[length++] = '"';
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c == '"') buffer[length++] = '"';
+            buffer[length++] = c;
+        }
+        buffer[length++] = '"';
+        return this;
+    }
+
+    /**
+     * Append a text field held in a char array (for example a CharArrayBuffer from a Cursor)
+     */
+    public CsvRowEncoder appendText(char[] data, int count) {
+        separator();
+        ensureCapacity(count * 2 + 2);
+        boolean quote = false;
+        for (int i = 0; i < count; i++) {
+            char c = data[i];
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            System.arraycopy(data, 0, buffer, length, count);
+            length += count;
+            return this;
+        }
+        buffer[length++] = '"';
+        for (int i = 0; i < count; i++) {
+            char c = data[i];
+            if (c == '"') buffer[length++] = '"';
+            buffer[length++] = c;
+        }
+        buffer[length++] = '"';
+        return this;
+    }
+
+    /**
+     * Append an empty field
+     */
+    public CsvRowEncoder appendEmpty() {
+        separator();
+        return this;
+    }
+
+    /**
+     * Terminate the current row, write it and reset the buffer for the next row
+     * @param writer Destination, ideally buffered
+     */
+    public void writeRow(Writer writer) throws IOException {
+        ensureCapacity(1);
+        buffer[length++] = '\n';
+        writer.write(buffer, 0, length);
+        length = 0;
+        firstField = true;
+    }
+
+    /**
+     * @return Number of chars in the row being built
+     */
+    public int length() {
+        return length;
+    }
+
+    private static boolean needsQuoting(CharSequence text, int count) {
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private void separator() {
+        if (firstField) {
+            firstField = false;
+        } else {
+            ensureCapacity(1);
+            buffer[length++] = ',';
+        }
+    }
+
+    private void appendScratch() {
+        int count = scratch.length();
+        ensureCapacity(count);
+        scratch.getChars(0, count, buffer, length);
+        length += count;
+    }
+
+    private int appendDigits(int value, int width) {
+        int end = length + width;
+        for (int i = end - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            char[] grown = new char[Math.max(buffer.length * 2, length + extra)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.expensetracker.util;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.data.model.Money;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Formats minor-unit amounts as currency without going through double or NumberFormat.
+ * <p>
+ * The locale's currency pattern (affixes, digits, separators and grouping sizes, including the
+ * two-digit secondary grouping of bn-BD) is read from NumberFormat once, in the constructor.
+ * After that appendTo writes digits straight into the caller's StringBuilder and allocates
+ * nothing; format allocates only the returned String. Output matches
+ * NumberFormat.getCurrencyInstance for the same locale.
+ * <p>
+ * Not thread-safe; use one instance per thread.
+ */
+public final class MoneyFormat {
+
+    /**
+     * Locale used for amounts throughout the app
+     */
+    public static final Locale LOCALE = new Locale("bn", "BD");
+
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final char zeroDigit;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final int primaryGrouping;
+    private final int secondaryGrouping;
+    private final char[] digits = new char[40];
+    private final StringBuilder scratch = new StringBuilder(32);
+
+    /**
+     * Formatter for the app's currency locale
+     */
+    public MoneyFormat() {
+        this(LOCALE);
+    }
+
+    /**
+     * @param locale Locale whose currency format to follow
+     */
+    public MoneyFormat(@NonNull Locale locale) {
+        NumberFormat numberFormat = NumberFormat.getCurrencyInstance(locale);
+        if (!(numberFormat instanceof DecimalFormat)) {
+            numberFormat = new DecimalFormat("\u00A4#,##0.00", DecimalFormatSymbols.getInstance(locale));
+        }
+        DecimalFormat format = (DecimalFormat) numberFormat;
+        DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+
+        positivePrefix = format.getPositivePrefix();
+        positiveSuffix = format.getPositiveSuffix();
+        negativePrefix = format.getNegativePrefix();
+        negativeSuffix = format.getNegativeSuffix();
+        zeroDigit = symbols.getZeroDigit();
+        groupingSeparator = symbols.getGroupingSeparator();
+        decimalSeparator = symbols.getMonetaryDecimalSeparator();
+
+        // Grouping sizes come from the integer part of the pattern, for example "#,##,##0.00"
+        int primary = 0;
+        int secondary = 0;
+        if (format.isGroupingUsed()) {
+            String pattern = format.toPattern();
+            int end = pattern.indexOf(';');
+            String positive = end >= 0 ? pattern.substring(0, end) : pattern;
+            int point = positive.indexOf('.');
+            String integer = point >= 0 ? positive.substring(0, point) : positive;
+            int last = integer.lastIndexOf(',');
+            if (last >= 0) {
+                primary = countDigits(integer, last + 1, integer.length());
+                int previous = integer.lastIndexOf(',', last - 1);
+                secondary = previous >= 0 ? countDigits(integer, previous + 1, last) : primary;
+            }
+        }
+        primaryGrouping = primary;
+        secondaryGrouping = secondary;
+    }
+
+    /**
+     * Format an amount into a new String
+     * @param minor Amount in minor units
+     * @return Formatted amount, such as 1,234.50 in the locale's digits with its currency sign
+     */
+    @NonNull
+    public String format(long minor) {
+        scratch.setLength(0);
+        return appendTo(scratch, minor).toString();
+    }
+
+    /**
+     * Append a formatted amount without allocating
+     * @param out Destination
+     * @param minor Amount in minor units
+     * @return out, for chaining
+     */
+    @NonNull
+    public StringBuilder appendTo(@NonNull StringBuilder out, long minor) {
+        boolean negative = minor < 0;
+        out.append(negative ? negativePrefix : positivePrefix);
+
+        // Work with non-positive values so Long.MIN_VALUE needs no special case
+        long rest = negative ? minor : -minor;
+        int position = digits.length;
+        for (int i = 0; i < Money.MINOR_DIGITS; i++) {
+            digits[--position] = (char) (zeroDigit - (int) (rest % 10));
+            rest /= 10;
+        }
+        digits[--position] = decimalSeparator;
+
+        int groupSize = primaryGrouping;
+        int inGroup = 0;
+        do {
+            if (groupSize > 0 && inGroup == groupSize) {
+                digits[--position] = groupingSeparator;
+                groupSize = secondaryGrouping;
+                inGroup = 0;
+            }
+            digits[--position] = (char) (zeroDigit - (int) (rest % 10));
+            rest /= 10;
+            inGroup++;
+        } while (rest != 0);
+
+        out.append(digits, position, digits.length - position);
+        return out.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    private static int countDigits(String pattern, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = pattern.charAt(i);
+            if (c == '#' || c == '0') count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.expensetracker.util;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+/**
+ * Cold-start markers, in milliseconds since the process started.
+ * <p>
+ * Three points are recorded once per process: the Application created, the first frame drawn
+ * and the first frame showing expenses (or the empty state) drawn. Each is -1 until reached.
+ * They are sent to the Tracer as counters and logged, and can be read back by instrumented
+ * tests. The first data frame is also reported to the system with reportFullyDrawn, so it shows
+ * in logcat as "Fully drawn" and in startup benchmarks.
+ */
+public final class StartupTimeline {
+
+    private static final String TAG = "StartupTimeline";
+
+    private static volatile long applicationCreatedMillis = -1;
+    private static volatile long firstFrameMillis = -1;
+    private static volatile long firstDataFrameMillis = -1;
+
+    private StartupTimeline() {
+    }
+
+    /**
+     * Record that Application.onCreate has run
+     */
+    @MainThread
+    public static void markApplicationCreated() {
+        if (applicationCreatedMillis < 0) {
+            applicationCreatedMillis = sinceProcessStart();
+            record("startup.applicationCreated", applicationCreatedMillis);
+        }
+    }
+
+    /**
+     * Record the first frame once a view in the window is next drawn
+     * @param view Any attached or about-to-be-attached view of the activity
+     */
+    @MainThread
+    public static void markFirstFrame(@NonNull View view) {
+        if (firstFrameMillis >= 0) return;
+        whenDrawn(view, () -> {
+            if (firstFrameMillis < 0) {
+                firstFrameMillis = sinceProcessStart();
+                record("startup.firstFrame", firstFrameMillis);
+            }
+        });
+    }
+
+    /**
+     * Record the first data frame once a view in the window is next drawn. Call after the
+     * first data has been handed to the view.
+     * @param view View showing the data
+     * @param onDrawn Run on the main thread once the frame is drawn, only the first time
+     */
+    @MainThread
+    public static void markFirstDataFrame(@NonNull View view, @NonNull Runnable onDrawn) {
+        if (firstDataFrameMillis >= 0) return;
+        whenDrawn(view, () -> {
+            if (firstDataFrameMillis < 0) {
+                firstDataFrameMillis = sinceProcessStart();
+                record("startup.firstDataFrame", firstDataFrameMillis);
+                onDrawn.run();
+            }
+        });
+    }
+
+    /**
+     * @return Milliseconds from process start to Application.onCreate, or -1 if not reached
+     */
+    public static long getApplicationCreatedMillis() {
+        return applicationCreatedMillis;
+    }
+
+    /**
+     * @return Milliseconds from process start to the first frame, or -1 if not reached
+     */
+    public static long getFirstFrameMillis() {
+        return firstFrameMillis;
+    }
+
+    /**
+     * @return Milliseconds from process start to the first frame with data, or -1 if not reached
+     */
+    public static long getFirstDataFrameMillis() {
+        return firstDataFrameMillis;
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+
+    private static void record(String name, long millis) {
+        Tracer.counter(name, millis);
+        Tracer.debug(TAG, () -> name + " at " + millis + "ms");
+    }
+
+    /**
+     * Run an action on the next draw of the view's window. Listeners cannot be removed while
+     * the draw is being dispatched, so removal is posted.
+     */
+    private static void whenDrawn(View view, Runnable action) {
+        ViewTreeObserver.OnDrawListener listener = new ViewTreeObserver.OnDrawListener() {
+            private boolean drawn;
+
+            @Override
+            public void onDraw() {
+                if (drawn) return;
+                drawn = true;
+                action.run();
+                ViewTreeObserver.OnDrawListener self = this;
+                view.post(() -> view.getViewTreeObserver().removeOnDrawListener(self));
+            }
+        };
+        view.getViewTreeObserver().addOnDrawListener(listener);
+    }
+}
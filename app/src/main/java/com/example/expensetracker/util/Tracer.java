@@ -0,0 +1,78 @@
+package com.example.expensetracker.util;
+
+import android.os.Build;
+import android.os.Trace;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.expensetracker.BuildConfig;
+
+/**
+ * Tracing and debug logging that compiles away when disabled.
+ * <p>
+ * ENABLED is a compile-time constant taken from BuildConfig.TRACING_ENABLED (true in debug
+ * builds only), so javac drops every {@code if (ENABLED)} body from release builds. Messages are
+ * passed as suppliers and only built when tracing is on. A capturing lambda is still allocated
+ * at the call site, so on hot paths wrap the call in {@code if (Tracer.ENABLED)} as well.
+ * <p>
+ * Sections and counters go to android.os.Trace and show up in Perfetto or systrace captures;
+ * debug messages go to logcat.
+ */
+public final class Tracer {
+
+    public static final boolean ENABLED = BuildConfig.TRACING_ENABLED;
+
+    private static final String TAG = "ExpenseTracker";
+
+    /**
+     * Lazily built log message
+     */
+    public interface MessageSupplier {
+        String get();
+    }
+
+    private Tracer() {
+    }
+
+    /**
+     * Begin a trace section on the current thread; must be paired with endSection on the same thread
+     * @param name Section name, at most 127 characters
+     */
+    public static void beginSection(@NonNull String name) {
+        if (ENABLED) {
+            Trace.beginSection(name);
+        }
+    }
+
+    /**
+     * End the most recent section begun on the current thread
+     */
+    public static void endSection() {
+        if (ENABLED) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Record the current value of a counter track (API 29+; ignored on older devices)
+     * @param name Counter name
+     * @param value Current value
+     */
+    public static void counter(@NonNull String name, long value) {
+        if (ENABLED && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.setCounter(name, value);
+        }
+    }
+
+    /**
+     * Log a debug message
+     * @param tag Source of the message, usually the class name
+     * @param message Supplier of the message, only called when tracing is enabled
+     */
+    public static void debug(@NonNull String tag, @NonNull MessageSupplier message) {
+        if (ENABLED) {
+            Log.d(TAG, tag + ": " + message.get());
+        }
+    }
+}
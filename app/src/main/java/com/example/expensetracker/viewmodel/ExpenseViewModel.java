@@ -1,30 +1,116 @@
 package com.example.expensetracker.viewmodel;
 
 import android.app.Application;
+import android.net.Uri;
 
+import androidx.annotation.MainThread;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
 
 import com.example.expensetracker.data.dao.ExpenseDao.CategorySum;
 import com.example.expensetracker.data.entity.Expense;
+import com.example.expensetracker.data.entity.Budget;
+import com.example.expensetracker.data.model.BudgetStatus;
+import com.example.expensetracker.data.model.CategoryTable;
+import com.example.expensetracker.data.model.ExpenseFilter;
+import com.example.expensetracker.data.model.ExportFilter;
+import com.example.expensetracker.data.model.Money;
+import com.example.expensetracker.data.model.TrendGranularity;
+import com.example.expensetracker.data.model.TrendSeries;
+import com.example.expensetracker.data.model.YearMonth;
+import com.example.expensetracker.data.paging.ExpensePagingSource;
+import com.example.expensetracker.data.paging.FilteredExpensePagingSource;
 import com.example.expensetracker.data.repository.ExpenseRepository;
+import com.example.expensetracker.ui.model.BudgetUiState;
+import com.example.expensetracker.ui.model.ExpenseRow;
+import com.example.expensetracker.ui.model.ExpenseRowMapper;
+import com.example.expensetracker.util.BackupUtil;
+import com.example.expensetracker.util.CsvExportUtil;
+import com.example.expensetracker.util.CsvImportUtil;
+import com.example.expensetracker.util.Tracer;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * ViewModel class that provides data to the UI and survives configuration changes.
  * Acts as a communication center between the Repository and the UI.
+ * <p>
+ * The LiveData behind each screen is built the first time a fragment asks for it, so creating
+ * the ViewModel at launch only sets the default month and filter. Statistics, budget and trend
+ * queries are attached when those screens are first shown, not while the expense list is
+ * starting up.
  */
 public class ExpenseViewModel extends AndroidViewModel {
     
+    private static final String TAG = "ExpenseViewModel";
+    
+    /**
+     * Paging configuration for the expense list. Pages are sized to a couple of screens of rows,
+     * loading starts two pages ahead of the viewport and at most MAX_SIZE rows are held in memory.
+     */
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE * 2;
+    private static final int INITIAL_LOAD_SIZE = PAGE_SIZE * 2;
+    private static final int MAX_SIZE = PAGE_SIZE * 10;
+    
+    /**
+     * Budget shown for months that have none stored, in minor units
+     */
+    public static final long DEFAULT_MONTHLY_BUDGET = 1000 * Money.MINOR_PER_MAJOR;
+    
+    /**
+     * Number of years covered by the trend chart, ending today
+     */
+    private static final int TREND_YEARS = 5;
+    
+    /**
+     * Maximum number of search results shown
+     */
+    private static final int SEARCH_LIMIT = 200;
+    
     private final ExpenseRepository repository;
-    private final LiveData<List<Expense>> allExpenses;
-    private final MutableLiveData<Double> monthlyBudget = new MutableLiveData<>();
+    private final MutableLiveData<ExpenseFilter> filter = new MutableLiveData<>(ExpenseFilter.none());
+    private final ExpenseRowMapper rowMapper;
+    private final ExecutorService rowMapExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService trendExecutor = Executors.newSingleThreadExecutor();
+    private final ListeningExecutorService ioExecutor =
+            MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
     private final MutableLiveData<Integer> currentYear = new MutableLiveData<>();
     private final MutableLiveData<Integer> currentMonth = new MutableLiveData<>();
+    private final MutableLiveData<YearMonth> selectedMonth = new MutableLiveData<>();
+    private final LiveData<YearMonth> distinctMonth = Transformations.distinctUntilChanged(selectedMonth);
+    private final MutableLiveData<TrendGranularity> trendGranularity = new MutableLiveData<>(TrendGranularity.MONTH);
+    
+    // Built on first use by their getters, on the main thread
+    private LiveData<List<Expense>> allExpenses;
+    private LiveData<PagingData<ExpenseRow>> pagedExpenses;
+    private LiveData<PagingData<ExpenseRow>> filteredExpenses;
+    // Read by the filtered pager's source factory; a new filter invalidates the current source
+    private volatile ExpenseFilter pagedFilter = ExpenseFilter.none();
+    private volatile FilteredExpensePagingSource filteredSource;
+    private LiveData<PagingData<ExpenseRow>> expenseList;
+    private LiveData<List<Expense>> currentMonthExpenses;
+    private LiveData<Long> currentMonthExpenseSum;
+    private LiveData<List<CategorySum>> currentMonthCategorySums;
+    private LiveData<BudgetStatus> budgetStatus;
+    private LiveData<Long> monthlyBudget;
+    private LiveData<BudgetUiState> budgetUiState;
+    private LiveData<TrendSeries> trend;
     
     /**
      * Constructor initializes the repository and sets default values
@@ -33,25 +119,132 @@ public class ExpenseViewModel extends AndroidViewModel {
     public ExpenseViewModel(Application application) {
         super(application);
         repository = new ExpenseRepository(application);
-        allExpenses = repository.getAllExpenses();
+        // Rows are mapped on rowMapExecutor, where category names can be read from the database
+        rowMapper = new ExpenseRowMapper(repository::getCategoryTable);
         
         // Set default values for current month and year
-        Calendar calendar = Calendar.getInstance();
-        currentYear.setValue(calendar.get(Calendar.YEAR));
-        currentMonth.setValue(calendar.get(Calendar.MONTH) + 1); // Calendar months are 0-based
-        
-        // Default budget (can be loaded from SharedPreferences in a real app)
-        monthlyBudget.setValue(1000.0);
+        YearMonth now = YearMonth.now();
+        currentYear.setValue(now.getYear());
+        currentMonth.setValue(now.getMonth());
+        selectedMonth.setValue(now);
     }
     
     /**
      * Get all expenses
      * @return LiveData list of all expenses
      */
+    @MainThread
     public LiveData<List<Expense>> getAllExpenses() {
+        if (allExpenses == null) {
+            allExpenses = repository.getAllExpenses();
+        }
         return allExpenses;
     }
     
+    /**
+     * Get all expenses as a paged stream of preformatted rows for the expense list
+     * @return LiveData of paged expense rows, newest first
+     */
+    @MainThread
+    public LiveData<PagingData<ExpenseRow>> getPagedExpenses() {
+        if (pagedExpenses == null) {
+            Pager<ExpensePagingSource.Key, Expense> pager = new Pager<>(
+                    newPagingConfig(), repository::newExpensePagingSource);
+            pagedExpenses = toCachedRows(PagingLiveData.getLiveData(pager));
+        }
+        return pagedExpenses;
+    }
+    
+    /**
+     * Get the expenses matching a filter as a paged stream of preformatted rows. One pager
+     * serves every filter: passing a different filter invalidates its current source, and the
+     * next source is created for the new filter.
+     * @param expenseFilter Criteria and sort order
+     * @return LiveData of paged expense rows, in the filter's order
+     */
+    @MainThread
+    private LiveData<PagingData<ExpenseRow>> getFilteredPagedExpenses(ExpenseFilter expenseFilter) {
+        if (!expenseFilter.equals(pagedFilter)) {
+            pagedFilter = expenseFilter;
+            FilteredExpensePagingSource source = filteredSource;
+            if (source != null) {
+                source.invalidate();
+            }
+        }
+        if (filteredExpenses == null) {
+            Pager<Integer, Expense> pager = new Pager<>(newPagingConfig(), () -> {
+                FilteredExpensePagingSource source = repository.newFilteredPagingSource(pagedFilter);
+                filteredSource = source;
+                return source;
+            });
+            filteredExpenses = toCachedRows(PagingLiveData.getLiveData(pager));
+        }
+        return filteredExpenses;
+    }
+    
+    private static PagingConfig newPagingConfig() {
+        return new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, false, INITIAL_LOAD_SIZE, MAX_SIZE);
+    }
+    
+    /**
+     * Format rows on a background thread as pages arrive, before they reach the adapter, and
+     * cache the result in this ViewModel
+     */
+    private LiveData<PagingData<ExpenseRow>> toCachedRows(LiveData<PagingData<Expense>> pages) {
+        return PagingLiveData.cachedIn(
+                Transformations.map(pages, pagingData ->
+                        PagingDataTransforms.map(pagingData, rowMapExecutor, rowMapper::toRow)),
+                this);
+    }
+    
+    /**
+     * Get the rows for the expense list: the expenses matching the current filter,
+     * or all expenses, paged, when there is no filter
+     * @return LiveData of paged expense rows
+     */
+    @MainThread
+    public LiveData<PagingData<ExpenseRow>> getExpenseList() {
+        if (expenseList == null) {
+            // Without a filter the list pages through every expense. Search text alone keeps the
+            // ranked full-text search; any other filter pages through one compiled query.
+            expenseList = Transformations.switchMap(Transformations.distinctUntilChanged(filter), f -> {
+                if (f.isUnfiltered()) {
+                    return getPagedExpenses();
+                }
+                if (!f.isTextOnly()) {
+                    return getFilteredPagedExpenses(f);
+                }
+                return Transformations.map(repository.searchExpenses(f.getNotesText(), SEARCH_LIMIT), rows ->
+                        PagingDataTransforms.map(PagingData.from(rows), rowMapExecutor, rowMapper::toRow));
+            });
+        }
+        return expenseList;
+    }
+    
+    /**
+     * Set the search text for the expense list, keeping the other filter criteria
+     * @param text Text typed by the user, or empty to stop searching
+     */
+    public void setSearchText(String text) {
+        filter.setValue(requireFilter().buildUpon().setNotesText(text).build());
+    }
+    
+    /**
+     * Set the filter for the expense list
+     * @param expenseFilter Criteria and sort order
+     */
+    public void setFilter(ExpenseFilter expenseFilter) {
+        filter.setValue(expenseFilter);
+    }
+    
+    /**
+     * Get the current expense list filter
+     * @return LiveData containing the filter, ExpenseFilter.none() when not filtering
+     */
+    public LiveData<ExpenseFilter> getFilter() {
+        return filter;
+    }
+    
     /**
      * Get expense by ID
      * @param id Expense ID
@@ -63,154 +256,310 @@ public class ExpenseViewModel extends AndroidViewModel {
     
     /**
      * Get expenses by category
-     * @param category Category to filter by
+     * @param categoryId Id of the category to filter by
      * @return LiveData list of expenses in the category
      */
-    public LiveData<List<Expense>> getExpensesByCategory(String category) {
-        return repository.getExpensesByCategory(category);
+    public LiveData<List<Expense>> getExpensesByCategory(int categoryId) {
+        return repository.getExpensesByCategory(categoryId);
+    }
+    
+    /**
+     * Get every category, built-in and user-defined
+     * @return LiveData of the categories table
+     */
+    public LiveData<CategoryTable> getCategories() {
+        return repository.getCategories();
+    }
+    
+    /**
+     * Add a user-defined category without blocking the caller
+     * @param name Display name; must not be blank
+     * @return Future completing with the new category's id, or -1 if the name is taken
+     */
+    public ListenableFuture<Long> addCategory(String name) {
+        return repository.addCategory(name);
     }
     
     /**
-     * Get expenses for the current month
-     * @return LiveData list of expenses for the current month
+     * Delete a user-defined category, moving its expenses to Other
+     * @param categoryId Id of the category to delete
+     * @return Future completing with the number of expenses moved
      */
+    public ListenableFuture<Integer> deleteCategory(int categoryId) {
+        return repository.deleteCategory(categoryId);
+    }
+    
+    /**
+     * Get expenses for the selected month
+     * @return LiveData list of expenses, following the selected month
+     */
+    @MainThread
     public LiveData<List<Expense>> getCurrentMonthExpenses() {
-        int year = currentYear.getValue() != null ? currentYear.getValue() : Calendar.getInstance().get(Calendar.YEAR);
-        int month = currentMonth.getValue() != null ? currentMonth.getValue() : Calendar.getInstance().get(Calendar.MONTH) + 1;
-        
-        Calendar calendar = Calendar.getInstance();
-        
-        // Start of month
-        calendar.set(year, month - 1, 1, 0, 0, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        Date startDate = calendar.getTime();
-        
-        // End of month
-        calendar.set(Calendar.DAY_OF_MONTH, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.MINUTE, 59);
-        calendar.set(Calendar.SECOND, 59);
-        calendar.set(Calendar.MILLISECOND, 999);
-        Date endDate = calendar.getTime();
-        
-        return repository.getExpensesBetweenDates(startDate, endDate);
+        if (currentMonthExpenses == null) {
+            // switchMap detaches the previous month's source, so observers never accumulate
+            currentMonthExpenses = Transformations.switchMap(distinctMonth, ym ->
+                    repository.getMonthlyExpenses(ym.getYear(), ym.getMonth()));
+        }
+        return currentMonthExpenses;
     }
     
     /**
-     * Get monthly expense sum for the current month
-     * @return LiveData containing the sum
+     * Get the expense sum for the selected month
+     * @return LiveData containing the sum in minor units, following the selected month
      */
-    public LiveData<Double> getCurrentMonthExpenseSum() {
-        System.out.println("DEBUG: ExpenseViewModel.getCurrentMonthExpenseSum called");
-        
-        int year = currentYear.getValue() != null ? currentYear.getValue() : Calendar.getInstance().get(Calendar.YEAR);
-        int month = currentMonth.getValue() != null ? currentMonth.getValue() : Calendar.getInstance().get(Calendar.MONTH) + 1;
-        
-        System.out.println("DEBUG: Getting expense sum for year: " + year + ", month: " + month);
-        LiveData<Double> result = repository.getMonthlyExpenseSum(year, month);
-        
-        // Add an observer to log the value when it changes
-        result.observeForever(sum -> {
-            System.out.println("DEBUG: Expense sum LiveData updated with value: " + sum);
-        });
-        
-        return result;
+    @MainThread
+    public LiveData<Long> getCurrentMonthExpenseSum() {
+        if (currentMonthExpenseSum == null) {
+            // Sums and category splits are computed from the in-memory ledger rather than queried
+            currentMonthExpenseSum = Transformations.switchMap(distinctMonth, ym ->
+                    repository.getMonthlyExpenseSum(ym.getYear(), ym.getMonth()));
+        }
+        return currentMonthExpenseSum;
     }
     
     /**
-     * Get monthly category sums for the current month
-     * @return LiveData list of category sums
+     * Get the category sums for the selected month
+     * @return LiveData list of category sums, following the selected month
      */
+    @MainThread
     public LiveData<List<CategorySum>> getCurrentMonthCategorySums() {
-        System.out.println("DEBUG: ExpenseViewModel.getCurrentMonthCategorySums called");
-        
-        int year = currentYear.getValue() != null ? currentYear.getValue() : Calendar.getInstance().get(Calendar.YEAR);
-        int month = currentMonth.getValue() != null ? currentMonth.getValue() : Calendar.getInstance().get(Calendar.MONTH) + 1;
-        
-        System.out.println("DEBUG: Getting category sums for year: " + year + ", month: " + month);
-        LiveData<List<CategorySum>> result = repository.getMonthlyCategorySums(year, month);
-        
-        // Add an observer to log the values when they change
-        result.observeForever(categorySums -> {
-            if (categorySums != null) {
-                System.out.println("DEBUG: Category sums LiveData updated with " + categorySums.size() + " categories");
-                for (CategorySum categorySum : categorySums) {
-                    System.out.println("DEBUG: Category: " + categorySum.category + ", Sum: " + categorySum.total);
-                }
-            } else {
-                System.out.println("DEBUG: Category sums LiveData updated with null value");
-            }
-        });
-        
-        return result;
+        if (currentMonthCategorySums == null) {
+            currentMonthCategorySums = Transformations.switchMap(distinctMonth, ym ->
+                    repository.getMonthlyCategorySums(ym.getYear(), ym.getMonth()));
+        }
+        return currentMonthCategorySums;
+    }
+    
+    /**
+     * Get the expense trend over the last few years at the selected granularity
+     * @return LiveData of the dense trend series
+     */
+    @MainThread
+    public LiveData<TrendSeries> getTrend() {
+        if (trend == null) {
+            trend = Transformations.switchMap(Transformations.distinctUntilChanged(trendGranularity), granularity -> {
+                Calendar calendar = Calendar.getInstance();
+                long end = calendar.getTimeInMillis();
+                calendar.add(Calendar.YEAR, -TREND_YEARS);
+                return repository.getTrend(granularity, calendar.getTimeInMillis(), end, trendExecutor);
+            });
+        }
+        return trend;
     }
     
     /**
-     * Insert a new expense
+     * Get the selected trend granularity
+     * @return LiveData containing the granularity
+     */
+    public LiveData<TrendGranularity> getTrendGranularity() {
+        return trendGranularity;
+    }
+    
+    /**
+     * Set the bucket size of the trend
+     * @param granularity Day, week or month
+     */
+    public void setTrendGranularity(TrendGranularity granularity) {
+        trendGranularity.setValue(granularity);
+    }
+    
+    /**
+     * Insert a new expense without blocking the caller
      * @param expense Expense to insert
-     * @return ID of the inserted expense
+     * @return Future completing with the ID of the inserted expense
      */
-    public long insert(Expense expense) {
+    public ListenableFuture<Long> insert(Expense expense) {
         return repository.insert(expense);
     }
     
     /**
-     * Update an existing expense
+     * Update an existing expense without blocking the caller
      * @param expense Expense to update
+     * @return Future completing when the update is committed
      */
-    public void update(Expense expense) {
-        repository.update(expense);
+    public ListenableFuture<Void> update(Expense expense) {
+        return repository.update(expense);
     }
     
     /**
-     * Delete an expense
+     * Delete an expense without blocking the caller
      * @param expense Expense to delete
+     * @return Future completing when the delete is committed
      */
-    public void delete(Expense expense) {
-        repository.delete(expense);
+    public ListenableFuture<Void> delete(Expense expense) {
+        return repository.delete(expense);
     }
     
     /**
-     * Set the monthly budget
-     * @param budget Budget amount
+     * Insert a batch of expenses (for example an import) in a single transaction
+     * @param expenses Expenses to insert
+     * @return Future completing with the IDs of the inserted expenses
      */
-    public void setMonthlyBudget(double budget) {
-        System.out.println("DEBUG: ExpenseViewModel.setMonthlyBudget called with value: " + budget);
-        double oldValue = monthlyBudget.getValue() != null ? monthlyBudget.getValue() : 0.0;
-        System.out.println("DEBUG: ExpenseViewModel.setMonthlyBudget old value: " + oldValue);
-        
-        monthlyBudget.setValue(budget);
-        
-        System.out.println("DEBUG: ExpenseViewModel.setMonthlyBudget new value set: " + budget);
-        System.out.println("DEBUG: ExpenseViewModel.setMonthlyBudget current value: " + 
-                          (monthlyBudget.getValue() != null ? monthlyBudget.getValue() : "null"));
+    public ListenableFuture<long[]> insertAll(List<Expense> expenses) {
+        return repository.insertAll(expenses);
     }
     
     /**
-     * Get the monthly budget
-     * @return LiveData containing the budget
+     * Delete the expenses with the given IDs in a single transaction
+     * @param ids IDs of the expenses to delete
+     * @return Future completing with the number of rows deleted
      */
-    public LiveData<Double> getMonthlyBudget() {
+    public ListenableFuture<Integer> deleteByIds(long[] ids) {
+        return repository.deleteByIds(ids);
+    }
+    
+    /**
+     * Delete all expenses between two dates (inclusive) in a single transaction
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Future completing with the number of rows deleted
+     */
+    public ListenableFuture<Integer> deleteBetweenDates(Date startDate, Date endDate) {
+        return repository.deleteBetweenDates(startDate, endDate);
+    }
+    
+    /**
+     * Move every expense in one category to another in a single transaction
+     * @param fromCategoryId Id of the category to move expenses out of
+     * @param toCategoryId Id of the category to move expenses into
+     * @return Future completing with the number of rows updated
+     */
+    public ListenableFuture<Integer> reassignCategory(int fromCategoryId, int toCategoryId) {
+        return repository.reassignCategory(fromCategoryId, toCategoryId);
+    }
+    
+    /**
+     * Count every expense in the database, whatever filter the list shows, on a background thread
+     * @return Future completing with the number of expenses
+     */
+    public ListenableFuture<Long> countAllExpenses() {
+        return ioExecutor.submit(() -> repository.countExpenses(ExportFilter.all()));
+    }
+    
+    /**
+     * Export all expenses to a CSV file in Downloads on a background thread.
+     * Cancelling the returned future interrupts the export and deletes the partial file.
+     * @param listener Optional progress listener, called on the background thread
+     * @return Future completing with the file path, or null if the export failed
+     */
+    public ListenableFuture<String> exportCsv(CsvExportUtil.ProgressListener listener) {
+        return ioExecutor.submit(() -> CsvExportUtil.exportToDownloads(
+                getApplication(), ExportFilter.all(), listener));
+    }
+    
+    /**
+     * Write a binary backup of the expenses matching a filter on a background thread
+     * @param uri URI of the backup file
+     * @param filter Date range and categories to include
+     * @return Future completing with the number of expenses written
+     */
+    public ListenableFuture<Long> exportBackup(Uri uri, ExportFilter filter) {
+        return ioExecutor.submit(() -> BackupUtil.exportToUri(getApplication(), uri, filter));
+    }
+    
+    /**
+     * Restore expenses from a binary backup on a background thread
+     * @param uri URI of the backup file
+     * @return Future completing with the number of expenses restored
+     */
+    public ListenableFuture<Long> restoreBackup(Uri uri) {
+        return ioExecutor.submit(() -> BackupUtil.restoreFromUri(getApplication(), uri));
+    }
+    
+    /**
+     * Import expenses from a CSV file on a background thread
+     * @param uri URI of the CSV file
+     * @param listener Optional progress listener, called on the background thread
+     * @return Future completing with the import counters
+     */
+    public ListenableFuture<CsvImportUtil.ImportResult> importCsv(Uri uri, CsvImportUtil.ProgressListener listener) {
+        return ioExecutor.submit(() -> CsvImportUtil.importFromUri(
+                getApplication(), uri, CsvImportUtil.DEFAULT_CHUNK_SIZE, listener));
+    }
+    
+    /**
+     * Set the overall budget for the selected month
+     * @param budget Budget amount in minor units
+     * @return Future completing when the budget is stored
+     */
+    public ListenableFuture<Void> setMonthlyBudget(long budget) {
+        Tracer.debug(TAG, () -> "setMonthlyBudget " + selectedMonth.getValue() + " -> " + Money.toPlainString(budget));
+        return repository.setBudget(requireSelectedMonth(), Budget.OVERALL, budget);
+    }
+    
+    /**
+     * Set the budget for one category in the selected month
+     * @param categoryId Category id
+     * @param budget Budget amount in minor units
+     * @return Future completing when the budget is stored
+     */
+    public ListenableFuture<Void> setCategoryBudget(int categoryId, long budget) {
+        return repository.setBudget(requireSelectedMonth(), categoryId, budget);
+    }
+    
+    /**
+     * Remove the budget for one category in the selected month
+     * @param categoryId Category id
+     * @return Future completing with the number of budgets removed
+     */
+    public ListenableFuture<Integer> clearCategoryBudget(int categoryId) {
+        return repository.clearBudget(requireSelectedMonth(), categoryId);
+    }
+    
+    /**
+     * Get the overall budget for the selected month
+     * @return LiveData containing the budget in minor units, DEFAULT_MONTHLY_BUDGET if none is stored
+     */
+    @MainThread
+    public LiveData<Long> getMonthlyBudget() {
+        if (monthlyBudget == null) {
+            // Months without a stored budget fall back to the default
+            monthlyBudget = Transformations.distinctUntilChanged(Transformations.map(getBudgetStatus(),
+                    status -> status.hasBudget() ? status.getBudget() : DEFAULT_MONTHLY_BUDGET));
+        }
         return monthlyBudget;
     }
     
+    /**
+     * Get budget against spending for the selected month, overall and per category
+     * @return LiveData of the budget status, following the selected month
+     */
+    @MainThread
+    public LiveData<BudgetStatus> getBudgetStatus() {
+        if (budgetStatus == null) {
+            budgetStatus = Transformations.switchMap(distinctMonth, repository::getBudgetStatus);
+        }
+        return budgetStatus;
+    }
+    
+    /**
+     * Get the state of the budget screen for the selected month
+     * @return LiveData of the budget UI state, emitting only on change
+     */
+    @MainThread
+    public LiveData<BudgetUiState> getBudgetUiState() {
+        if (budgetUiState == null) {
+            // Budget screen state, emitted only when something visible changes
+            LiveData<BudgetStatus> status = getBudgetStatus();
+            MediatorLiveData<BudgetUiState> budgetState = new MediatorLiveData<>();
+            budgetState.addSource(status, value ->
+                    budgetState.setValue(BudgetUiState.from(value, DEFAULT_MONTHLY_BUDGET)));
+            budgetUiState = Transformations.distinctUntilChanged(budgetState);
+        }
+        return budgetUiState;
+    }
+    
     /**
      * Set the current month and year for filtering
      * @param year Year
      * @param month Month (1-12)
      */
     public void setCurrentMonthAndYear(int year, int month) {
-        System.out.println("DEBUG: ExpenseViewModel.setCurrentMonthAndYear called with year: " + year + ", month: " + month);
-        
-        Integer oldYear = currentYear.getValue();
-        Integer oldMonth = currentMonth.getValue();
-        System.out.println("DEBUG: Old values - year: " + oldYear + ", month: " + oldMonth);
-        
+        Tracer.debug(TAG, () -> "setCurrentMonthAndYear " + selectedMonth.getValue()
+                + " -> " + new YearMonth(year, month));
         currentYear.setValue(year);
         currentMonth.setValue(month);
-        
-        System.out.println("DEBUG: New values set - year: " + year + ", month: " + month);
-        System.out.println("DEBUG: Current values - year: " + currentYear.getValue() + ", month: " + currentMonth.getValue());
+        selectedMonth.setValue(new YearMonth(year, month));
     }
     
     /**
@@ -228,4 +577,34 @@ public class ExpenseViewModel extends AndroidViewModel {
     public LiveData<Integer> getCurrentMonth() {
         return currentMonth;
     }
+    
+    /**
+     * Get the selected year and month as one value
+     * @return LiveData containing the selected month
+     */
+    public LiveData<YearMonth> getSelectedMonth() {
+        return selectedMonth;
+    }
+    
+    /**
+     * Get the current expense list filter
+     * @return The filter, never null
+     */
+    public ExpenseFilter requireFilter() {
+        ExpenseFilter current = filter.getValue();
+        return current != null ? current : ExpenseFilter.none();
+    }
+    
+    private YearMonth requireSelectedMonth() {
+        YearMonth month = selectedMonth.getValue();
+        return month != null ? month : YearMonth.now();
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        ioExecutor.shutdown();
+        rowMapExecutor.shutdown();
+        trendExecutor.shutdown();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.example.expensetracker.benchmarks;
+
+import com.example.expensetracker.data.model.Category;
+
+import java.util.Calendar;
+import java.util.Random;
+
+/**
+ * Deterministic generator of realistic expense ledgers for benchmarks.
+ * The same seed and count always produce the same rows, so results are comparable across runs
+ * and releases. Shared by the JMH benchmarks and the instrumented DAO benchmarks, which seed
+ * databases from it.
+ * <p>
+ * Rows are spread over a fixed range of days ending on 2025-01-01, with the Friday and Saturday
+ * weekend busier than weekdays. Categories follow a skewed household mix, food and transport
+ * being most common. Amounts are log-normal around a per-category median, so most are small
+ * with a long tail of large ones. About a third of the rows have no notes. Ids are 1..count in
+ * date order.
+ */
+public final class LedgerGenerator {
+
+    /**
+     * Receives generated rows
+     */
+    public interface Sink {
+        void accept(long id, long date, long amountMinor, int categoryId, String notes);
+    }
+
+    private static final Category[] CATEGORIES = {
+            Category.FOOD, Category.TRANSPORTATION, Category.HOUSING, Category.ENTERTAINMENT,
+            Category.SHOPPING, Category.UTILITIES, Category.HEALTHCARE, Category.EDUCATION,
+            Category.OTHER
+    };
+
+    /**
+     * Relative frequency of each entry in CATEGORIES
+     */
+    private static final int[] WEIGHTS = {34, 18, 4, 10, 14, 6, 5, 3, 6};
+
+    /**
+     * Median amount of each entry in CATEGORIES, in minor units
+     */
+    private static final long[] MEDIANS = {
+            45_000, 12_000, 1_500_000, 80_000, 150_000, 250_000, 90_000, 300_000, 50_000
+    };
+
+    private static final String[][] NOTES = {
+            {"Lunch", "Groceries", "Dinner with friends", "Coffee", "Bakery", "Street food"},
+            {"Bus fare", "Rickshaw", "Fuel", "Train ticket", "Ride share"},
+            {"Rent", "Repairs", "Furniture"},
+            {"Cinema", "Concert tickets", "Streaming subscription", "Books"},
+            {"Clothes", "Shoes", "Electronics", "Gifts, wrapped", "Household items"},
+            {"Electricity bill", "Water bill", "Internet", "Mobile recharge", "Gas bill"},
+            {"Pharmacy", "Doctor visit", "Lab tests"},
+            {"Tuition", "Course fee", "Stationery"},
+            {"Donation", "Bank charges", "Miscellaneous"}
+    };
+
+    private static final int WEEKEND_WEIGHT = 3;
+    private static final int WEEKDAY_WEIGHT = 2;
+
+    private final long seed;
+    private final int days;
+
+    /**
+     * @param seed Random seed
+     * @param days Number of days the ledger covers
+     */
+    public LedgerGenerator(long seed, int days) {
+        this.seed = seed;
+        this.days = days;
+    }
+
+    /**
+     * @return Epoch millis of the first day covered, midnight in the default time zone
+     */
+    public long getStartMillis() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2025, Calendar.JANUARY, 1);
+        calendar.add(Calendar.DAY_OF_MONTH, -days);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Generate rows in date order
+     * @param count Number of rows
+     * @param sink Receives each row
+     */
+    public void generate(int count, Sink sink) {
+        Random random = new Random(seed);
+        int totalWeight = 0;
+        for (int weight : WEIGHTS) {
+            totalWeight += weight;
+        }
+
+        // Rows per day in proportion to the day's weight, rounded so the total is exact
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(getStartMillis());
+        long[] dayStarts = new long[days];
+        int[] dayWeights = new int[days];
+        long weightSum = 0;
+        for (int day = 0; day < days; day++) {
+            dayStarts[day] = calendar.getTimeInMillis();
+            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+            dayWeights[day] = dayOfWeek == Calendar.FRIDAY || dayOfWeek == Calendar.SATURDAY
+                    ? WEEKEND_WEIGHT : WEEKDAY_WEIGHT;
+            weightSum += dayWeights[day];
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+
+        long id = 1;
+        long weightSoFar = 0;
+        int emitted = 0;
+        for (int day = 0; day < days; day++) {
+            weightSoFar += dayWeights[day];
+            int target = (int) (count * weightSoFar / weightSum);
+            int rows = target - emitted;
+            // Spread the day's rows from 08:00 to 22:00 in ascending order
+            long step = rows > 0 ? 14 * 60 * 60 * 1000L / rows : 0;
+            long time = dayStarts[day] + 8 * 60 * 60 * 1000L;
+            for (int i = 0; i < rows; i++) {
+                int category = pick(random.nextInt(totalWeight));
+                double logNormal = Math.exp(random.nextGaussian() * 0.8);
+                long amount = Math.max(100, Math.round(MEDIANS[category] * logNormal / 100) * 100);
+                String[] notes = NOTES[category];
+                String note = random.nextInt(3) == 0 ? null : notes[random.nextInt(notes.length)];
+                sink.accept(id++, time, amount, CATEGORIES[category].getId(), note);
+                time += step;
+            }
+            emitted = target;
+        }
+    }
+
+    private static int pick(int roll) {
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) return i;
+        }
+        return WEIGHTS.length - 1;
+    }
+}
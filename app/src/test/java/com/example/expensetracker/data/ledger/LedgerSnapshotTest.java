@@ -0,0 +1,154 @@
+package com.example.expensetracker.data.ledger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the chunked snapshot against a plain sorted list of rows, through random edits that
+ * grow, split and empty chunks.
+ */
+public class LedgerSnapshotTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final int CATEGORIES = 12;
+    private static final long MONTH_START = 100 * DAY;
+    private static final long MONTH_END = 130 * DAY - 1;
+
+    @Test
+    public void buildKeepsEveryRowInOrder() {
+        List<long[]> rows = randomRows(new Random(1), 3 * LedgerSnapshot.CHUNK_SIZE + 17, 1);
+        LedgerSnapshot snapshot = build(rows);
+        assertMatches(rows, snapshot);
+    }
+
+    @Test
+    public void randomChangesMatchRebuiltSnapshot() {
+        Random random = new Random(7);
+        List<long[]> rows = randomRows(random, 2 * LedgerSnapshot.CHUNK_SIZE, 1);
+        LedgerSnapshot snapshot = build(rows);
+        long[] accumulated = snapshot.sumByCategoryBetween(MONTH_START, MONTH_END);
+        long nextId = rows.size() + 1;
+
+        for (int round = 0; round < 200; round++) {
+            int changes = round % 50 == 0 ? LedgerSnapshot.CHUNK_SIZE * 3 : 1 + random.nextInt(20);
+            long[] changedIds = new long[changes];
+            for (int i = 0; i < changes; i++) {
+                int kind = random.nextInt(3);
+                if (kind == 0 || rows.isEmpty()) {
+                    // Insert
+                    long[] row = randomRow(random, nextId++);
+                    rows.add(row);
+                    changedIds[i] = row[0];
+                } else {
+                    long[] row = rows.get(random.nextInt(rows.size()));
+                    changedIds[i] = row[0];
+                    if (kind == 1) {
+                        // Delete
+                        rows.remove(row);
+                    } else {
+                        // Edit, possibly moving the row far in date order
+                        row[1] = random.nextInt(365) * DAY + random.nextInt(1000);
+                        row[2] = 100 + random.nextInt(10_000);
+                    }
+                }
+            }
+            // As read back from the database: one row per changed id that still exists
+            LedgerSnapshot.Builder updated = currentRows(changedIds, rows);
+            LedgerSnapshot previous = snapshot;
+            snapshot = snapshot.withChanges(changedIds, changedIds.length, updated);
+            assertMatches(rows, snapshot);
+
+            // Totals adjusted by each change set stay equal to a full recount
+            assertTrue(snapshot.isChangeOf(previous.getVersion()));
+            assertFalse(previous.isChangeOf(snapshot.getVersion()));
+            accumulated = snapshot.adjustByCategoryBetween(accumulated, MONTH_START, MONTH_END);
+            assertArrayEquals(Arrays.copyOf(snapshot.sumByCategoryBetween(MONTH_START, MONTH_END), CATEGORIES),
+                    Arrays.copyOf(accumulated, CATEGORIES));
+        }
+    }
+
+    @Test
+    public void deletingEveryRowLeavesAnEmptySnapshot() {
+        List<long[]> rows = randomRows(new Random(3), 100, 1);
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rows.get(i)[0];
+        }
+        LedgerSnapshot snapshot = build(rows).withChanges(ids, ids.length, new LedgerSnapshot.Builder(0));
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.sumBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private static LedgerSnapshot.Builder currentRows(long[] changedIds, List<long[]> rows) {
+        long[] sorted = changedIds.clone();
+        Arrays.sort(sorted);
+        LedgerSnapshot.Builder updated = new LedgerSnapshot.Builder(changedIds.length);
+        for (long[] row : rows) {
+            if (Arrays.binarySearch(sorted, row[0]) >= 0) {
+                updated.add(row[0], row[1], row[2], (int) row[3]);
+            }
+        }
+        return updated;
+    }
+
+    private static List<long[]> randomRows(Random random, int count, long firstId) {
+        List<long[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(randomRow(random, firstId + i));
+        }
+        return rows;
+    }
+
+    private static long[] randomRow(Random random, long id) {
+        // Few distinct days, so many rows share a date and are ordered by id
+        return new long[]{id, random.nextInt(365) * DAY + random.nextInt(1000),
+                100 + random.nextInt(10_000), random.nextInt(CATEGORIES)};
+    }
+
+    private static LedgerSnapshot build(List<long[]> rows) {
+        LedgerSnapshot.Builder builder = new LedgerSnapshot.Builder(rows.size());
+        for (long[] row : rows) {
+            builder.add(row[0], row[1], row[2], (int) row[3]);
+        }
+        return builder.build();
+    }
+
+    private static void assertMatches(List<long[]> rows, LedgerSnapshot snapshot) {
+        List<long[]> sorted = new ArrayList<>(rows);
+        sorted.sort((x, y) -> x[1] != y[1] ? Long.compare(x[1], y[1]) : Long.compare(x[0], y[0]));
+        assertEquals(sorted.size(), snapshot.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i)[0], snapshot.getId(i));
+            assertEquals(sorted.get(i)[1], snapshot.getDate(i));
+            assertEquals(sorted.get(i)[2], snapshot.getAmountMinor(i));
+            assertEquals(sorted.get(i)[3], snapshot.getCategoryId(i));
+        }
+
+        // Range totals over a month in the middle of the year
+        long start = MONTH_START;
+        long end = MONTH_END;
+        long sum = 0;
+        int count = 0;
+        long[] byCategory = new long[CATEGORIES];
+        for (long[] row : sorted) {
+            if (row[1] >= start && row[1] <= end) {
+                sum += row[2];
+                count++;
+                byCategory[(int) row[3]] += row[2];
+            }
+        }
+        assertEquals(sum, snapshot.sumBetween(start, end));
+        assertEquals(count, snapshot.countBetween(start, end));
+        long[] actual = Arrays.copyOf(snapshot.sumByCategoryBetween(start, end), CATEGORIES);
+        assertArrayEquals(byCategory, actual);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.expensetracker.benchmarks;
+
+import com.example.expensetracker.data.model.Category;
+import com.example.expensetracker.data.model.CategoryTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category lookups: by display name, as CSV import matches text, and by id, as every list row
+ * and chart label resolves its name. The name parameter covers the first built-in, the last
+ * one and a name that matches nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryLookupBenchmark {
+
+    @Param({"Food", "Other", "Pets"})
+    public String name;
+
+    private final CategoryTable table = CategoryTable.BUILT_IN;
+    private int id;
+
+    @Setup
+    public void setUp() {
+        id = table.idOf(name);
+    }
+
+    @Benchmark
+    public Category fromDisplayName() {
+        return Category.fromDisplayName(name);
+    }
+
+    @Benchmark
+    public Category fromId() {
+        return Category.fromId(id);
+    }
+
+    @Benchmark
+    public int tableIdOf() {
+        return table.idOf(name);
+    }
+
+    @Benchmark
+    public String tableNameOf() {
+        return table.nameOf(id);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.expensetracker.benchmarks;
+
+import com.example.expensetracker.util.CsvRowEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding one export row the way CsvExportUtil does: id, amount, category, date and notes.
+ * The notes parameter covers the plain fast path and a field that has to be quoted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvRowEncoderBenchmark {
+
+    @Param({"Lunch with the team", "Groceries, \"organic\" section"})
+    public String notes;
+
+    private final CsvRowEncoder encoder = new CsvRowEncoder();
+    private char[] notesChars;
+    private Writer writer;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        notesChars = notes.toCharArray();
+        writer = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                blackhole.consume(length);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Benchmark
+    public void encodeRow() throws IOException {
+        encoder.appendLong(48213)
+                .appendMinorUnits(123450)
+                .appendText("Food")
+                .appendDate(1_700_000_000_000L)
+                .appendText(notes);
+        encoder.writeRow(writer);
+    }
+
+    /**
+     * Notes copied from a Cursor into a char array, as the export reads them
+     */
+    @Benchmark
+    public void encodeRowFromCharArray() throws IOException {
+        encoder.appendLong(48213)
+                .appendMinorUnits(123450)
+                .appendText("Food")
+                .appendDate(1_700_000_000_000L)
+                .appendText(notesChars, notesChars.length);
+        encoder.writeRow(writer);
+    }
+
+    @Benchmark
+    public void appendText() throws IOException {
+        encoder.appendText(notes);
+        encoder.writeRow(writer);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.expensetracker.benchmarks;
+
+import com.example.expensetracker.util.DateConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Room type converter run for every date column read or written
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateConverterBenchmark {
+
+    // Not final, so the JIT cannot fold the conversions away
+    public long timestamp = 1_700_000_000_000L;
+    public Long boxedTimestamp = timestamp;
+    public Date date = new Date(timestamp);
+
+    @Benchmark
+    public Long fromDate() {
+        return DateConverter.fromDate(date);
+    }
+
+    @Benchmark
+    public Date toDate() {
+        return DateConverter.toDate(boxedTimestamp);
+    }
+
+    /**
+     * Boxing included, as when Room reads the column with Cursor.getLong
+     */
+    @Benchmark
+    public Date toDateFromPrimitive() {
+        return DateConverter.toDate(timestamp);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.expensetracker.benchmarks;
+
+import com.example.expensetracker.data.model.Money;
+import com.example.expensetracker.util.MoneyFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.NumberFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Currency formatting of list row amounts. MoneyFormat is compared with the
+ * NumberFormat.getCurrencyInstance call it replaced, for the same locale.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyFormatBenchmark {
+
+    @Param({"1250", "123456789"})
+    public long minor;
+
+    private final MoneyFormat moneyFormat = new MoneyFormat();
+    private final NumberFormat numberFormat = NumberFormat.getCurrencyInstance(MoneyFormat.LOCALE);
+    private final StringBuilder out = new StringBuilder(32);
+
+    @Benchmark
+    public String format() {
+        return moneyFormat.format(minor);
+    }
+
+    @Benchmark
+    public StringBuilder appendTo() {
+        out.setLength(0);
+        return moneyFormat.appendTo(out, minor);
+    }
+
+    @Benchmark
+    public String numberFormat() {
+        return numberFormat.format(Money.toMajor(minor));
+    }
+
+    /**
+     * A new NumberFormat per call, as a formatter created inside a bind method would cost
+     */
+    @Benchmark
+    public String newNumberFormat() {
+        return NumberFormat.getCurrencyInstance(MoneyFormat.LOCALE).format(Money.toMajor(minor));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.expensetracker.benchmarks;
+
+import com.example.expensetracker.data.model.YearMonth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Month-boundary math in YearMonth, run whenever a month-scoped query or total is set up, such
+ * as ExpenseRepository.getMonthlyExpenses and MonthCategorySums
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonthBoundsBenchmark {
+
+    public YearMonth month = new YearMonth(2024, 2);
+
+    @Benchmark
+    public void yearMonthBounds(Blackhole blackhole) {
+        blackhole.consume(month.getStartDate());
+        blackhole.consume(month.getEndDate());
+    }
+
+    @Benchmark
+    public YearMonth currentMonth() {
+        return YearMonth.now();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.expensetracker.data.ledger;
+
+import com.example.expensetracker.benchmarks.LedgerGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ledger reads behind the statistics and budget screens, on generated ledgers of 10k, 100k
+ * and 1M expenses over five years. Sampled, so the JSON results carry p50 and p99 latency; the
+ * jmh task adds the gc profiler for allocation per operation.
+ * <p>
+ * Lives in the ledger package because LedgerSnapshot.Builder is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class LedgerBenchmark {
+
+    private static final long SEED = 20240101L;
+    private static final int DAYS = 5 * 365;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private LedgerSnapshot snapshot;
+    private long[] ids;
+    private long[] dates;
+    private long[] amounts;
+    private int[] categoryIds;
+    private long monthStart;
+    private long monthEnd;
+    private long yearStart;
+    private long yearEnd;
+    private final long[] changedIds = new long[1];
+    private LedgerSnapshot.Builder changedRow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = new long[rows];
+        dates = new long[rows];
+        amounts = new long[rows];
+        categoryIds = new int[rows];
+        new LedgerGenerator(SEED, DAYS).generate(rows, (id, date, amountMinor, categoryId, notes) -> {
+            int i = (int) id - 1;
+            ids[i] = id;
+            dates[i] = date;
+            amounts[i] = amountMinor;
+            categoryIds[i] = categoryId;
+        });
+        snapshot = load();
+
+        // The last full month and year of the generated range
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2024, Calendar.DECEMBER, 1);
+        monthStart = calendar.getTimeInMillis();
+        calendar.set(2025, Calendar.JANUARY, 1);
+        monthEnd = calendar.getTimeInMillis() - 1;
+        yearEnd = monthEnd;
+        calendar.set(2024, Calendar.JANUARY, 1);
+        yearStart = calendar.getTimeInMillis();
+
+        // An edit moving one expense from the middle of the ledger to the end
+        int middle = rows / 2;
+        changedIds[0] = ids[middle];
+        changedRow = new LedgerSnapshot.Builder(1);
+        changedRow.add(ids[middle], dates[rows - 1], amounts[middle] + 100, categoryIds[middle]);
+    }
+
+    private LedgerSnapshot load() {
+        LedgerSnapshot.Builder builder = new LedgerSnapshot.Builder(rows);
+        for (int i = 0; i < rows; i++) {
+            builder.add(ids[i], dates[i], amounts[i], categoryIds[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Copying every row into a snapshot, as a full reload does after reading the cursor
+     */
+    @Benchmark
+    public LedgerSnapshot fullLoad() {
+        return load();
+    }
+
+    /**
+     * Monthly total on the statistics screen
+     */
+    @Benchmark
+    public long monthSum() {
+        return snapshot.sumBetween(monthStart, monthEnd);
+    }
+
+    /**
+     * Category split behind the charts and budget progress
+     */
+    @Benchmark
+    public long[] monthCategorySums() {
+        return snapshot.sumByCategoryBetween(monthStart, monthEnd);
+    }
+
+    @Benchmark
+    public long[] yearCategorySums() {
+        return snapshot.sumByCategoryBetween(yearStart, yearEnd);
+    }
+
+    /**
+     * Applying a one-row delta from the change log; only the two chunks it touches are copied
+     */
+    @Benchmark
+    public LedgerSnapshot applyOneChange() {
+        return snapshot.withChanges(changedIds, 1, changedRow);
+    }
+}